@@ -132,8 +132,8 @@ const AllDoctors: React.FC = () => {
 
         console.log(`Processing image URL for ${doctor.name}:`, doctor.imageUrl);
 
-        // Use the centralized function to get the backend image URL
-        const imageUrl = getBackendImageUrl(doctor.imageUrl);
+        // Use the centralized function to get the backend image URL; cards only need the card-sized copy
+        const imageUrl = getBackendImageUrl(doctor.cardImageUrl || doctor.imageUrl);
         console.log(`Resolved image URL for ${doctor.name}:`, imageUrl);
 
         return imageUrl;
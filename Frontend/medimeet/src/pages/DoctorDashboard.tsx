@@ -1,6 +1,6 @@
-import { useEffect, useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { Link, useLocation, useNavigate } from 'react-router-dom';
-import { authService, AppointmentResponse, DoctorProfileDTO } from '../services/api';
+import { authService, AppointmentEvent, AppointmentResponse, DoctorProfileDTO, subscribeToAppointmentEvents } from '../services/api';
 import { Input } from "../components/ui/input";
 import { Button } from '../components/ui/button';
 import './DoctorDashboard.css'; // Assuming you have or will create this file
@@ -160,6 +160,12 @@ export default function DoctorDashboard() {
     const [upcomingTotalPages, setUpcomingTotalPages] = useState(1);
     const [rejectedTotalPages, setRejectedTotalPages] = useState(1);
 
+    // Cursor that fetches each visited page, per tab; index 0 is the first page
+    const pageCursors = useRef<{ upcoming: (string | null)[], rejected: (string | null)[] }>({
+        upcoming: [null],
+        rejected: [null]
+    });
+
     // Add state to hold all appointments for dashboard stats
     const [allDoctorAppointments, setAllDoctorAppointments] = useState<AppointmentResponse[]>([]);
 
@@ -185,7 +191,10 @@ export default function DoctorDashboard() {
         setIsLoading(true);
         setError(null);
         try {
-            const { appointments, totalPages } = await authService.getDoctorAppointments(page, appointmentsPerPage);
+            const cursors = pageCursors.current[status];
+            const { appointments, totalPages, nextCursor } =
+                await authService.getDoctorAppointments(cursors[page] ?? null, appointmentsPerPage);
+            cursors[page + 1] = nextCursor;
             if (status === 'upcoming') {
                 const filtered = appointments.filter((apt: AppointmentResponse) => apt.status === 'pending' || apt.status === 'accepted');
                 setUpcomingAppointments(filtered);
@@ -211,6 +220,40 @@ export default function DoctorDashboard() {
         }
     }, [activeTab, upcomingPage, rejectedPage]);
 
+    // Apply each queue event as a delta to the counts and refresh the visible page;
+    // after a reset (too many missed events) the counts are fetched again instead
+    const refreshOnEvent = useRef<(event: AppointmentEvent) => void>(() => {});
+    refreshOnEvent.current = (event: AppointmentEvent) => {
+        if (activeTab === 'upcoming') {
+            fetchPaginatedAppointments('upcoming', upcomingPage);
+        } else {
+            fetchPaginatedAppointments('rejected', rejectedPage);
+        }
+        if (event.type !== 'reset') {
+            setStats(prev => {
+                const next: Record<string, number> = { ...prev };
+                if (event.previousStatus && event.previousStatus in next) {
+                    next[event.previousStatus] = Math.max(0, next[event.previousStatus] - 1);
+                }
+                if (event.status && event.status in next) {
+                    next[event.status] = next[event.status] + 1;
+                }
+                return next as typeof prev;
+            });
+            return;
+        }
+        authService.getLoggedInDoctorAppointmentCounts()
+            .then(counts => setStats({
+                pending: counts.pending || 0,
+                accepted: counts.accepted || 0,
+                rejected: counts.rejected || 0,
+                cancelled: counts.cancelled || 0
+            }))
+            .catch(error => console.error('Error fetching appointment counts:', error));
+    };
+    useEffect(() => subscribeToAppointmentEvents(event => refreshOnEvent.current(event),
+        '/appointments/doctor/stream'), []);
+
     useEffect(() => {
         const checkAuth = async () => {
             try {
@@ -3,7 +3,7 @@ import { useNavigate, Link } from "react-router-dom";
 import Header from "../components/Header";
 import Footer from "../components/Footer";
 import { Calendar, Clock, MapPin, X } from "lucide-react";
-import { authService, AppointmentResponse } from "../services/api";
+import { authService, AppointmentResponse, subscribeToAppointmentEvents } from "../services/api";
 import { ToastContainer, toast } from 'react-toastify';
 import 'react-toastify/dist/ReactToastify.css';
 import { Button } from '../components/ui/button';
@@ -63,6 +63,8 @@ export default function PatientAppointments() {
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
     const [allAppointments, setAllAppointments] = useState<AppointmentResponse[]>([]);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [confirmDialog, setConfirmDialog] = useState({
         isOpen: false,
         message: '',
@@ -175,8 +177,9 @@ export default function PatientAppointments() {
             const fetchAppointments = async () => {
                 try {
                     setLoading(true);
-                    const appointments = await authService.getPatientAppointments();
-                    setAllAppointments(appointments);
+                    const page = await authService.getPatientAppointments();
+                    setAllAppointments(page.appointments);
+                    setNextCursor(page.nextCursor);
                     setError(null);
                 } catch (error: any) {
                     console.error('Error fetching appointments:', error);
@@ -187,12 +190,29 @@ export default function PatientAppointments() {
             };
 
             fetchAppointments();
+            // Reload when the doctor accepts or rejects, instead of polling
+            return subscribeToAppointmentEvents(() => fetchAppointments());
         } catch (error) {
             console.error('Error parsing user data:', error);
             navigate('/patient-login');
         }
     }, [navigate]);
 
+    const loadMoreAppointments = async () => {
+        if (!nextCursor) return;
+        try {
+            setLoadingMore(true);
+            const page = await authService.getPatientAppointments(nextCursor);
+            setAllAppointments(prev => [...prev, ...page.appointments]);
+            setNextCursor(page.nextCursor);
+        } catch (error: any) {
+            console.error('Error fetching more appointments:', error);
+            setError('Failed to load more appointments. Please try again later.');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const promptCancelAppointment = (appointmentId: number) => {
         setConfirmDialog({
             isOpen: true,
@@ -324,6 +344,17 @@ export default function PatientAppointments() {
                                 </div>
                             </div>
                         ))}
+                        {nextCursor && (
+                            <div className="flex justify-center">
+                                <Button
+                                    onClick={loadMoreAppointments}
+                                    disabled={loadingMore}
+                                    className="bg-white border border-[#5f6fff] text-[#5f6fff] hover:bg-gray-50 text-sm px-4 py-2"
+                                >
+                                    {loadingMore ? 'Loading...' : 'Load more'}
+                                </Button>
+                            </div>
+                        )}
                     </div>
                 )}
             </div>
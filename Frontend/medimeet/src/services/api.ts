@@ -93,6 +93,8 @@ export interface HomeDTO {
     name: string;
     specialisation: string;
     imageUrl?: string;
+    // Card-sized copy of imageUrl
+    cardImageUrl?: string;
 }
 
 export interface AppointDTO {
@@ -423,7 +425,8 @@ export const authService = {
     async getAllSpecializations(): Promise<string[]> {
         try {
             const response = await api.get('/users/getAllSpecializations');
-            return response.data;
+            // Each entry is { name, count }; only the names are used for filtering
+            return response.data.map((specialization: { name: string }) => specialization.name);
         } catch (error: any) {
             console.error('Error fetching specializations:', error);
             // Return default specializations if API call fails
@@ -501,31 +504,42 @@ export const authService = {
         }
     },
 
-    async getPatientAppointments(): Promise<AppointmentResponse[]> {
+    // Pass the previous page's nextCursor to continue; null/undefined starts from the beginning
+    async getPatientAppointments(cursor?: string | null, size?: number): Promise<{
+        appointments: AppointmentResponse[],
+        nextCursor: string | null,
+        isLastPage: boolean
+    }> {
         try {
-            const response = await api.get('/appointments/patient');
-            return response.data;
+            const response = await api.get('/appointments/patient', {
+                params: { cursor: cursor || undefined, size }
+            });
+            return {
+                appointments: response.data.content,
+                nextCursor: response.data.nextCursor ?? null,
+                isLastPage: response.data.last
+            };
         } catch (error) {
             console.error('Error fetching patient appointments:', error);
-            return mockAppointments(); // Return mock data for demo purposes
+            // Return mock data for demo purposes
+            return { appointments: mockAppointments(), nextCursor: null, isLastPage: true };
         }
     },
 
-    async getDoctorAppointments(page: number = 0, size: number = 5): Promise<{
+    // Cursor-paged; totalPages comes from the server-side total the backend keeps per doctor
+    async getDoctorAppointments(cursor: string | null = null, size: number = 5): Promise<{
         appointments: AppointmentResponse[],
         totalPages: number,
-        currentPage: number,
+        nextCursor: string | null,
         pageSize: number,
         isLastPage: boolean
     }> {
         try {
-            // Force size to be exactly 5
-            const pageSize = 5;
-
             const response = await api.get('/appointments/doctor', {
                 params: {
-                    page,
-                    size: pageSize
+                    cursor: cursor || undefined,
+                    size,
+                    includeTotal: true
                 }
             });
             console.log('Doctor appointments fetched successfully:', response.data);
@@ -544,12 +558,13 @@ export const authService = {
                 patient: appt.patient
             }));
 
+            const pageSize = response.data.pageSize;
             return {
                 appointments,
-                totalPages: response.data.totalPages,
-                currentPage: response.data.currentPage,
-                pageSize: response.data.pageSize,
-                isLastPage: response.data.isLastPage
+                totalPages: Math.max(1, Math.ceil((response.data.totalElements ?? 0) / pageSize)),
+                nextCursor: response.data.nextCursor ?? null,
+                pageSize,
+                isLastPage: response.data.last
             };
         } catch (error: any) {
             console.error('Error fetching doctor appointments:', error);
@@ -567,7 +582,7 @@ export const authService = {
                 return {
                     appointments: [],
                     totalPages: 0,
-                    currentPage: 0,
+                    nextCursor: null,
                     pageSize: 5,
                     isLastPage: true
                 };
@@ -576,7 +591,7 @@ export const authService = {
                 return {
                     appointments: [],
                     totalPages: 0,
-                    currentPage: 0,
+                    nextCursor: null,
                     pageSize: 5,
                     isLastPage: true
                 };
@@ -584,7 +599,7 @@ export const authService = {
             return {
                 appointments: [],
                 totalPages: 0,
-                currentPage: 0,
+                nextCursor: null,
                 pageSize: 5,
                 isLastPage: true
             };
@@ -688,6 +703,11 @@ export const authService = {
         } catch (error: any) {
             console.error('Error booking appointment:', error);
 
+            // Slot taken (409) or outside the doctor's availability (400): surface it instead of faking success
+            if (error.response?.status === 409 || error.response?.status === 400) {
+                throw new Error(error.response.data || 'This slot is not available');
+            }
+
             // For demo purposes, return a mock response if the backend call fails
             // This allows the UI to still work even without a working backend
             const mockResponse: AppointmentResponse = {
@@ -705,6 +725,12 @@ export const authService = {
         }
     },
 
+    // Free "HH:mm" slots for a doctor on a date (YYYY-MM-DD)
+    async getAvailableSlots(doctorId: number, date: string): Promise<string[]> {
+        const response = await api.get('/appointments/availability', { params: { doctorId, date } });
+        return response.data;
+    },
+
     // Update the updateAppointmentStatus method
     updateAppointmentStatus: async (appointmentId: number, status: string) => {
         try {
@@ -838,8 +864,10 @@ export const authService = {
     },
 
     // Get appointments over time for admin (for line chart)
-    async getAdminAppointmentsOverTime(): Promise<{ date: string, count: number }[]> {
-        const response = await api.get('/appointments/admin/appointments-over-time');
+    async getAdminAppointmentsOverTime(
+        params: { from?: string, to?: string, bucket?: 'day' | 'week' | 'month' } = {}
+    ): Promise<{ date: string, count: number }[]> {
+        const response = await api.get('/appointments/admin/appointments-over-time', { params });
         return response.data;
     },
 };
@@ -1016,6 +1044,108 @@ api.interceptors.response.use(
     }
 );
 
+// A 'reset' carries no appointment: more events were missed than the server
+// replays, so the client should reload its data instead.
+export interface AppointmentEvent {
+    eventId: number;
+    type: 'booked' | 'status' | 'cancelled' | 'reset';
+    appointmentId: number;
+    doctorId: number;
+    patientId: number;
+    previousStatus: string | null;
+    status: string | null;
+    date: string | number[];
+    time: string | number[];
+}
+
+// Same credentials the request interceptor sends
+const streamAuthHeader = (): string | null => {
+    const token = localStorage.getItem('jwt_token');
+    if (token) {
+        return `Bearer ${token}`;
+    }
+    const email = localStorage.getItem('userEmail');
+    const password = localStorage.getItem('userPassword');
+    return email && password ? `Basic ${btoa(`${email}:${password}`)}` : null;
+};
+
+/**
+ * Listens to the logged-in user's appointment events (Server-Sent Events) and
+ * reconnects after a drop, resuming from the last event seen. EventSource cannot
+ * send an Authorization header, so the stream is read with fetch.
+ * Returns a function that closes the stream.
+ */
+export const subscribeToAppointmentEvents = (
+    onEvent: (event: AppointmentEvent) => void,
+    path: string = '/appointments/stream'
+): (() => void) => {
+    const controller = new AbortController();
+    let lastEventId: string | null = null;
+    let retryMs = 1000;
+
+    const connect = async () => {
+        while (!controller.signal.aborted) {
+            const auth = streamAuthHeader();
+            if (!auth) {
+                return;
+            }
+            try {
+                const headers: Record<string, string> = { Accept: 'text/event-stream', Authorization: auth };
+                if (lastEventId) {
+                    headers['Last-Event-ID'] = lastEventId;
+                }
+                const response = await fetch(`${API_BASE_URL}${path}`, {
+                    headers,
+                    credentials: 'include',
+                    signal: controller.signal
+                });
+                if (response.status === 401 || response.status === 403) {
+                    return;
+                }
+                if (!response.ok || !response.body) {
+                    throw new Error(`Event stream failed with status ${response.status}`);
+                }
+                retryMs = 1000;
+                const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+                let buffer = '';
+                for (;;) {
+                    const { value, done } = await reader.read();
+                    if (done) {
+                        break;
+                    }
+                    buffer += value;
+                    let boundary;
+                    while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+                        const block = buffer.slice(0, boundary);
+                        buffer = buffer.slice(boundary + 2);
+                        let data = '';
+                        for (const line of block.split('\n')) {
+                            if (line.startsWith('id:')) {
+                                lastEventId = line.slice(3).trim();
+                            } else if (line.startsWith('data:')) {
+                                data += line.slice(5);
+                            }
+                        }
+                        if (data) {
+                            onEvent(JSON.parse(data) as AppointmentEvent);
+                        }
+                    }
+                }
+            } catch (error) {
+                if (controller.signal.aborted) {
+                    return;
+                }
+                console.warn('Appointment event stream dropped, reconnecting', error);
+            }
+            await new Promise(resolve => setTimeout(resolve, retryMs));
+            retryMs = Math.min(retryMs * 2, 30000);
+        }
+    };
+
+    connect();
+    return () => controller.abort();
+};
+
 export default api;
 
 // Helper function to get the full image URL for backend images
@@ -1032,13 +1162,10 @@ export const getBackendImageUrl = (imagePath: string | undefined): string => {
         return imagePath;
     }
 
-    // If it's an asset path from backend (like "assets/something.jpg")
+    // If it's an asset path from backend (like "assets/something.jpg" or "assets/card/something.jpg")
     if (imagePath.startsWith('assets/')) {
-        // Get the filename part only
-        const filename = imagePath.split('/').pop();
-
         // Return the full path to the image through the API endpoint
-        return `/api/assets/${filename}`;
+        return `/api/${imagePath}`;
     }
 
     // Fallback to default image
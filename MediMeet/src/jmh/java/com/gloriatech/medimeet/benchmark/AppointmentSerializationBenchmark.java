@@ -0,0 +1,90 @@
+package com.gloriatech.medimeet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gloriatech.medimeet.dto.AppointmentDTO;
+import com.gloriatech.medimeet.model.Appointment;
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appointment list responses per second, serialized the way the web layer does:
+ * full entity graphs (doctor and patient with password hashes and profile text)
+ * against the compact AppointmentDTO view. The rows counter reports rows per
+ * second; bytes per response are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentSerializationBenchmark {
+
+    @Param({"5", "50"})
+    public int rows;
+
+    private ObjectMapper objectMapper;
+    private List<Appointment> entities;
+    private List<AppointmentDTO> views;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        // Same configuration as the MappingJackson2HttpMessageConverter in WebConfig
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        entities = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Doctor doctor = new Doctor("Doctor " + i, "Cardiology", "0780000000", "doctor-" + i + ".jpg",
+                    "Board certified cardiologist with a focus on preventive care. ".repeat(8), "12 years");
+            doctor.setId(1000L + i % 10);
+            doctor.setEmail("doctor" + i + "@medimeet.test");
+            doctor.setPassword("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy");
+            doctor.setRole("Doctor");
+
+            Patient patient = new Patient("0790000000", "Patient " + i);
+            patient.setId(5000L + i);
+            patient.setEmail("patient" + i + "@medimeet.test");
+            patient.setPassword("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy");
+            patient.setRole("PATIENT");
+
+            entities.add(new Appointment((long) i, doctor, patient, LocalDate.of(2030, 1, 1).plusDays(i),
+                    LocalTime.of(9, 0), "Follow-up on blood pressure readings", "pending"));
+        }
+        views = entities.stream().map(AppointmentDTO::from).toList();
+
+        System.out.printf("%nBytes per response (%d rows): entities %d, dto %d%n", rows,
+                objectMapper.writeValueAsBytes(entities).length, objectMapper.writeValueAsBytes(views).length);
+    }
+
+    @Benchmark
+    public byte[] serializeEntities(RowCounter counter) throws Exception {
+        counter.rows += rows;
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] serializeDtos(RowCounter counter) throws Exception {
+        counter.rows += rows;
+        return objectMapper.writeValueAsBytes(views);
+    }
+
+    // Includes the entity to view mapping for endpoints that map after a write
+    @Benchmark
+    public byte[] mapAndSerializeDtos(RowCounter counter) throws Exception {
+        counter.rows += rows;
+        return objectMapper.writeValueAsBytes(entities.stream().map(AppointmentDTO::from).toList());
+    }
+}
@@ -0,0 +1,101 @@
+package com.gloriatech.medimeet.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result (-rf json) with a baseline of the same format and
+ * fails when a benchmark got slower by more than the threshold:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec@jmh-compare [-Djmh.baseline=...] [-Djmh.result=...] [-Djmh.threshold=10]
+ * </pre>
+ * Benchmarks are matched by name and parameters. A change only counts as a
+ * regression when it exceeds both the threshold and the two runs' combined
+ * error, so noise within the confidence intervals does not fail the build.
+ * Scores only compare meaningfully when both files come from the same machine.
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <result.json> [threshold percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> result = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : new TreeMap<>(result).entrySet()) {
+            Score current = entry.getValue();
+            Score base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  new%n", entry.getKey(), "-", current.value(), "");
+                continue;
+            }
+            // Positive is better: more operations per unit, or less time per operation
+            double change = (current.value() - base.value()) / base.value() * 100;
+            double improvement = current.higherIsBetter() ? change : -change;
+            boolean beyondError = Math.abs(current.value() - base.value()) > current.error() + base.error();
+            String verdict = "";
+            if (improvement < -threshold && beyondError) {
+                verdict = "  REGRESSION";
+                regressions++;
+            } else if (improvement > threshold && beyondError) {
+                verdict = "  improved";
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), base.value(), current.value(),
+                    change, verdict);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!result.containsKey(missing)) {
+                System.out.printf("%-70s %14.3f %14s %9s  not run%n", missing, baseline.get(missing).value(), "-", "");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+        System.out.printf("No regressions beyond %.0f%%%n", threshold);
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key(run), new Score(
+                    metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error,
+                    "thrpt".equals(run.path("mode").asText())));
+        }
+        return scores;
+    }
+
+    // Short benchmark name plus its parameters, e.g. LoginBenchmark.matchOnCallerThread:strength=10
+    private static String key(JsonNode run) {
+        String name = run.path("benchmark").asText();
+        StringBuilder key = new StringBuilder(name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1));
+        Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+        while (params.hasNext()) {
+            Map.Entry<String, JsonNode> param = params.next();
+            key.append(':').append(param.getKey()).append('=').append(param.getValue().asText());
+        }
+        return key.toString();
+    }
+
+    private record Score(double value, double error, boolean higherIsBetter) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.gloriatech.medimeet.benchmark;
+
+import com.gloriatech.medimeet.dto.DoctorDTO;
+import com.gloriatech.medimeet.dto.DoctorSearchResultDTO;
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.repository.DoctorRepository;
+import com.gloriatech.medimeet.service.CachedJson;
+import com.gloriatech.medimeet.service.DoctorDirectory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The entity to DTO mapping behind the doctor listings that UserService serves:
+ * a full reload (entities to entries to every listing), a write applied to the
+ * snapshot and rendered again, and the per-request lookups that still map
+ * entries to DTOs. The repository is a Mockito mock returning a fixed list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoctorDirectoryBenchmark {
+
+    private static final String[] SPECIALISATIONS = {"Cardiology", "Dermatology", "Neurology", "Pediatrics"};
+
+    @Param({"50", "500"})
+    public int doctors;
+
+    private DoctorDirectory directory;
+    private Doctor edited;
+    private int edits;
+
+    @Setup
+    public void setUp() {
+        List<Doctor> entities = new ArrayList<>();
+        for (int i = 0; i < doctors; i++) {
+            Doctor doctor = new Doctor("Doctor " + i, SPECIALISATIONS[i % SPECIALISATIONS.length], "0780000000",
+                    "assets/doctor-" + i + ".jpg", "Board certified, focused on preventive care. ".repeat(6),
+                    (i % 20) + " years");
+            doctor.setId(1000L + i);
+            doctor.setEmail("doctor" + i + "@medimeet.test");
+            doctor.setRole("Doctor");
+            entities.add(doctor);
+        }
+        DoctorRepository repository = mock(DoctorRepository.class);
+        when(repository.findAllDoctors()).thenReturn(entities);
+        directory = new DoctorDirectory(repository, Jackson2ObjectMapperBuilder.json().build());
+        directory.refresh();
+        edited = entities.get(doctors / 2);
+    }
+
+    // Reload of every doctor: what each node does periodically and on first use
+    @Benchmark
+    public List<DoctorDTO> reload() {
+        directory.refresh();
+        return directory.getAllDoctors();
+    }
+
+    // One doctor changed, copied into a new snapshot and the listing rendered again
+    @Benchmark
+    public CachedJson saveAndRender() {
+        edited.setExperience((edits++ % 40) + " years");
+        directory.doctorSaved(edited);
+        return directory.getAllDoctorsJson();
+    }
+
+    @Benchmark
+    public List<DoctorDTO> bySpecialization() {
+        return directory.getDoctorsBySpecialization("cardiology");
+    }
+
+    @Benchmark
+    public DoctorSearchResultDTO searchPage() {
+        return directory.search("doc card", 0, 20);
+    }
+}
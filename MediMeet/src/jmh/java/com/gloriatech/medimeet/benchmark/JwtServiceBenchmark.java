@@ -0,0 +1,77 @@
+package com.gloriatech.medimeet.benchmark;
+
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verifications per second: the previous per-call key/parser construction
+ * with double parsing, against the shared parser with and without the verified
+ * token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "defaultSecretKeyForDevelopmentEnvironmentOnly";
+
+    private JwtService uncachedService;
+    private JwtService cachedService;
+    private Patient user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncachedService = new JwtService(SECRET, 86400000L, 0);
+        cachedService = new JwtService(SECRET, 86400000L, 10000);
+
+        user = new Patient("0780000000", "Benchmark Patient");
+        user.setId(42L);
+        user.setEmail("patient@medimeet.test");
+        user.setRole("PATIENT");
+        token = uncachedService.generateToken(user);
+    }
+
+    @Benchmark
+    public String sign() {
+        return cachedService.generateToken(user);
+    }
+
+    // Mirrors the old isTokenValid: new key and parser per parse, token parsed twice
+    @Benchmark
+    public boolean verifyLegacy() {
+        String username = legacyClaims(token).getSubject();
+        boolean expired = legacyClaims(token).getExpiration().before(new Date());
+        return username.equals(user.getEmail()) && !expired;
+    }
+
+    @Benchmark
+    public Claims verifySharedParser() {
+        return uncachedService.verify(token);
+    }
+
+    @Benchmark
+    public Claims verifyCachedDigest() {
+        return cachedService.verify(token);
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
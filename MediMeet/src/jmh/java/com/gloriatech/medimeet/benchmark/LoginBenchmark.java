@@ -0,0 +1,58 @@
+package com.gloriatech.medimeet.benchmark;
+
+import com.gloriatech.medimeet.service.PasswordHashing;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password checks per second, which bound logins per second: with one benchmark
+ * thread the score is logins per second per core at each BCrypt strength. Run
+ * with -t N to see how the hashing pool caps throughput at its thread count.
+ * Pick the strength whose single-check latency (1 / score) meets the login
+ * latency target, or let security.bcrypt.target-ms calibrate it at startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(1)
+public class LoginBenchmark {
+
+    @Param({"10", "11", "12"})
+    public int strength;
+
+    private PasswordEncoder direct;
+    private PasswordHashing pooled;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        direct = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        pooled = new PasswordHashing(direct, Runtime.getRuntime().availableProcessors(), 200, 60000);
+        hash = direct.encode("benchmark-password");
+    }
+
+    @TearDown
+    public void tearDown() {
+        pooled.destroy();
+    }
+
+    @Benchmark
+    public boolean matchOnCallerThread() {
+        return direct.matches("benchmark-password", hash);
+    }
+
+    // Adds the hand-off to the hashing pool and back
+    @Benchmark
+    public boolean matchOnHashingPool() {
+        return pooled.matches("benchmark-password", hash);
+    }
+}
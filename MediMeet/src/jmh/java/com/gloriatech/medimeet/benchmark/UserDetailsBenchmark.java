@@ -0,0 +1,74 @@
+package com.gloriatech.medimeet.benchmark;
+
+import com.gloriatech.medimeet.model.UserCredentials;
+import com.gloriatech.medimeet.repository.UserRepository;
+import com.gloriatech.medimeet.service.CustomUserDetailsService;
+import com.gloriatech.medimeet.service.UserDetailsCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * CustomUserDetailsService lookups per second with a Mockito-mocked repository,
+ * so the score is the service and cache overhead without a database: cache hits,
+ * and misses that go to the repository and build the UserDetails.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDetailsBenchmark {
+
+    private static final String EMAIL = "patient@medimeet.test";
+
+    private CustomUserDetailsService cached;
+    private CustomUserDetailsService uncached;
+
+    @Setup
+    public void setUp() {
+        UserCredentials credentials = new UserCredentials() {
+            @Override
+            public String getEmail() {
+                return EMAIL;
+            }
+
+            @Override
+            public String getPassword() {
+                return "{bcrypt}$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+            }
+
+            @Override
+            public String getRole() {
+                return "PATIENT";
+            }
+        };
+        UserRepository repository = mock(UserRepository.class);
+        when(repository.findCredentialsByEmail(anyString())).thenReturn(Optional.of(credentials));
+
+        cached = new CustomUserDetailsService(repository,
+                new UserDetailsCache(new SimpleMeterRegistry(), 10000, Duration.ofMinutes(5)));
+        // Entries expire as soon as they are written, so every lookup is a miss
+        uncached = new CustomUserDetailsService(repository,
+                new UserDetailsCache(new SimpleMeterRegistry(), 10000, Duration.ofNanos(1)));
+    }
+
+    @Benchmark
+    public UserDetails cacheHit() {
+        return cached.loadUserByUsername(EMAIL);
+    }
+
+    @Benchmark
+    public UserDetails cacheMiss() {
+        return uncached.loadUserByUsername(EMAIL);
+    }
+}
@@ -1,11 +1,17 @@
 package com.gloriatech.medimeet.config;
 
+import com.gloriatech.medimeet.model.UserPrincipal;
 import com.gloriatech.medimeet.service.JwtService;
+import com.gloriatech.medimeet.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,11 +27,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean statelessPrincipal;
+    private final MeterRegistry meterRegistry;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            TokenRevocationService tokenRevocationService,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.stateless-principal:true}") boolean statelessPrincipal
+    ) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.meterRegistry = meterRegistry;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -44,7 +62,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Handle JWT Authentication
         if (authHeader.startsWith("Bearer ")) {
-            handleJwtAuthentication(authHeader, request);
+            // Timed per outcome as security.jwt.authentication
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = handleJwtAuthentication(authHeader, request);
+            sample.stop(meterRegistry.timer("security.jwt.authentication", "outcome", outcome));
         } // Handle Basic Authentication
         else if (authHeader.startsWith("Basic ")) {
             // Let Spring Security's default mechanisms handle Basic Auth
@@ -64,12 +85,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 path.equals("/api/users/reset-password");
     }
 
-    private void handleJwtAuthentication(String authHeader, HttpServletRequest request) {
+    // Returns the outcome tag: authenticated, loaded (principal read from the database), revoked, rejected or skipped
+    private String handleJwtAuthentication(String authHeader, HttpServletRequest request) {
         try {
             // Check if token is long enough to be a valid JWT
             if (authHeader.length() < 10) {
                 logger.debug("JWT token too short, skipping authentication");
-                return;
+                return "rejected";
             }
 
             // Extract the JWT token from the Authorization header
@@ -78,37 +100,61 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Basic validation check before trying to parse
             if (!jwt.contains(".")) {
                 logger.debug("JWT token doesn't contain required period characters, skipping authentication");
-                return;
+                return "rejected";
             }
 
-            // Extract the username (email) from the token
-            final String userEmail = jwtService.extractUsername(jwt);
+            // Verify the signature and expiry once; the claims are reused below
+            final Claims claims = jwtService.verify(jwt);
+            final String userEmail = claims.getSubject();
 
-            // If we have a username and no authentication exists yet
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Load user details from the database
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            // Nothing to do without a subject or when the request is already authenticated
+            if (userEmail == null || SecurityContextHolder.getContext().getAuthentication() != null) {
+                return "skipped";
+            }
+            String outcome = "authenticated";
+            UserDetails userDetails;
+            if (statelessPrincipal && hasPrincipalClaims(claims)) {
+                // Build the principal from the signed claims instead of loading the user
+                long userId = claims.get(JwtService.CLAIM_USER_ID, Number.class).longValue();
+                int credentialVersion = claims.get(JwtService.CLAIM_CREDENTIAL_VERSION, Number.class).intValue();
+                if (tokenRevocationService.isRevoked(userId, credentialVersion)) {
+                    logger.debug("JWT issued before the last credential change, skipping authentication");
+                    return "revoked";
+                }
+                userDetails = new UserPrincipal(userId, userEmail, claims.get(JwtService.CLAIM_ROLE, String.class));
+            } else {
+                // Tokens issued without principal claims still go through the database
+                userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                if (!jwtService.isTokenValid(claims, userDetails)) {
+                    return "rejected";
+                }
+                outcome = "loaded";
+            }
 
-                // Validate the token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    // Create authentication token
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+            // Create authentication token
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    null,
+                    userDetails.getAuthorities()
+            );
 
-                    // Set details from the current request
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            // Set details from the current request
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    // Set the authentication in the security context
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
-            }
+            // Set the authentication in the security context
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+            return outcome;
         } catch (Exception e) {
             // Log exception but don't fail the request
             logger.debug("JWT authentication failed - " + e.getMessage());
             // Continue to the next filter even if token validation fails
+            return "rejected";
         }
     }
+
+    private boolean hasPrincipalClaims(Claims claims) {
+        return claims.get(JwtService.CLAIM_USER_ID) != null
+                && claims.get(JwtService.CLAIM_ROLE) != null
+                && claims.get(JwtService.CLAIM_CREDENTIAL_VERSION) != null;
+    }
 }
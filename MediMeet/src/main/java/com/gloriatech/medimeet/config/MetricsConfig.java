@@ -0,0 +1,14 @@
+package com.gloriatech.medimeet.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Metric and actuator defaults (metrics.properties). A property source rather
+ * than application.properties, so deployments keep their own configuration file
+ * and can still override every default.
+ */
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfig {
+}
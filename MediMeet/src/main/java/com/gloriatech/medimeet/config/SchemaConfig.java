@@ -0,0 +1,35 @@
+package com.gloriatech.medimeet.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The schema is owned by the Flyway scripts in {@code db/migration}; Hibernate
+ * only checks that the entities still match it.
+ */
+@Configuration
+public class SchemaConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer baselineExistingSchema() {
+        // Databases created by Hibernate before migrations existed have tables but no
+        // history; baseline them below V1 so the idempotent baseline script still runs
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion("0");
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer validateSchema(Environment environment) {
+        return properties -> {
+            // An explicit spring.jpa.hibernate.ddl-auto still wins
+            if (!environment.containsProperty("spring.jpa.hibernate.ddl-auto")) {
+                properties.put(AvailableSettings.HBM2DDL_AUTO, "validate");
+            }
+        };
+    }
+}
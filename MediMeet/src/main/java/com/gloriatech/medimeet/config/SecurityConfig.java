@@ -1,6 +1,9 @@
 package com.gloriatech.medimeet.config;
 
+import com.gloriatech.medimeet.service.PasswordHashing;
+import com.gloriatech.medimeet.util.RateLimitedLog;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,6 +12,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -19,11 +23,14 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.util.Arrays;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final RateLimitedLog log = new RateLimitedLog(SecurityConfig.class);
+
     @Autowired
     private JwtAuthenticationFilter jwtAuthFilter;
 
@@ -50,6 +57,10 @@ public class SecurityConfig {
                 .requestMatchers("/api/users/doctors/**").permitAll()
                 // Allow appointment endpoints
                 .requestMatchers("/api/appointments/**").permitAll()
+                // Load balancer health checks carry no token; metrics are for admins (scrapers
+                // send an admin bearer token or basic credentials)
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Swagger UI access
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 // Secure all other endpoints
@@ -58,7 +69,7 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 // Enable HTTP Basic Authentication
                 .httpBasic(httpBasic -> httpBasic.authenticationEntryPoint((request, response, authException) -> {
-            System.out.println("Authentication failed: " + authException.getMessage());
+            log.warn("HTTP Basic authentication failed", "error", authException.getMessage());
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.setContentType("application/json");
             response.getWriter().write("{\"error\":\"Authentication failed: " + authException.getMessage() + "\"}");
@@ -73,7 +84,7 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:5173", "http://localhost:3000"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token", "Access-Control-Allow-Origin", "Access-Control-Allow-Headers", "Origin", "Accept", "X-Requested-With", "Content-Type", "Access-Control-Request-Method", "Access-Control-Request-Headers"));
+        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token", "Access-Control-Allow-Origin", "Access-Control-Allow-Headers", "Origin", "Accept", "X-Requested-With", "Content-Type", "Access-Control-Request-Method", "Access-Control-Request-Headers", "Last-Event-ID"));
         configuration.setExposedHeaders(Arrays.asList("x-auth-token"));
         configuration.setAllowCredentials(true);
 
@@ -85,9 +96,28 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * New hashes are written as {bcrypt} at the configured strength, or at the
+     * strength calibrated against security.bcrypt.target-ms when that is set.
+     * Older unprefixed or weaker hashes still match and are rehashed on login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.bcrypt.strength:10}") int strength,
+            @Value("${security.bcrypt.target-ms:0}") long targetMillis,
+            @Value("${security.hashing.threads:0}") int threads,
+            @Value("${security.hashing.queue-size:200}") int queueSize,
+            @Value("${security.hashing.timeout-ms:10000}") long timeoutMillis) {
+        if (targetMillis > 0) {
+            strength = PasswordHashing.calibrateStrength(targetMillis);
+            log.logger().info("BCrypt strength {} calibrated for {} ms per hash", strength, targetMillis);
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // Hashes stored before the {id} prefix are plain BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        int hashingThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new PasswordHashing(encoder, hashingThreads, queueSize, timeoutMillis);
     }
 
     @Bean
@@ -6,7 +6,6 @@ import org.springframework.http.converter.json.MappingJackson2HttpMessageConvert
 import org.springframework.web.multipart.MultipartResolver;
 import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -30,18 +29,4 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
-
-    // Define the location of doctor images on the filesystem
-    private static final String UPLOAD_DIR = "D:/Documents/developing projects/medimeet/medimeet/src/assets/";
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Map /api/assets/** to the filesystem location where images are stored
-        registry.addResourceHandler("/api/assets/**")
-                .addResourceLocations("file:" + UPLOAD_DIR)
-                .setCachePeriod(3600) // Cache for 1 hour
-                .resourceChain(true);
-
-        System.out.println("Configured resource handler for /api/assets/** to serve from: " + UPLOAD_DIR);
-    }
 }
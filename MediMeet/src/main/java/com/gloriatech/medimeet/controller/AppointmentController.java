@@ -1,27 +1,33 @@
 package com.gloriatech.medimeet.controller;
 
-import com.gloriatech.medimeet.model.Appointment;
-import com.gloriatech.medimeet.model.User;
+import com.gloriatech.medimeet.model.UserIdentity;
+import com.gloriatech.medimeet.model.UserPrincipal;
 import com.gloriatech.medimeet.repository.UserRepository;
 import com.gloriatech.medimeet.service.AppointmentService;
+import com.gloriatech.medimeet.service.AppointmentStreamHub;
+import com.gloriatech.medimeet.service.AvailabilityService;
+import com.gloriatech.medimeet.dto.AdminStatsDTO;
+import com.gloriatech.medimeet.dto.AppointmentCountDTO;
 import com.gloriatech.medimeet.dto.AppointmentDTO;
+import com.gloriatech.medimeet.dto.AppointmentPageDTO;
+import com.gloriatech.medimeet.dto.AppointmentStatusCountsDTO;
+import com.gloriatech.medimeet.dto.AvailabilityDTO;
+import com.gloriatech.medimeet.util.RateLimitedLog;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Logger;
 import java.util.HashMap;
 
 @RestController
@@ -32,7 +38,7 @@ import java.util.HashMap;
         methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
 public class AppointmentController {
 
-    private static final Logger logger = Logger.getLogger(AppointmentController.class.getName());
+    private static final RateLimitedLog log = new RateLimitedLog(AppointmentController.class);
 
     @Autowired
     private AppointmentService appointmentService;
@@ -40,8 +46,14 @@ public class AppointmentController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private AppointmentStreamHub appointmentStreamHub;
+
     @PostMapping("/bookAppointment")
-    public ResponseEntity<Appointment> bookAppointment(
+    public ResponseEntity<?> bookAppointment(
             @RequestParam Long doctorId,
             @RequestParam String date,
             @RequestParam String time,
@@ -49,12 +61,59 @@ public class AppointmentController {
     ) {
         LocalDate appointmentDate = LocalDate.parse(date);
         LocalTime appointmentTime = LocalTime.parse(time);
-        Appointment appointment = appointmentService.bookAppointment(doctorId, appointmentDate, appointmentTime, comment);
-        return ResponseEntity.ok(appointment);
+        try {
+            AppointmentDTO appointment = appointmentService.bookAppointment(doctorId, appointmentDate, appointmentTime, comment);
+            return ResponseEntity.ok(appointment);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            // Another node booked the same slot between our check and insert
+            return ResponseEntity.status(409).body("This slot is already booked");
+        }
+    }
+
+    /**
+     * Free slots ("HH:mm") for a doctor on a date, from the doctor's availability templates
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<List<String>> getAvailableSlots(
+            @RequestParam Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        List<String> slots = availabilityService.getFreeSlots(doctorId, date).stream()
+                .map(LocalTime::toString)
+                .toList();
+        return ResponseEntity.ok(slots);
+    }
+
+    @GetMapping("/doctor/availability")
+    public ResponseEntity<?> getLoggedInDoctorAvailability() {
+        Optional<UserIdentity> userOpt = currentUser();
+        if (userOpt.isEmpty() || !"Doctor".equals(userOpt.get().getRole())) {
+            return ResponseEntity.status(403).body("Unauthorized: Only doctors can access this endpoint");
+        }
+        return ResponseEntity.ok(availabilityService.getTemplates(userOpt.get().getId()));
+    }
+
+    /**
+     * Replace the logged-in doctor's weekly availability windows
+     */
+    @PutMapping("/doctor/availability")
+    public ResponseEntity<?> updateLoggedInDoctorAvailability(@RequestBody List<AvailabilityDTO> windows) {
+        Optional<UserIdentity> userOpt = currentUser();
+        if (userOpt.isEmpty() || !"Doctor".equals(userOpt.get().getRole())) {
+            return ResponseEntity.status(403).body("Unauthorized: Only doctors can access this endpoint");
+        }
+        try {
+            return ResponseEntity.ok(availabilityService.replaceTemplates(userOpt.get().getId(), windows));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Invalid availability: " + e.getMessage());
+        }
     }
 
     @GetMapping("")
-    public ResponseEntity<List<Appointment>> getAllAppointments() {
+    public ResponseEntity<List<AppointmentDTO>> getAllAppointments() {
         return ResponseEntity.ok(appointmentService.getAllAppointments());
     }
 
@@ -65,58 +124,103 @@ public class AppointmentController {
     }
 
     @GetMapping("/allRecentAppointments")
-    public ResponseEntity<List<Appointment>> getAllRecentAppointments() {
-        List<Appointment> appointments = appointmentService.getAllRecentAppointments();
+    public ResponseEntity<List<AppointmentDTO>> getAllRecentAppointments() {
+        List<AppointmentDTO> appointments = appointmentService.getAllRecentAppointments();
         return ResponseEntity.ok(appointments);
     }
 
+    /**
+     * Server-Sent Events for the logged-in user's appointments (booked, status, cancelled),
+     * replacing polling of the appointment lists. Each event's data is an AppointmentEventDTO.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAppointmentEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Optional<UserIdentity> userOpt = currentUser();
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).build();
+        }
+        return subscribe(userOpt.get().getId(), lastEventId);
+    }
+
+    /**
+     * The logged-in doctor's live queue: every booking, status change and cancellation
+     * as a delta (previousStatus -> status) to apply to the dashboard, so it never polls.
+     * A reconnect with Last-Event-ID resumes after the last event received.
+     */
+    @GetMapping(path = "/doctor/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamDoctorQueue(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Optional<UserIdentity> userOpt = currentUser();
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).build();
+        }
+        if (!"Doctor".equals(userOpt.get().getRole())) {
+            return ResponseEntity.status(403).build();
+        }
+        return subscribe(userOpt.get().getId(), lastEventId);
+    }
+
+    private ResponseEntity<SseEmitter> subscribe(Long userId, String lastEventId) {
+        Long resumeAfter = null;
+        if (lastEventId != null) {
+            try {
+                resumeAfter = Long.valueOf(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                // Not one of ours; start from now
+            }
+        }
+        try {
+            return ResponseEntity.ok(appointmentStreamHub.subscribe(userId, resumeAfter));
+        } catch (IllegalStateException e) {
+            log.warn("Event stream refused", "userId", userId, "reason", e.getMessage());
+            return ResponseEntity.status(503).header("Retry-After", "5").build();
+        }
+    }
+
+    /**
+     * Cursor-paged appointments of the logged-in doctor in (date, time, id) order.
+     * Pass the returned nextCursor as cursor for the next page; includeTotal adds totalElements.
+     */
     @GetMapping("/doctor")
     public ResponseEntity<?> getDoctorAppointments(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         try {
-            // Force size to be exactly 5
-            size = 5;
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            Optional<UserIdentity> userOpt = currentUser();
             if (userOpt.isEmpty() || !"Doctor".equals(userOpt.get().getRole())) {
                 return ResponseEntity.status(403).body("Unauthorized");
             }
             Long doctorId = userOpt.get().getId();
-            // Sort by date DESC, then id DESC for stable deterministic order
-            Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Order.asc("date"), Sort.Order.asc("id")));
-            Page<Appointment> appointmentsPage = appointmentService.getDoctorAppointments(doctorId, pageable);
-            // Convert Page to a map containing both content and pagination info
-            Map<String, Object> response = new HashMap<>();
-            response.put("content", appointmentsPage.getContent());
-            response.put("totalPages", appointmentsPage.getTotalPages());
-            response.put("totalElements", appointmentsPage.getTotalElements());
-            response.put("currentPage", appointmentsPage.getNumber());
-            response.put("pageSize", size);
-            response.put("isLastPage", appointmentsPage.isLast());
-            return ResponseEntity.ok(response);
+            AppointmentPageDTO page = appointmentService.getDoctorAppointmentPage(doctorId, cursor, size, includeTotal);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
         }
     }
 
+    /**
+     * Cursor-paged appointments of the logged-in patient, same paging contract as /doctor
+     */
     @GetMapping("/patient")
-    public ResponseEntity<?> getPatientAppointments() {
+    public ResponseEntity<?> getPatientAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         try {
             // Get the currently logged-in user from security context
             String email = SecurityContextHolder.getContext().getAuthentication().getName();
             String authType = SecurityContextHolder.getContext().getAuthentication().getClass().getSimpleName();
             boolean isAuthenticated = SecurityContextHolder.getContext().getAuthentication().isAuthenticated();
 
-            logger.info("Attempting to fetch appointments for: " + email);
-            logger.info("Authentication type: " + authType);
-            logger.info("Is authenticated: " + isAuthenticated);
-            logger.info("Credentials: " + (SecurityContextHolder.getContext().getAuthentication().getCredentials() != null ? "present" : "null"));
-            logger.info("Details: " + (SecurityContextHolder.getContext().getAuthentication().getDetails() != null
-                    ? SecurityContextHolder.getContext().getAuthentication().getDetails().toString() : "null"));
+            log.logger().debug("Appointments requested email={} authType={} authenticated={}",
+                    email, authType, isAuthenticated);
 
             if (email == null || email.equals("anonymousUser")) {
-                logger.warning("Unauthorized access attempt - user not authenticated (anonymous user)");
+                log.warn("Appointments refused: not authenticated", "authType", authType);
                 Map<String, Object> response = new HashMap<>();
                 response.put("error", "User not authenticated. Please log in.");
                 response.put("authenticated", false);
@@ -125,10 +229,10 @@ public class AppointmentController {
                 return ResponseEntity.status(403).body(response);
             }
 
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            Optional<UserIdentity> userOpt = currentUser();
 
             if (userOpt.isEmpty()) {
-                logger.warning("User with email " + email + " not found in database");
+                log.warn("Appointments refused: unknown user", "email", email);
                 Map<String, Object> response = new HashMap<>();
                 response.put("error", "User not found: " + email);
                 response.put("authenticated", true);
@@ -137,9 +241,9 @@ public class AppointmentController {
                 return ResponseEntity.status(403).body(response);
             }
 
-            User user = userOpt.get();
+            UserIdentity user = userOpt.get();
             if (!"PATIENT".equals(user.getRole())) {
-                logger.warning("Unauthorized access attempt by: " + email + " with role: " + user.getRole());
+                log.warn("Appointments refused: wrong role", "email", email, "role", user.getRole());
                 Map<String, Object> response = new HashMap<>();
                 response.put("error", "Unauthorized: Only doctors can view their appointments. Current role: " + user.getRole());
                 response.put("authenticated", true);
@@ -151,24 +255,25 @@ public class AppointmentController {
 
             // Get the logged-in doctor's ID and fetch only their appointments
             Long patientId = user.getId();
-            logger.info("Fetching appointments for doctor ID: " + patientId);
+            AppointmentPageDTO page = appointmentService.getPatientAppointmentPage(patientId, cursor, size, includeTotal);
 
-            List<Appointment> appointments = appointmentService.getPatientAppointments(patientId);
-
-            // Return the appointments even if the list is empty
-            return ResponseEntity.ok(appointments);
+            // Return the page even if it is empty
+            return ResponseEntity.ok(page);
 
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
-            logger.severe("Error fetching doctor appointments: " + e.getMessage());
+            log.error("Appointment lookup failed", e);
             Map<String, Object> response = new HashMap<>();
             response.put("error", "Error fetching appointments: " + e.getMessage());
-            e.printStackTrace();
             return ResponseEntity.status(500).body(response);
         }
     }
 
     @PutMapping("/{appointmentId}/status")
-    public ResponseEntity<Appointment> updateAppointmentStatus(
+    public ResponseEntity<AppointmentDTO> updateAppointmentStatus(
             @PathVariable Long appointmentId,
             @RequestBody Map<String, String> statusUpdate) {
 
@@ -178,10 +283,12 @@ public class AppointmentController {
         }
 
         try {
-            Appointment updatedAppointment = appointmentService.updateAppointmentStatus(appointmentId, newStatus);
+            AppointmentDTO updatedAppointment = appointmentService.updateAppointmentStatus(appointmentId, newStatus);
             return ResponseEntity.ok(updatedAppointment);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException | DataIntegrityViolationException e) {
+            return ResponseEntity.status(409).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -198,7 +305,7 @@ public class AppointmentController {
             boolean isAnonymous = "anonymousUser".equals(email);
 
             // Get user info if available
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            Optional<UserIdentity> userOpt = currentUser();
             Map<String, Object> response = new HashMap<>();
 
             response.put("authenticated", isAuthenticated);
@@ -211,7 +318,7 @@ public class AppointmentController {
                     ? "present" : "null");
 
             if (userOpt.isPresent()) {
-                User user = userOpt.get();
+                UserIdentity user = userOpt.get();
                 response.put("userFound", true);
                 response.put("userId", user.getId());
                 response.put("role", user.getRole());
@@ -223,10 +330,10 @@ public class AppointmentController {
                         : "No user found with email: " + email);
             }
 
-            logger.info("Auth check: " + response);
+            log.logger().debug("Auth check {}", response);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            logger.severe("Error in auth check: " + e.getMessage());
+            log.error("Auth check failed", e);
             return ResponseEntity.status(500).body("Error in auth check: " + e.getMessage());
         }
     }
@@ -239,15 +346,11 @@ public class AppointmentController {
             String authType = SecurityContextHolder.getContext().getAuthentication().getClass().getSimpleName();
             boolean isAuthenticated = SecurityContextHolder.getContext().getAuthentication().isAuthenticated();
 
-            logger.info("Attempting to fetch appointments for: " + email);
-            logger.info("Authentication type: " + authType);
-            logger.info("Is authenticated: " + isAuthenticated);
-            logger.info("Credentials: " + (SecurityContextHolder.getContext().getAuthentication().getCredentials() != null ? "present" : "null"));
-            logger.info("Details: " + (SecurityContextHolder.getContext().getAuthentication().getDetails() != null
-                    ? SecurityContextHolder.getContext().getAuthentication().getDetails().toString() : "null"));
+            log.logger().debug("Appointments requested email={} authType={} authenticated={}",
+                    email, authType, isAuthenticated);
 
             if (email == null || email.equals("anonymousUser")) {
-                logger.warning("Unauthorized access attempt - user not authenticated (anonymous user)");
+                log.warn("Appointments refused: not authenticated", "authType", authType);
                 Map<String, Object> response = new HashMap<>();
                 response.put("error", "User not authenticated. Please log in.");
                 response.put("authenticated", false);
@@ -256,10 +359,10 @@ public class AppointmentController {
                 return ResponseEntity.status(403).body(response);
             }
 
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            Optional<UserIdentity> userOpt = currentUser();
 
             if (userOpt.isEmpty()) {
-                logger.warning("User with email " + email + " not found in database");
+                log.warn("Appointments refused: unknown user", "email", email);
                 Map<String, Object> response = new HashMap<>();
                 response.put("error", "User not found: " + email);
                 response.put("authenticated", true);
@@ -268,9 +371,9 @@ public class AppointmentController {
                 return ResponseEntity.status(403).body(response);
             }
 
-            User user = userOpt.get();
+            UserIdentity user = userOpt.get();
             if (!"Doctor".equals(user.getRole())) {
-                logger.warning("Unauthorized access attempt by: " + email + " with role: " + user.getRole());
+                log.warn("Appointments refused: wrong role", "email", email, "role", user.getRole());
                 Map<String, Object> response = new HashMap<>();
                 response.put("error", "Unauthorized: Only doctors can view their appointments. Current role: " + user.getRole());
                 response.put("authenticated", true);
@@ -282,36 +385,27 @@ public class AppointmentController {
 
             // Get the logged-in doctor's ID and fetch only their appointments
             Long doctorId = user.getId();
-            logger.info("Fetching appointments for doctor ID: " + doctorId);
-
-            List<Appointment> appointments = appointmentService.getRecentAppointments(doctorId);
+            List<AppointmentDTO> appointments = appointmentService.getRecentAppointments(doctorId);
 
             // Return the appointments even if the list is empty
             return ResponseEntity.ok(appointments);
 
         } catch (Exception e) {
-            logger.severe("Error fetching doctor appointments: " + e.getMessage());
+            log.error("Appointment lookup failed", e);
             Map<String, Object> response = new HashMap<>();
             response.put("error", "Error fetching appointments: " + e.getMessage());
-            e.printStackTrace();
             return ResponseEntity.status(500).body(response);
         }
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<?> getAdminDashboardStats() {
-        long doctorCount = userRepository.countByRole("Doctor");
-        long patientCount = userRepository.countByRole("PATIENT");
-        long adminCount = userRepository.countByRole("ADMIN");
-        long appointmentCount = appointmentService.getAllAppointments().size();
-        return ResponseEntity.ok(new java.util.HashMap<String, Long>() {
-            {
-                put("doctors", doctorCount);
-                put("patients", patientCount);
-                put("admins", adminCount);
-                put("appointments", appointmentCount);
-            }
-        });
+    public ResponseEntity<AdminStatsDTO> getAdminDashboardStats() {
+        return ResponseEntity.ok(new AdminStatsDTO(
+                userRepository.countByRole("Doctor"),
+                userRepository.countByRole("PATIENT"),
+                userRepository.countByRole("ADMIN"),
+                appointmentService.countAppointments()
+        ));
     }
 
     /**
@@ -320,13 +414,12 @@ public class AppointmentController {
     @GetMapping("/doctor/counts")
     public ResponseEntity<?> getLoggedInDoctorAppointmentCounts() {
         try {
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            Optional<UserIdentity> userOpt = currentUser();
             if (userOpt.isEmpty() || !"Doctor".equals(userOpt.get().getRole())) {
                 return ResponseEntity.status(403).body("Unauthorized: Only doctors can access this endpoint");
             }
             Long doctorId = userOpt.get().getId();
-            Map<String, Long> counts = appointmentService.getDoctorAppointmentCounts(doctorId);
+            AppointmentStatusCountsDTO counts = appointmentService.getDoctorAppointmentCounts(doctorId);
             return ResponseEntity.ok(counts);
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
@@ -339,13 +432,12 @@ public class AppointmentController {
     @GetMapping("/doctor/appointments/status/{status}")
     public ResponseEntity<?> getLoggedInDoctorAppointmentsByStatus(@PathVariable String status) {
         try {
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            Optional<UserIdentity> userOpt = currentUser();
             if (userOpt.isEmpty() || !"Doctor".equals(userOpt.get().getRole())) {
                 return ResponseEntity.status(403).body("Unauthorized: Only doctors can access this endpoint");
             }
             Long doctorId = userOpt.get().getId();
-            List<Appointment> appointments = appointmentService.getDoctorAppointmentsByStatus(doctorId, status);
+            List<AppointmentDTO> appointments = appointmentService.getDoctorAppointmentsByStatus(doctorId, status);
             return ResponseEntity.ok(appointments);
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
@@ -355,13 +447,12 @@ public class AppointmentController {
     @GetMapping("/doctor/rejected")
     public ResponseEntity<?> getLoggedInDoctorRejectedAppointments() {
         try {
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            Optional<UserIdentity> userOpt = currentUser();
             if (userOpt.isEmpty() || !"Doctor".equals(userOpt.get().getRole())) {
                 return ResponseEntity.status(403).body("Unauthorized: Only doctors can access this endpoint");
             }
             Long doctorId = userOpt.get().getId();
-            List<Appointment> appointments = appointmentService.getDoctorAppointmentsByStatus(doctorId, "rejected");
+            List<AppointmentDTO> appointments = appointmentService.getDoctorAppointmentsByStatus(doctorId, "rejected");
             return ResponseEntity.ok(appointments);
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
@@ -371,46 +462,45 @@ public class AppointmentController {
     @GetMapping("/admin/status-counts")
     public ResponseEntity<?> getAdminAppointmentStatusCounts() {
         // Only allow admin
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<User> userOpt = userRepository.findByEmail(email);
+        Optional<UserIdentity> userOpt = currentUser();
         if (userOpt.isEmpty() || !"ADMIN".equalsIgnoreCase(userOpt.get().getRole())) {
             return ResponseEntity.status(403).body("Unauthorized: Only admins can access this endpoint");
         }
-        // Query status counts
-        List<Appointment> all = appointmentService.getAllAppointments();
-        Map<String, Long> counts = all.stream().collect(
-                java.util.stream.Collectors.groupingBy(Appointment::getStatus, java.util.stream.Collectors.counting())
-        );
+        AppointmentStatusCountsDTO counts = appointmentService.getAppointmentStatusCounts();
         return ResponseEntity.ok(counts);
     }
 
+    /**
+     * Appointment counts per day, week or month; from/to are inclusive ISO dates
+     */
     @GetMapping("/admin/appointments-over-time")
-    public ResponseEntity<?> getAdminAppointmentsOverTime() {
+    public ResponseEntity<?> getAdminAppointmentsOverTime(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String bucket) {
         // Only allow admin
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<User> userOpt = userRepository.findByEmail(email);
+        Optional<UserIdentity> userOpt = currentUser();
         if (userOpt.isEmpty() || !"ADMIN".equalsIgnoreCase(userOpt.get().getRole())) {
             return ResponseEntity.status(403).body("Unauthorized: Only admins can access this endpoint");
         }
-        // Query appointments grouped by date
-        List<Appointment> all = appointmentService.getAllAppointments();
-        Map<String, Long> dateCounts = all.stream().collect(
-                java.util.stream.Collectors.groupingBy(
-                        a -> a.getDate().toString(),
-                        java.util.stream.Collectors.counting()
-                )
-        );
-        // Convert to list of {date, count}
-        List<Map<String, Object>> result = new java.util.ArrayList<>();
-        for (Map.Entry<String, Long> entry : dateCounts.entrySet()) {
-            Map<String, Object> item = new java.util.HashMap<>();
-            item.put("date", entry.getKey());
-            item.put("count", entry.getValue());
-            result.add(item);
+        try {
+            List<AppointmentCountDTO> result = appointmentService.getAppointmentsOverTime(from, to, bucket);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // The JWT principal already carries id and role; other authentications need a users-table lookup
+    private Optional<UserIdentity> currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return Optional.empty();
+        }
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return Optional.of(principal);
         }
-        // Sort by date ascending
-        result.sort(java.util.Comparator.comparing(m -> (String) m.get("date")));
-        return ResponseEntity.ok(result);
+        return userRepository.findIdentityByEmail(authentication.getName());
     }
 
 }
@@ -2,13 +2,11 @@ package com.gloriatech.medimeet.controller;
 
 import com.gloriatech.medimeet.model.*;
 import com.gloriatech.medimeet.service.JwtService;
+import com.gloriatech.medimeet.service.PasswordHashing;
 import com.gloriatech.medimeet.service.UserService;
+import com.gloriatech.medimeet.util.RateLimitedLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -16,48 +14,28 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/auth")
 public class AuthController {
 
+    private static final RateLimitedLog log = new RateLimitedLog(AuthController.class);
+
     private final JwtService jwtService;
     private final UserService userService;
-    private final UserDetailsService userDetailsService;
-    private final AuthenticationManager authenticationManager;
 
     @Autowired
     public AuthController(
             JwtService jwtService,
-            UserService userService,
-            UserDetailsService userDetailsService,
-            AuthenticationManager authenticationManager
+            UserService userService
     ) {
         this.jwtService = jwtService;
         this.userService = userService;
-        this.userDetailsService = userDetailsService;
-        this.authenticationManager = authenticationManager;
     }
 
     @PostMapping("/login")
     public ResponseEntity<JwtAuthResponse> login(@RequestBody JwtAuthRequest authRequest) {
         try {
-            System.out.println("Login attempt with email: " + authRequest.getEmail());
-
-            // Authenticate the user
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            authRequest.getEmail(),
-                            authRequest.getPassword()
-                    )
-            );
-
-            System.out.println("Authentication successful for: " + authRequest.getEmail());
-
-            // Load user details
-            UserDetails userDetails = userDetailsService.loadUserByUsername(authRequest.getEmail());
+            // One user fetch covers the password check and the response
+            User user = userService.login(authRequest.getEmail(), authRequest.getPassword());
 
-            // Generate JWT token
-            String jwtToken = jwtService.generateToken(userDetails);
-            System.out.println("JWT token generated for: " + authRequest.getEmail());
-
-            // Get user information
-            User user = userService.getUserByEmail(authRequest.getEmail());
+            // Generate JWT token carrying the claims needed for stateless authentication
+            String jwtToken = jwtService.generateToken(user);
 
             // Create response
             JwtAuthResponse response = new JwtAuthResponse();
@@ -75,11 +53,13 @@ public class AuthController {
                 response.setName(((Admin) user).getName());
             }
 
-            System.out.println("Login successful for: " + user.getEmail() + " with role: " + user.getRole());
+            log.logger().debug("Login succeeded email={} role={}", user.getEmail(), user.getRole());
             return ResponseEntity.ok(response);
+        } catch (PasswordHashing.Overloaded e) {
+            log.warn("Login refused: password hashing saturated");
+            return ResponseEntity.status(503).header("Retry-After", "1").build();
         } catch (Exception e) {
-            System.err.println("Authentication failed: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Login failed", "error", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -87,16 +67,11 @@ public class AuthController {
     @PostMapping("/register/patient")
     public ResponseEntity<JwtAuthResponse> registerPatient(@RequestBody Patient patient) {
         try {
-            System.out.println("Patient registration attempt with email: " + patient.getEmail());
-
             // Register the patient
             Patient savedPatient = userService.registerPatient(patient);
 
-            // Load user details
-            UserDetails userDetails = userDetailsService.loadUserByUsername(savedPatient.getEmail());
-
             // Generate JWT token
-            String jwtToken = jwtService.generateToken(userDetails);
+            String jwtToken = jwtService.generateToken(savedPatient);
 
             // Create response
             JwtAuthResponse response = new JwtAuthResponse();
@@ -106,11 +81,13 @@ public class AuthController {
             response.setId(savedPatient.getId());
             response.setName(savedPatient.getName());
 
-            System.out.println("Patient registration successful for: " + savedPatient.getEmail());
+            log.logger().debug("Patient registered email={}", savedPatient.getEmail());
             return ResponseEntity.ok(response);
+        } catch (PasswordHashing.Overloaded e) {
+            log.warn("Patient registration refused: password hashing saturated");
+            return ResponseEntity.status(503).header("Retry-After", "1").build();
         } catch (Exception e) {
-            System.err.println("Patient registration failed: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Patient registration failed", "error", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -0,0 +1,213 @@
+package com.gloriatech.medimeet.controller;
+
+import com.gloriatech.medimeet.service.ImageStore;
+import com.gloriatech.medimeet.service.ImageStore.StoredImage;
+import com.gloriatech.medimeet.service.ImageStore.Variant;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves doctor images and their pre-sized variants with validators and
+ * caching headers: a content-hash ETag and Last-Modified for 304 responses,
+ * a year of immutable caching for uploads, and single byte ranges.
+ * Small images come from memory; large local files go out through Tomcat's
+ * sendfile, so the bytes never pass through the JVM heap.
+ */
+@RestController
+public class ImageController {
+
+    // Request attributes of Tomcat's sendfile support (see Tomcat's DefaultServlet)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
+    private final ImageStore imageStore;
+    private final long sendfileMinBytes;
+
+    @Autowired
+    public ImageController(ImageStore imageStore,
+                           @Value("${images.sendfile-min-bytes:49152}") long sendfileMinBytes) {
+        this.imageStore = imageStore;
+        this.sendfileMinBytes = sendfileMinBytes;
+    }
+
+    // The frontend asks for /api/assets/<file>; the other two paths are older aliases
+    @GetMapping({"/api/assets/{filename:.+}", "/api/users/image/{filename:.+}", "/api/users/assets/{filename:.+}"})
+    public void serveImage(@PathVariable String filename, HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        serve(imageStore.find(filename), request, response);
+    }
+
+    /**
+     * Pre-sized variants of an uploaded image, e.g. /api/assets/card/&lt;file&gt; for doctor cards
+     */
+    @GetMapping("/api/assets/{variant:thumb|card}/{filename:.+}")
+    public void serveImageVariant(@PathVariable String variant, @PathVariable String filename,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<Variant> size = Variant.of(variant);
+        serve(size.isPresent() ? imageStore.find(size.get(), filename) : Optional.empty(), request, response);
+    }
+
+    private void serve(Optional<StoredImage> found, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        if (found.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        StoredImage image = found.get();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                (image.immutable() ? IMMUTABLE : REVALIDATE).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag and Last-Modified, and answers 304 to a matching If-None-Match / If-Modified-Since
+        if (new ServletWebRequest(request, response).checkNotModified(image.etag(), image.lastModified())) {
+            return;
+        }
+
+        long start = 0;
+        long end = image.size() - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && image.size() > 0 && rangeApplies(request, image)) {
+            HttpRange range;
+            try {
+                // Several ranges are allowed to be answered with the whole file
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                range = ranges.size() == 1 ? ranges.get(0) : null;
+                if (range != null) {
+                    start = range.getRangeStart(image.size());
+                    end = range.getRangeEnd(image.size());
+                    if (start > end) {
+                        throw new IllegalArgumentException("Range starts after the end of the file");
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + image.size());
+                return;
+            }
+            if (range != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + image.size());
+            }
+        }
+        long length = end - start + 1;
+        response.setContentType(image.contentType().toString());
+        response.setContentLengthLong(length);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (image.content() != null) {
+            response.getOutputStream().write(image.content(), (int) start, (int) length);
+        } else if (image.path() != null && length >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file straight from the page cache once this request returns
+            request.setAttribute(SENDFILE_FILENAME, image.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+        } else {
+            transfer(image, start, length, response);
+        }
+    }
+
+    // If-Range: the range only applies while the client's copy is still current
+    private static boolean rangeApplies(HttpServletRequest request, StoredImage image) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(image.etag());
+        }
+        try {
+            // HTTP dates have whole seconds
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == image.lastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void transfer(StoredImage image, long start, long length,
+                          HttpServletResponse response) throws IOException {
+        if (image.path() == null) {
+            // Not a local file (S3 store): stream it through
+            InputStream in;
+            try {
+                in = imageStore.open(image, start);
+            } catch (NoSuchFileException e) {
+                notFound(image, response);
+                return;
+            }
+            try (in) {
+                copy(in, response.getOutputStream(), length);
+            }
+            return;
+        }
+
+        FileChannel file;
+        try {
+            file = FileChannel.open(image.path(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            notFound(image, response);
+            return;
+        }
+        try (file) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // Removed since it was cached
+    private void notFound(StoredImage image, HttpServletResponse response) {
+        imageStore.evict(image);
+        response.reset();
+        response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+    }
+
+    private static void copy(InputStream in, OutputStream out, long length) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+}
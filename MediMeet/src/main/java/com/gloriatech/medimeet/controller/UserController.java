@@ -3,25 +3,28 @@ package com.gloriatech.medimeet.controller;
 import com.gloriatech.medimeet.dto.AppointDTO;
 import com.gloriatech.medimeet.dto.DoctorDTO;
 import com.gloriatech.medimeet.dto.DoctorProfileDTO;
+import com.gloriatech.medimeet.dto.DoctorSearchResultDTO;
 import com.gloriatech.medimeet.dto.HomeDTO;
 import com.gloriatech.medimeet.model.*;
+import com.gloriatech.medimeet.service.BlobStore;
+import com.gloriatech.medimeet.service.CachedJson;
+import com.gloriatech.medimeet.service.PasswordHashing;
+import com.gloriatech.medimeet.service.RateLimiter;
 import com.gloriatech.medimeet.service.UserService;
+import com.gloriatech.medimeet.util.RateLimitedLog;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -29,12 +32,18 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final RateLimitedLog log = new RateLimitedLog(UserController.class);
+
     private final UserService userService;
-    private static final String UPLOAD_DIR = "D:\\Documents\\developing projects\\medimeet\\medimeet\\src\\assets\\";
+    private final BlobStore blobStore;
+
+    // Upper bound for the page size of doctor search
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, BlobStore blobStore) {
         this.userService = userService;
+        this.blobStore = blobStore;
     }
 
     // Register a new patient
@@ -43,8 +52,11 @@ public class UserController {
         try {
             Patient savedPatient = userService.registerPatient(patient);
             return ResponseEntity.ok(savedPatient);
+        } catch (PasswordHashing.Overloaded e) {
+            log.warn("Registration refused: password hashing saturated");
+            return ResponseEntity.status(503).header("Retry-After", "1").build();
         } catch (Exception e) {
-            System.err.println("Error registering patient: " + e.getMessage());
+            log.warn("Error registering patient", "error", e.getMessage());
             return ResponseEntity.badRequest().body(null);
         }
     }
@@ -55,8 +67,11 @@ public class UserController {
         try {
             Admin savedAdmin = userService.registerAdmin(admin);
             return ResponseEntity.ok(savedAdmin);
+        } catch (PasswordHashing.Overloaded e) {
+            log.warn("Registration refused: password hashing saturated");
+            return ResponseEntity.status(503).header("Retry-After", "1").build();
         } catch (Exception e) {
-            System.err.println("Error registering admin: " + e.getMessage());
+            log.warn("Error registering admin", "error", e.getMessage());
             return ResponseEntity.badRequest().body(null);
         }
     }
@@ -73,19 +88,17 @@ public class UserController {
             try {
                 doctor = objectMapper.readValue(doctorJson, Doctor.class);
             } catch (Exception e) {
-                System.err.println("Error parsing doctor JSON: " + e.getMessage());
-                System.err.println("Received JSON: " + doctorJson);
+                log.warn("Doctor JSON rejected", "error", e.getMessage());
                 return ResponseEntity.badRequest().body(null);
             }
 
-            System.out.println("Received doctor: " + doctor);
-            System.out.println("Received image: " + (imageFile != null ? imageFile.getOriginalFilename() : "null"));
+            log.logger().debug("Adding doctor email={} image={}", doctor.getEmail(),
+                    imageFile != null ? imageFile.getOriginalFilename() : null);
 
             Doctor savedDoctor = userService.addDoctor(doctor, imageFile);
             return ResponseEntity.ok(savedDoctor);
         } catch (Exception e) {
-            System.err.println("Error adding doctor: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Adding doctor failed", e);
             return ResponseEntity.badRequest().body(null);
         }
     }
@@ -96,42 +109,42 @@ public class UserController {
         try {
             User user = userService.login(loginRequest.getEmail(), loginRequest.getPassword());
             return ResponseEntity.ok(user);
+        } catch (PasswordHashing.Overloaded e) {
+            log.warn("Login refused: password hashing saturated");
+            return ResponseEntity.status(503).header("Retry-After", "1").build();
         } catch (Exception e) {
-            System.err.println("Error logging in: " + e.getMessage());
+            log.warn("Login failed", "error", e.getMessage());
             return ResponseEntity.badRequest().body(null);
         }
     }
 
     // Get all doctors
     @GetMapping("/getDoctors")
-    public ResponseEntity<List<DoctorDTO>> getDoctors() {
+    public ResponseEntity<byte[]> getDoctors() {
         try {
-            List<DoctorDTO> doctors = userService.getAllDoctors();
-            return ResponseEntity.ok(doctors);
+            return cachedJson(userService.getAllDoctorsJson());
         } catch (Exception e) {
-            System.err.println("Error fetching doctors: " + e.getMessage());
+            log.warn("Error fetching doctors", "error", e.getMessage());
             return ResponseEntity.badRequest().body(null);
         }
     }
 
     @GetMapping("/getHomeDoctors")
-    public ResponseEntity<List<HomeDTO>> getHomeDoctors() {
+    public ResponseEntity<byte[]> getHomeDoctors() {
         try {
-            List<HomeDTO> doctors = userService.getHomeDoctor();
-            return ResponseEntity.ok(doctors);
+            return cachedJson(userService.getHomeDoctorJson());
         } catch (Exception e) {
-            System.err.println("Error fetching doctors: " + e.getMessage());
+            log.warn("Error fetching doctors", "error", e.getMessage());
             return ResponseEntity.badRequest().body(null);
         }
     }
 
     @GetMapping("/getAppointDoctors")
-    public ResponseEntity<List<AppointDTO>> getAppointDoctors() {
+    public ResponseEntity<byte[]> getAppointDoctors() {
         try {
-            List<AppointDTO> doctors = userService.getAppointDoctor();
-            return ResponseEntity.ok(doctors);
+            return cachedJson(userService.getAppointDoctorJson());
         } catch (Exception e) {
-            System.err.println("Error fetching doctors: " + e.getMessage());
+            log.warn("Error fetching doctors", "error", e.getMessage());
             return ResponseEntity.badRequest().body(null);
         }
     }
@@ -143,7 +156,7 @@ public class UserController {
             userService.deleteDoctor(id);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            System.err.println("Error deleting doctor: " + e.getMessage());
+            log.warn("Error deleting doctor", "error", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -185,16 +198,14 @@ public class UserController {
             try {
                 doctor = objectMapper.readValue(doctorJson, Doctor.class);
             } catch (Exception e) {
-                System.err.println("Error parsing doctor JSON for update: " + e.getMessage());
-                System.err.println("Received JSON: " + doctorJson);
+                log.warn("Doctor JSON rejected", "doctorId", id, "error", e.getMessage());
                 return ResponseEntity.badRequest().body("Invalid doctor data format");
             }
 
             Doctor updated = userService.updateDoctor(id, doctor, imageFile);
             return ResponseEntity.ok(updated);
         } catch (RuntimeException | IOException e) {
-            System.err.println("Error updating doctor: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Updating doctor failed", e, "doctorId", id);
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
@@ -205,141 +216,61 @@ public class UserController {
             List<DoctorDTO> doctors = userService.getDoctorsBySpecialization(specialization);
             return ResponseEntity.ok(doctors);
         } catch (Exception e) {
-            System.err.println("Error fetching doctors by specialization: " + e.getMessage());
+            log.warn("Error fetching doctors by specialization", "error", e.getMessage());
             return ResponseEntity.badRequest().body(null);
         }
     }
 
-    @GetMapping("/getAllSpecializations")
-    public ResponseEntity<List<String>> getAllSpecializations() {
-        try {
-            // Use a predefined list of specializations
-            List<String> specializations = List.of(
-                    "General physician",
-                    "Gynecologist",
-                    "Dermatologist",
-                    "Pediatrician",
-                    "Neurologist",
-                    "Gastroenterologist"
-            );
-
-            return ResponseEntity.ok(specializations);
-        } catch (Exception e) {
-            System.err.println("Error fetching specializations: " + e.getMessage());
-            return ResponseEntity.badRequest().body(null);
+    @GetMapping("/doctors/search")
+    public ResponseEntity<DoctorSearchResultDTO> searchDoctors(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1) {
+            return ResponseEntity.badRequest().build();
         }
+        return ResponseEntity.ok(userService.searchDoctors(q, page, Math.min(size, MAX_SEARCH_PAGE_SIZE)));
     }
 
-    /**
-     * Serves images stored in the asset directory. The frontend sends requests
-     * with the filename only, and we need to find the file in the actual
-     * filesystem.
-     */
-    @GetMapping("/image/{filename:.+}")
-    public ResponseEntity<Resource> serveImage(@PathVariable String filename) {
+    // Specializations present in the doctor directory, with the number of doctors in each
+    @GetMapping("/getAllSpecializations")
+    public ResponseEntity<byte[]> getAllSpecializations() {
         try {
-            System.out.println("Received request for image: " + filename);
-
-            // Create the full path to the image
-            Path imagePath = Paths.get(UPLOAD_DIR, filename);
-            System.out.println("Looking for image at: " + imagePath.toAbsolutePath());
-
-            File imageFile = imagePath.toFile();
-            if (!imageFile.exists() || !imageFile.isFile()) {
-                System.err.println("Image file not found at: " + imagePath.toAbsolutePath());
-                return ResponseEntity.notFound().build();
-            }
-
-            // Create a resource from the file
-            FileSystemResource resource = new FileSystemResource(imageFile);
-
-            // Determine content type based on file extension
-            String contentType = determineContentType(filename);
-
-            // Log successful image serving
-            System.out.println("Successfully serving image: " + filename + " with content type: " + contentType);
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .body(resource);
+            return cachedJson(userService.getSpecializationsJson());
         } catch (Exception e) {
-            System.err.println("Error serving image: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error fetching specializations", "error", e.getMessage());
             return ResponseEntity.badRequest().body(null);
         }
     }
 
     /**
-     * This endpoint matches exactly what the browser is requesting based on the
-     * logs
+     * Writes a pre-serialized JSON body with its ETag. For a GET whose
+     * If-None-Match matches, Spring turns this into a 304 without a body.
      */
-    @GetMapping("/assets/{filename:.+}")
-    public ResponseEntity<Resource> serveAssetImage(@PathVariable String filename) {
-        System.out.println("Received request for asset: " + filename);
-
-        // Create the full path to the image
-        Path imagePath = Paths.get(UPLOAD_DIR, filename);
-        System.out.println("Looking for image at: " + imagePath.toAbsolutePath());
-
-        File imageFile = imagePath.toFile();
-        if (!imageFile.exists() || !imageFile.isFile()) {
-            System.err.println("Image file not found at: " + imagePath.toAbsolutePath());
-            return ResponseEntity.notFound().build();
-        }
-
-        // Create a resource from the file
-        FileSystemResource resource = new FileSystemResource(imageFile);
-
-        // Determine content type based on file extension
-        String contentType = determineContentType(filename);
-
-        // Log successful image serving
-        System.out.println("Successfully serving asset image: " + filename + " with content type: " + contentType);
-
+    private ResponseEntity<byte[]> cachedJson(CachedJson json) {
         return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(resource);
-    }
-
-    private String determineContentType(String filename) {
-        if (filename.toLowerCase().endsWith(".jpg") || filename.toLowerCase().endsWith(".jpeg")) {
-            return "image/jpeg";
-        } else if (filename.toLowerCase().endsWith(".png")) {
-            return "image/png";
-        } else if (filename.toLowerCase().endsWith(".gif")) {
-            return "image/gif";
-        } else {
-            return "application/octet-stream";
-        }
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(json.etag())
+                .body(json.body());
     }
 
     /**
-     * Test endpoint to debug image paths and directory contents
+     * Test endpoint to debug image storage and its contents
      */
     @GetMapping("/debug-images")
     public ResponseEntity<String> debugImages() {
         StringBuilder debug = new StringBuilder();
         debug.append("Image debug information:\n\n");
+        debug.append("Image store: ").append(blobStore).append("\n\n");
 
-        // Check the upload directory
-        File uploadDir = new File(UPLOAD_DIR);
-        debug.append("Upload directory: ").append(UPLOAD_DIR).append("\n");
-        debug.append("Absolute path: ").append(uploadDir.getAbsolutePath()).append("\n");
-        debug.append("Directory exists: ").append(uploadDir.exists()).append("\n");
-        debug.append("Is directory: ").append(uploadDir.isDirectory()).append("\n\n");
-
-        // List files in the directory
-        if (uploadDir.exists() && uploadDir.isDirectory()) {
-            debug.append("Files in directory:\n");
-            File[] files = uploadDir.listFiles();
-            if (files != null) {
-                for (File file : files) {
-                    debug.append(" - ").append(file.getName())
-                            .append(" (").append(file.length()).append(" bytes)\n");
-                }
-            } else {
-                debug.append("No files or unable to list files.\n");
-            }
+        // List uploaded images
+        try {
+            debug.append("Uploaded images:\n");
+            blobStore.list(blob -> debug.append(" - ").append(blob.key())
+                    .append(" (").append(blob.size()).append(" bytes)\n"));
+        } catch (IOException e) {
+            debug.append("Unable to list images: ").append(e.getMessage()).append("\n");
         }
 
         return ResponseEntity.ok(debug.toString());
@@ -353,32 +284,26 @@ public class UserController {
             html.append("<html><body>");
             html.append("<h1>Image Loading Test</h1>");
 
-            // List files in upload directory
-            File uploadDir = new File(UPLOAD_DIR);
-            if (uploadDir.exists() && uploadDir.isDirectory()) {
-                File[] files = uploadDir.listFiles();
-                if (files != null) {
-                    html.append("<h2>Available Images:</h2>");
-                    for (File file : files) {
-                        if (file.isFile() && isImageFile(file.getName())) {
-                            String filename = file.getName();
-
-                            html.append("<div style='margin: 20px; border: 1px solid #ccc; padding: 10px;'>");
-                            html.append("<h3>").append(filename).append("</h3>");
+            // List uploaded images
+            List<String> filenames = new ArrayList<>();
+            blobStore.list(blob -> filenames.add(blob.key()));
+            html.append("<h2>Available Images:</h2>");
+            for (String filename : filenames) {
+                if (isImageFile(filename)) {
+                    html.append("<div style='margin: 20px; border: 1px solid #ccc; padding: 10px;'>");
+                    html.append("<h3>").append(filename).append("</h3>");
 
-                            // Test with different paths
-                            String directPath = "/api/assets/" + filename;
-                            String usersImagePath = "/api/users/image/" + filename;
+                    // Test with different paths
+                    String directPath = "/api/assets/" + filename;
+                    String usersImagePath = "/api/users/image/" + filename;
 
-                            html.append("<p>Direct path: ").append(directPath).append("</p>");
-                            html.append("<img src='").append(directPath).append("' style='max-width: 200px; border: 2px solid blue;'>");
+                    html.append("<p>Direct path: ").append(directPath).append("</p>");
+                    html.append("<img src='").append(directPath).append("' style='max-width: 200px; border: 2px solid blue;'>");
 
-                            html.append("<p>Users image path: ").append(usersImagePath).append("</p>");
-                            html.append("<img src='").append(usersImagePath).append("' style='max-width: 200px; border: 2px solid green;'>");
+                    html.append("<p>Users image path: ").append(usersImagePath).append("</p>");
+                    html.append("<img src='").append(usersImagePath).append("' style='max-width: 200px; border: 2px solid green;'>");
 
-                            html.append("</div>");
-                        }
-                    }
+                    html.append("</div>");
                 }
             }
 
@@ -406,7 +331,7 @@ public class UserController {
             DoctorDTO doctor = userService.getDoctorById(id);
             return ResponseEntity.ok(doctor);
         } catch (Exception e) {
-            System.err.println("Error fetching doctor: " + e.getMessage());
+            log.warn("Error fetching doctor", "error", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -423,18 +348,41 @@ public class UserController {
         return ResponseEntity.ok(count);
     }
 
+    // Behind a proxy, the client address comes from X-Forwarded-For when server.forward-headers-strategy is set
     @PostMapping("/request-password-reset")
-    public ResponseEntity<?> requestPasswordReset(@RequestParam String email) {
-        userService.sendPasswordResetCode(email);
+    public ResponseEntity<?> requestPasswordReset(@RequestParam String email, HttpServletRequest request) {
+        try {
+            userService.sendPasswordResetCode(email, request.getRemoteAddr());
+        } catch (RateLimiter.LimitExceeded e) {
+            return tooManyRequests(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
         return ResponseEntity.ok("Reset code sent if email exists.");
     }
 
     @PostMapping("/reset-password")
-    public ResponseEntity<?> resetPassword(@RequestParam String email, @RequestParam String code, @RequestParam String newPassword) {
-        userService.resetPassword(email, code, newPassword);
+    public ResponseEntity<?> resetPassword(@RequestParam String email, @RequestParam String code,
+                                           @RequestParam String newPassword, HttpServletRequest request) {
+        try {
+            userService.resetPassword(email, code, newPassword, request.getRemoteAddr());
+        } catch (RateLimiter.LimitExceeded e) {
+            return tooManyRequests(e);
+        } catch (PasswordHashing.Overloaded e) {
+            log.warn("Password reset refused: password hashing saturated");
+            return ResponseEntity.status(503).header("Retry-After", "1").body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
         return ResponseEntity.ok("Password reset successful.");
     }
 
+    private static ResponseEntity<String> tooManyRequests(RateLimiter.LimitExceeded e) {
+        return ResponseEntity.status(429)
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
     @PutMapping("/updatePatientProfile")
     public ResponseEntity<Patient> updatePatientProfile(@RequestBody Patient updatedPatient) {
         try {
@@ -442,7 +390,7 @@ public class UserController {
             Patient updated = userService.updatePatientProfile(email, updatedPatient);
             return ResponseEntity.ok(updated);
         } catch (Exception e) {
-            System.err.println("Error updating patient profile: " + e.getMessage());
+            log.warn("Error updating patient profile", "error", e.getMessage());
             return ResponseEntity.badRequest().body(null);
         }
     }
@@ -0,0 +1,51 @@
+package com.gloriatech.medimeet.dto;
+
+public class AdminStatsDTO {
+
+    private long doctors;
+    private long patients;
+    private long admins;
+    private long appointments;
+
+    public AdminStatsDTO() {
+    }
+
+    public AdminStatsDTO(long doctors, long patients, long admins, long appointments) {
+        this.doctors = doctors;
+        this.patients = patients;
+        this.admins = admins;
+        this.appointments = appointments;
+    }
+
+    public long getDoctors() {
+        return doctors;
+    }
+
+    public void setDoctors(long doctors) {
+        this.doctors = doctors;
+    }
+
+    public long getPatients() {
+        return patients;
+    }
+
+    public void setPatients(long patients) {
+        this.patients = patients;
+    }
+
+    public long getAdmins() {
+        return admins;
+    }
+
+    public void setAdmins(long admins) {
+        this.admins = admins;
+    }
+
+    public long getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(long appointments) {
+        this.appointments = appointments;
+    }
+}
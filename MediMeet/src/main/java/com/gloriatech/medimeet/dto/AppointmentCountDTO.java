@@ -0,0 +1,41 @@
+package com.gloriatech.medimeet.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Number of appointments in one time bucket; {@code date} is the first day of the bucket.
+ */
+public class AppointmentCountDTO {
+
+    private String date;
+    private long count;
+
+    public AppointmentCountDTO() {
+    }
+
+    public AppointmentCountDTO(String date, long count) {
+        this.date = date;
+        this.count = count;
+    }
+
+    // Used by the GROUP BY date projection query
+    public AppointmentCountDTO(LocalDate date, Long count) {
+        this(date.toString(), count == null ? 0 : count);
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
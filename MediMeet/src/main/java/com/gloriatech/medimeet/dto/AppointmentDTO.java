@@ -1,8 +1,16 @@
 package com.gloriatech.medimeet.dto;
 
+import com.gloriatech.medimeet.model.Appointment;
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+/**
+ * Compact appointment view returned by the appointment endpoints: only the doctor
+ * and patient columns the UI shows, never passwords or profile text.
+ */
 public class AppointmentDTO {
 
     private Long id;
@@ -10,22 +18,35 @@ public class AppointmentDTO {
     private LocalTime time;
     private String comment;
     private String status;
-    private String patientName;
-    private String patientEmail;
-    private String patientPhone;
+    private DoctorSummary doctor;
+    private PatientSummary patient;
+
+    public AppointmentDTO() {
+    }
 
-    public AppointmentDTO(Long id, LocalDate date, LocalTime time, String comment, String status, String patientName, String patientEmail, String patientPhone) {
+    // Used by the JPQL constructor projections in AppointmentRepository
+    public AppointmentDTO(Long id, LocalDate date, LocalTime time, String comment, String status,
+                          Long doctorId, String doctorName, String doctorSpecialisation, String doctorImageUrl,
+                          Long patientId, String patientName, String patientEmail, String patientPhone) {
         this.id = id;
         this.date = date;
         this.time = time;
         this.comment = comment;
         this.status = status;
-        this.patientName = patientName;
-        this.patientEmail = patientEmail;
-        this.patientPhone = patientPhone;
+        this.doctor = new DoctorSummary(doctorId, doctorName, doctorSpecialisation, doctorImageUrl);
+        this.patient = new PatientSummary(patientId, patientName, patientEmail, patientPhone);
+    }
+
+    // For appointments already loaded as entities, e.g. right after a write
+    public static AppointmentDTO from(Appointment appointment) {
+        Doctor doctor = appointment.getDoctor();
+        Patient patient = appointment.getPatient();
+        return new AppointmentDTO(appointment.getId(), appointment.getDate(), appointment.getTime(),
+                appointment.getComment(), appointment.getStatus(),
+                doctor.getId(), doctor.getName(), doctor.getSpecialisation(), doctor.getImageUrl(),
+                patient.getId(), patient.getName(), patient.getEmail(), patient.getPhone());
     }
 
-    // Getters and setters
     public Long getId() {
         return id;
     }
@@ -66,27 +87,25 @@ public class AppointmentDTO {
         this.status = status;
     }
 
-    public String getPatientName() {
-        return patientName;
+    public DoctorSummary getDoctor() {
+        return doctor;
     }
 
-    public void setPatientName(String patientName) {
-        this.patientName = patientName;
+    public void setDoctor(DoctorSummary doctor) {
+        this.doctor = doctor;
     }
 
-    public String getPatientEmail() {
-        return patientEmail;
+    public PatientSummary getPatient() {
+        return patient;
     }
 
-    public void setPatientEmail(String patientEmail) {
-        this.patientEmail = patientEmail;
+    public void setPatient(PatientSummary patient) {
+        this.patient = patient;
     }
 
-    public String getPatientPhone() {
-        return patientPhone;
+    public record DoctorSummary(Long id, String name, String specialisation, String imageUrl) {
     }
 
-    public void setPatientPhone(String patientPhone) {
-        this.patientPhone = patientPhone;
+    public record PatientSummary(Long id, String name, String email, String phone) {
     }
 }
@@ -0,0 +1,79 @@
+package com.gloriatech.medimeet.dto;
+
+import com.gloriatech.medimeet.model.AppointmentEvent;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Payload pushed to streaming clients. {@code type} is booked, status or cancelled;
+ * going from {@code previousStatus} to {@code status} (either may be null) it can be
+ * applied to status counts as a delta.
+ */
+public class AppointmentEventDTO {
+
+    private final Long eventId;
+    private final String type;
+    private final Long appointmentId;
+    private final Long doctorId;
+    private final Long patientId;
+    private final String previousStatus;
+    private final String status;
+    private final LocalDate date;
+    private final LocalTime time;
+
+    public AppointmentEventDTO(Long eventId, String type, Long appointmentId, Long doctorId, Long patientId,
+                               String previousStatus, String status, LocalDate date, LocalTime time) {
+        this.eventId = eventId;
+        this.type = type;
+        this.appointmentId = appointmentId;
+        this.doctorId = doctorId;
+        this.patientId = patientId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.date = date;
+        this.time = time;
+    }
+
+    public static AppointmentEventDTO from(AppointmentEvent event) {
+        return new AppointmentEventDTO(event.getId(), event.getType(), event.getAppointmentId(),
+                event.getDoctorId(), event.getPatientId(), event.getPreviousStatus(), event.getStatus(),
+                event.getAppointmentDate(), event.getAppointmentTime());
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public LocalTime getTime() {
+        return time;
+    }
+}
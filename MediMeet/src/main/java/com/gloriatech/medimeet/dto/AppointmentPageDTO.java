@@ -0,0 +1,71 @@
+package com.gloriatech.medimeet.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One page of appointments in (date, time, id) order. Pass {@code nextCursor} back
+ * as {@code cursor} to get the following page; it is null on the last page.
+ * {@code totalElements} is only filled in when the caller asked for it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AppointmentPageDTO {
+
+    private List<AppointmentDTO> content;
+    private String nextCursor;
+    private int pageSize;
+    private boolean last;
+    private Long totalElements;
+
+    public AppointmentPageDTO() {
+    }
+
+    public AppointmentPageDTO(List<AppointmentDTO> content, String nextCursor, int pageSize, boolean last, Long totalElements) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.pageSize = pageSize;
+        this.last = last;
+        this.totalElements = totalElements;
+    }
+
+    public List<AppointmentDTO> getContent() {
+        return content;
+    }
+
+    public void setContent(List<AppointmentDTO> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    public void setLast(boolean last) {
+        this.last = last;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+}
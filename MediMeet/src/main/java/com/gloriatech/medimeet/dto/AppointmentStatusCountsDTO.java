@@ -0,0 +1,64 @@
+package com.gloriatech.medimeet.dto;
+
+import java.util.List;
+
+public class AppointmentStatusCountsDTO {
+
+    private long pending;
+    private long accepted;
+    private long rejected;
+    private long cancelled;
+
+    public AppointmentStatusCountsDTO() {
+    }
+
+    public static AppointmentStatusCountsDTO from(List<StatusCountDTO> rows) {
+        AppointmentStatusCountsDTO counts = new AppointmentStatusCountsDTO();
+        for (StatusCountDTO row : rows) {
+            if (row.getStatus() == null) {
+                continue;
+            }
+            switch (row.getStatus()) {
+                case "pending" -> counts.pending += row.getCount();
+                case "accepted" -> counts.accepted += row.getCount();
+                case "rejected" -> counts.rejected += row.getCount();
+                case "cancelled" -> counts.cancelled += row.getCount();
+                default -> {
+                }
+            }
+        }
+        return counts;
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public void setPending(long pending) {
+        this.pending = pending;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(long cancelled) {
+        this.cancelled = cancelled;
+    }
+}
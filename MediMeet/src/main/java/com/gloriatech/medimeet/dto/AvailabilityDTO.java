@@ -0,0 +1,54 @@
+package com.gloriatech.medimeet.dto;
+
+/**
+ * One weekly availability window; times are "HH:mm" and dayOfWeek is e.g. "MONDAY".
+ */
+public class AvailabilityDTO {
+
+    private String dayOfWeek;
+    private String startTime;
+    private String endTime;
+    private int slotMinutes;
+
+    public AvailabilityDTO() {
+    }
+
+    public AvailabilityDTO(String dayOfWeek, String startTime, String endTime, int slotMinutes) {
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.slotMinutes = slotMinutes;
+    }
+
+    public String getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(String dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(String startTime) {
+        this.startTime = startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(int slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+}
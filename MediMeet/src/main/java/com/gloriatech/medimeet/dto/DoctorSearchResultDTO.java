@@ -0,0 +1,63 @@
+package com.gloriatech.medimeet.dto;
+
+import java.util.List;
+
+public class DoctorSearchResultDTO {
+
+    private List<DoctorDTO> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private boolean last;
+
+    public DoctorSearchResultDTO() {
+    }
+
+    public DoctorSearchResultDTO(List<DoctorDTO> content, int page, int size, long totalElements, boolean last) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.last = last;
+    }
+
+    public List<DoctorDTO> getContent() {
+        return content;
+    }
+
+    public void setContent(List<DoctorDTO> content) {
+        this.content = content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    public void setLast(boolean last) {
+        this.last = last;
+    }
+}
@@ -6,16 +6,19 @@ public class HomeDTO {
     private String name;
     private String specialisation;
     private String imageUrl;
+    // Pre-sized for the doctor cards; imageUrl is the full-resolution original
+    private String cardImageUrl;
 
     public HomeDTO() {
 
     }
 
-    public HomeDTO(Long id, String name, String specialisation, String imageUrl) {
+    public HomeDTO(Long id, String name, String specialisation, String imageUrl, String cardImageUrl) {
         this.id = id;
         this.name = name;
         this.specialisation = specialisation;
         this.imageUrl = imageUrl;
+        this.cardImageUrl = cardImageUrl;
     }
 
     public Long getId() {
@@ -49,4 +52,12 @@ public class HomeDTO {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    public String getCardImageUrl() {
+        return cardImageUrl;
+    }
+
+    public void setCardImageUrl(String cardImageUrl) {
+        this.cardImageUrl = cardImageUrl;
+    }
 }
@@ -0,0 +1,31 @@
+package com.gloriatech.medimeet.dto;
+
+public class SpecializationCountDTO {
+
+    private String name;
+    private int count;
+
+    public SpecializationCountDTO() {
+    }
+
+    public SpecializationCountDTO(String name, int count) {
+        this.name = name;
+        this.count = count;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
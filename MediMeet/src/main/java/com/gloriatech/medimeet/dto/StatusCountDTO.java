@@ -0,0 +1,31 @@
+package com.gloriatech.medimeet.dto;
+
+/**
+ * One row of a GROUP BY status aggregation.
+ */
+public class StatusCountDTO {
+
+    private String status;
+    private long count;
+
+    public StatusCountDTO(String status, Long count) {
+        this.status = status;
+        this.count = count == null ? 0 : count;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -1,5 +1,6 @@
 package com.gloriatech.medimeet.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 
@@ -8,17 +9,21 @@ import java.time.LocalTime;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_appointment_slot",
+        columnNames = {"doctor_id", "date", "time", "slot_held"}))
+// Access-path indexes live in the db/migration scripts
 public class Appointment {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Lazy: read paths use projections or an entity graph that fetches both parties in one query
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private Doctor doctor;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     private Patient patient;
 
@@ -27,6 +32,12 @@ public class Appointment {
     private String comment;
     private String status;
 
+    // TRUE while the appointment occupies its slot, NULL once rejected; NULLs never
+    // collide in the unique key, so a rejected slot can be booked again
+    @JsonIgnore
+    @Column(name = "slot_held")
+    private Boolean slotHeld;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
@@ -41,7 +52,7 @@ public class Appointment {
         this.date = date;
         this.time = time;
         this.comment = comment;
-        this.status = status;
+        setStatus(status);
     }
 
     public Long getId() {
@@ -98,6 +109,11 @@ public class Appointment {
 
     public void setStatus(String status) {
         this.status = status;
+        this.slotHeld = "rejected".equals(status) ? null : Boolean.TRUE;
+    }
+
+    public Boolean getSlotHeld() {
+        return slotHeld;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -0,0 +1,118 @@
+package com.gloriatech.medimeet.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Outbox row describing one change to an appointment. Written in the same
+ * transaction as the change; its id orders events and identifies them to
+ * streaming clients. Copies the appointment fields because the appointment
+ * itself is gone after a cancellation.
+ */
+@Entity
+@Table(name = "appointment_event")
+public class AppointmentEvent {
+
+    public static final String BOOKED = "booked";
+    public static final String STATUS_CHANGED = "status";
+    public static final String CANCELLED = "cancelled";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(nullable = false)
+    private String type;
+
+    // Status after the change; null for a cancellation, which removes the appointment
+    private String status;
+
+    // Status before the change; null for a booking
+    @Column(name = "previous_status")
+    private String previousStatus;
+
+    @Column(name = "appointment_date")
+    private LocalDate appointmentDate;
+
+    @Column(name = "appointment_time")
+    private LocalTime appointmentTime;
+
+    // Set once the notification email has been queued
+    @Column(nullable = false)
+    private boolean emailed;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    public AppointmentEvent() {
+    }
+
+    public AppointmentEvent(Appointment appointment, String type, String previousStatus, String status) {
+        this.appointmentId = appointment.getId();
+        this.doctorId = appointment.getDoctor().getId();
+        this.patientId = appointment.getPatient().getId();
+        this.type = type;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.appointmentDate = appointment.getDate();
+        this.appointmentTime = appointment.getTime();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public LocalDate getAppointmentDate() {
+        return appointmentDate;
+    }
+
+    public LocalTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public boolean isEmailed() {
+        return emailed;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
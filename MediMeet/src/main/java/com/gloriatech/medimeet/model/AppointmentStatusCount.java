@@ -0,0 +1,68 @@
+package com.gloriatech.medimeet.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Summary row holding the number of appointments a doctor has in one status.
+ * Kept in step with the appointment table by {@code AppointmentCounters}.
+ */
+@Entity
+@Table(name = "appointment_status_count",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"doctor_id", "status"}))
+public class AppointmentStatusCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain column rather than an association so counters never load or lock the doctor
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "appointment_count", nullable = false)
+    private long count;
+
+    public AppointmentStatusCount() {
+    }
+
+    public AppointmentStatusCount(Long doctorId, String status, long count) {
+        this.doctorId = doctorId;
+        this.status = status;
+        this.count = count;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,108 @@
+package com.gloriatech.medimeet.model;
+
+import jakarta.persistence.*;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * Weekly availability template: on {@code dayOfWeek} the doctor takes bookings
+ * from {@code startTime} (inclusive) to {@code endTime} (exclusive) in slots of
+ * {@code slotMinutes}.
+ */
+@Entity
+@Table(name = "doctor_availability")
+public class DoctorAvailability {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+
+    @Column(name = "slot_minutes", nullable = false)
+    private int slotMinutes;
+
+    public DoctorAvailability() {
+    }
+
+    public DoctorAvailability(Long doctorId, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime, int slotMinutes) {
+        this.doctorId = doctorId;
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.slotMinutes = slotMinutes;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(int slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+
+    /**
+     * True when {@code time} is the start of a whole slot inside this window.
+     */
+    public boolean offersSlotAt(LocalTime time) {
+        LocalTime slotEnd = time.plusMinutes(slotMinutes);
+        // slotEnd before time means the slot would run past midnight
+        if (time.isBefore(startTime) || slotEnd.isAfter(endTime) || slotEnd.isBefore(time)) {
+            return false;
+        }
+        return Duration.between(startTime, time).toSeconds() % (slotMinutes * 60L) == 0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.gloriatech.medimeet.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * The outstanding password reset code for an email. {@code PasswordResetService}
+ * stores an HMAC of the code, never the code itself, and counts wrong guesses.
+ */
+@Entity
+@Table(name = "password_reset_token")
+public class PasswordResetToken {
+
+    @Id
+    private String email;
+
+    @Column(name = "code_hash", nullable = false, length = 64)
+    private String codeHash;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    public PasswordResetToken() {
+    }
+
+    public PasswordResetToken(String email, String codeHash, LocalDateTime expiresAt) {
+        this.email = email;
+        this.codeHash = codeHash;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getCodeHash() {
+        return codeHash;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -15,6 +15,10 @@ public class User {
     private String password;
     private String role;
 
+    // Bumped whenever credentials change; JWTs carry it so older tokens can be revoked
+    @Column(name = "credential_version", nullable = false, columnDefinition = "integer default 0")
+    private int credentialVersion;
+
     public User(long id, String email, String password, String role) {
         this.id = id;
         this.email = email;
@@ -57,4 +61,12 @@ public class User {
     public void setRole(String role) {
         this.role = role;
     }
+
+    public int getCredentialVersion() {
+        return credentialVersion;
+    }
+
+    public void setCredentialVersion(int credentialVersion) {
+        this.credentialVersion = credentialVersion;
+    }
 }
@@ -0,0 +1,13 @@
+package com.gloriatech.medimeet.model;
+
+/**
+ * Columns needed to authenticate a user, read as a projection of the users table.
+ */
+public interface UserCredentials {
+
+    String getEmail();
+
+    String getPassword();
+
+    String getRole();
+}
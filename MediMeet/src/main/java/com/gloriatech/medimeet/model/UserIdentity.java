@@ -0,0 +1,14 @@
+package com.gloriatech.medimeet.model;
+
+/**
+ * Id, email and role of a user: everything the authorization checks need.
+ * Read as a projection of the users table, so no subclass table is joined.
+ */
+public interface UserIdentity {
+
+    Long getId();
+
+    String getEmail();
+
+    String getRole();
+}
@@ -0,0 +1,36 @@
+package com.gloriatech.medimeet.model;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collections;
+
+/**
+ * Authenticated principal rebuilt from verified JWT claims. Carries the user id
+ * and role so request handling does not need to reload the user to know them.
+ */
+public class UserPrincipal extends org.springframework.security.core.userdetails.User implements UserIdentity {
+
+    private final long id;
+    private final String role;
+
+    public UserPrincipal(long id, String email, String role) {
+        super(email, "", Collections.singleton(new SimpleGrantedAuthority("ROLE_" + role)));
+        this.id = id;
+        this.role = role;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getEmail() {
+        return getUsername();
+    }
+
+    @Override
+    public String getRole() {
+        return role;
+    }
+}
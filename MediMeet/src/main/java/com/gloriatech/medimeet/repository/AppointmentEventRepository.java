@@ -0,0 +1,38 @@
+package com.gloriatech.medimeet.repository;
+
+import com.gloriatech.medimeet.model.AppointmentEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AppointmentEventRepository extends JpaRepository<AppointmentEvent, Long> {
+
+    @Query("select e from AppointmentEvent e where e.emailed = false order by e.id")
+    List<AppointmentEvent> findNotEmailed(Limit limit);
+
+    // Returns 1 when this caller won the event; another node may have emailed it already
+    @Modifying
+    @Query("update AppointmentEvent e set e.emailed = true where e.id = :id and e.emailed = false")
+    int markEmailed(@Param("id") Long id);
+
+    List<AppointmentEvent> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // A user's events after an id, whichever party they are; resumes an event stream
+    @Query("select e from AppointmentEvent e where (e.doctorId = :userId or e.patientId = :userId) "
+            + "and e.id > :after order by e.id")
+    List<AppointmentEvent> findForUserAfter(@Param("userId") Long userId, @Param("after") Long after, Limit limit);
+
+    @Query("select coalesce(max(e.id), 0) from AppointmentEvent e")
+    long findMaxId();
+
+    @Modifying
+    @Query("delete from AppointmentEvent e where e.emailed = true and e.createdAt < :before")
+    int deleteEmailedBefore(@Param("before") LocalDateTime before);
+}
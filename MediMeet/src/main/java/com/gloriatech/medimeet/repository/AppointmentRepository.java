@@ -1,24 +1,70 @@
 package com.gloriatech.medimeet.repository;
 
+import com.gloriatech.medimeet.dto.AppointmentCountDTO;
+import com.gloriatech.medimeet.dto.AppointmentDTO;
 import com.gloriatech.medimeet.model.Appointment;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
     List<Appointment> findByPatientId(Long patientId);
 
-    Page<Appointment> findByDoctorId(Long doctorId, Pageable pageable);
+    // Compact view: one query joining the doctor and patient, selecting only the columns AppointmentDTO needs
+    String VIEW = "select new com.gloriatech.medimeet.dto.AppointmentDTO(a.id, a.date, a.time, a.comment, a.status, "
+            + "d.id, d.name, d.specialisation, d.imageUrl, p.id, p.name, p.email, p.phone) "
+            + "from Appointment a join a.doctor d join a.patient p ";
 
-    List<Appointment> findTop3ByOrderByDateDesc();
+    String AFTER_CURSOR = "(a.date > :date or (a.date = :date and (a.time > :time or (a.time = :time and a.id > :id)))) ";
 
-    List<Appointment> findTop3ByPatientIdOrderByDateDesc(Long patientId);
+    String PAGE_ORDER = "order by a.date, a.time, a.id";
+
+    // Keyset pages in (date, time, id) order: the first page, then everything after a cursor
+    @Query(VIEW + "where d.id = :doctorId " + PAGE_ORDER)
+    List<AppointmentDTO> findDoctorPage(@Param("doctorId") Long doctorId, Limit limit);
+
+    @Query(VIEW + "where d.id = :doctorId and " + AFTER_CURSOR + PAGE_ORDER)
+    List<AppointmentDTO> findDoctorPageAfter(@Param("doctorId") Long doctorId, @Param("date") LocalDate date,
+                                             @Param("time") LocalTime time, @Param("id") Long id, Limit limit);
+
+    @Query(VIEW + "where p.id = :patientId " + PAGE_ORDER)
+    List<AppointmentDTO> findPatientPage(@Param("patientId") Long patientId, Limit limit);
+
+    @Query(VIEW + "where p.id = :patientId and " + AFTER_CURSOR + PAGE_ORDER)
+    List<AppointmentDTO> findPatientPageAfter(@Param("patientId") Long patientId, @Param("date") LocalDate date,
+                                              @Param("time") LocalTime time, @Param("id") Long id, Limit limit);
+
+    long countByPatientId(Long patientId);
+
+    @Query(VIEW + "where a.id = :id")
+    Optional<AppointmentDTO> findViewById(@Param("id") Long id);
+
+    // Loads the appointment with both parties in one query, for writes that need the entities
+    @EntityGraph(attributePaths = {"doctor", "patient"})
+    Optional<Appointment> findWithPartiesById(Long id);
+
+    @Query(VIEW + PAGE_ORDER)
+    List<AppointmentDTO> findAllViews();
+
+    @Query(VIEW + "order by a.date desc, a.time desc, a.id desc")
+    List<AppointmentDTO> findRecentViews(Limit limit);
+
+    @Query(VIEW + "where d.id = :doctorId order by a.date desc, a.time desc, a.id desc")
+    List<AppointmentDTO> findRecentViewsByDoctor(@Param("doctorId") Long doctorId, Limit limit);
+
+    @Query(VIEW + "where d.id = :doctorId and a.status = :status " + PAGE_ORDER)
+    List<AppointmentDTO> findViewsByDoctorAndStatus(@Param("doctorId") Long doctorId, @Param("status") String status);
 
     // Count appointments by status for a specific doctor
     Long countByDoctorIdAndStatus(Long doctorId, String status);
@@ -26,6 +72,22 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     // Get all appointments for a specific doctor
     List<Appointment> findByDoctorId(Long doctorId);
 
-    // Get appointments by status for a specific doctor
-    List<Appointment> findByDoctorIdAndStatus(Long doctorId, String status);
+    // Appointment counts per day within [from, to], aggregated in the database
+    @Query("select new com.gloriatech.medimeet.dto.AppointmentCountDTO(a.date, count(a)) "
+            + "from Appointment a where a.date >= :from and a.date <= :to "
+            + "group by a.date order by a.date")
+    List<AppointmentCountDTO> countGroupByDate(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select min(a.date) from Appointment a")
+    LocalDate findEarliestDate();
+
+    @Query("select max(a.date) from Appointment a")
+    LocalDate findLatestDate();
+
+    // Whether an appointment other than a rejected one already occupies the slot
+    boolean existsByDoctorIdAndDateAndTimeAndStatusNot(Long doctorId, LocalDate date, LocalTime time, String status);
+
+    @Query("select a.time from Appointment a "
+            + "where a.doctor.id = :doctorId and a.date = :date and a.status <> 'rejected'")
+    List<LocalTime> findHeldSlotTimes(@Param("doctorId") Long doctorId, @Param("date") LocalDate date);
 }
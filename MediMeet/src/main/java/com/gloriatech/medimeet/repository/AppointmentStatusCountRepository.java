@@ -0,0 +1,54 @@
+package com.gloriatech.medimeet.repository;
+
+import com.gloriatech.medimeet.dto.StatusCountDTO;
+import com.gloriatech.medimeet.model.AppointmentStatusCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AppointmentStatusCountRepository extends JpaRepository<AppointmentStatusCount, Long> {
+
+    List<AppointmentStatusCount> findByDoctorId(Long doctorId);
+
+    // Returns the number of rows changed; 0 means the (doctor, status) row does not exist yet
+    @Modifying
+    @Query("update AppointmentStatusCount c set c.count = c.count + :delta "
+            + "where c.doctorId = :doctorId and c.status = :status")
+    int addToCount(@Param("doctorId") Long doctorId, @Param("status") String status, @Param("delta") long delta);
+
+    // Zero row for the (doctor, status) unless one exists; a concurrent creator is not an error
+    @Modifying
+    @Query(value = "insert into appointment_status_count (doctor_id, status, appointment_count) "
+            + "values (:doctorId, :status, 0) on conflict do nothing", nativeQuery = true)
+    int insertIfMissing(@Param("doctorId") Long doctorId, @Param("status") String status);
+
+    // Row starting from the live count unless one exists; 0 when another transaction created it first
+    @Modifying
+    @Query(value = "insert into appointment_status_count (doctor_id, status, appointment_count) "
+            + "select :doctorId, :status, count(*) from appointment where doctor_id = :doctorId and status = :status "
+            + "on conflict do nothing", nativeQuery = true)
+    int insertFromLiveCount(@Param("doctorId") Long doctorId, @Param("status") String status);
+
+    // Resets every row to the live count from the appointment table
+    @Modifying
+    @Query("update AppointmentStatusCount c set c.count = "
+            + "(select count(a) from Appointment a where a.doctor.id = c.doctorId and a.status = c.status)")
+    int recountAll();
+
+    @Query("select new com.gloriatech.medimeet.dto.StatusCountDTO(c.status, sum(c.count)) "
+            + "from AppointmentStatusCount c where c.doctorId = :doctorId group by c.status")
+    List<StatusCountDTO> sumByStatusForDoctor(@Param("doctorId") Long doctorId);
+
+    @Query("select new com.gloriatech.medimeet.dto.StatusCountDTO(c.status, sum(c.count)) "
+            + "from AppointmentStatusCount c group by c.status")
+    List<StatusCountDTO> sumByStatus();
+
+    // (doctor, status) pairs present in the appointment table, including doctors added since the last rebuild
+    @Query("select distinct a.doctor.id, a.status from Appointment a")
+    List<Object[]> findAppointmentDoctorStatuses();
+}
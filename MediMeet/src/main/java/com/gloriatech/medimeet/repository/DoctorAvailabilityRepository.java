@@ -0,0 +1,20 @@
+package com.gloriatech.medimeet.repository;
+
+import com.gloriatech.medimeet.model.DoctorAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.DayOfWeek;
+import java.util.List;
+
+@Repository
+public interface DoctorAvailabilityRepository extends JpaRepository<DoctorAvailability, Long> {
+
+    List<DoctorAvailability> findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(Long doctorId);
+
+    List<DoctorAvailability> findByDoctorIdAndDayOfWeekOrderByStartTimeAsc(Long doctorId, DayOfWeek dayOfWeek);
+
+    boolean existsByDoctorId(Long doctorId);
+
+    void deleteByDoctorId(Long doctorId);
+}
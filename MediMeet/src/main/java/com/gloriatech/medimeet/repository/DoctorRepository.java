@@ -1,6 +1,18 @@
 package com.gloriatech.medimeet.repository;
 import com.gloriatech.medimeet.model.Doctor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+
+    // Querying the subclass joins only users and doctor, unlike findByRole on User
+    @Query("select d from Doctor d")
+    List<Doctor> findAllDoctors();
+
+    boolean existsByImageUrl(String imageUrl);
+
+    @Query("select d.imageUrl from Doctor d where d.imageUrl is not null")
+    List<String> findAllImageUrls();
 }
@@ -0,0 +1,29 @@
+package com.gloriatech.medimeet.repository;
+
+import com.gloriatech.medimeet.model.OutboundMail;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+
+    // Pending mail that is due, plus claimed mail whose lease ran out (the drainer died)
+    @Query("select m.id from OutboundMail m "
+            + "where m.status in ('pending', 'sending') and m.nextAttemptAt <= :now order by m.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Limit limit);
+
+    // Returns 1 when this caller won the row; another drainer may have claimed it first
+    @Modifying
+    @Query("update OutboundMail m set m.status = 'sending', m.nextAttemptAt = :leaseUntil "
+            + "where m.id = :id and m.status in ('pending', 'sending') and m.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    long countByStatus(String status);
+}
@@ -0,0 +1,38 @@
+package com.gloriatech.medimeet.repository;
+
+import com.gloriatech.medimeet.model.PasswordResetToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, String> {
+
+    // A new code replaces the outstanding one and its attempt count; 0 when there is none
+    @Modifying
+    @Query("update PasswordResetToken t set t.codeHash = :codeHash, t.attempts = 0, t.expiresAt = :expiresAt "
+            + "where t.email = :email")
+    int reissue(@Param("email") String email, @Param("codeHash") String codeHash,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Counts a guess against a live code; 0 when there is none or its guesses are used up
+    @Modifying
+    @Query("update PasswordResetToken t set t.attempts = t.attempts + 1 "
+            + "where t.email = :email and t.attempts < :maxAttempts and t.expiresAt > :now")
+    int recordAttempt(@Param("email") String email, @Param("maxAttempts") int maxAttempts,
+                      @Param("now") LocalDateTime now);
+
+    // Uses the code up; 1 for exactly one caller, however many nodes present it at once
+    @Modifying
+    @Query("delete from PasswordResetToken t "
+            + "where t.email = :email and t.codeHash = :codeHash and t.expiresAt > :now")
+    int consume(@Param("email") String email, @Param("codeHash") String codeHash, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from PasswordResetToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
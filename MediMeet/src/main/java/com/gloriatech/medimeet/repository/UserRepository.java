@@ -2,7 +2,13 @@ package com.gloriatech.medimeet.repository;
 
 import com.gloriatech.medimeet.model.Doctor;
 import com.gloriatech.medimeet.model.User;
+import com.gloriatech.medimeet.model.UserCredentials;
+import com.gloriatech.medimeet.model.UserIdentity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.List;
@@ -11,6 +17,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
+    // Projections over the users table only; loading the entity would outer join every subclass table
+    Optional<UserIdentity> findIdentityByEmail(String email);
+
+    Optional<UserIdentity> findIdentityById(Long id);
+
+    Optional<UserCredentials> findCredentialsByEmail(String email);
+
     List<User> findByRole(String role);
 
     List<Doctor> findByRoleAndSpecialisation(String role, String specialisation);
@@ -23,4 +36,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     long countByRole(String role);
 
+    // Checked by token revocation; empty once the user is deleted
+    @Query(value = "select credential_version from users where id = :id", nativeQuery = true)
+    Optional<Integer> findCredentialVersionById(@Param("id") long id);
+
+    // Rehash on login; leaves the row alone if the password changed since it was read.
+    // Native, as JPQL bulk updates on the joined hierarchy go through a temporary table
+    @Transactional
+    @Modifying
+    @Query(value = "update users set password = :newHash where id = :id and password = :oldHash", nativeQuery = true)
+    int rehashPassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    @Query("select u.id from User u where u.role = :role")
+    List<Long> findIdsByRole(@Param("role") String role);
+
 }
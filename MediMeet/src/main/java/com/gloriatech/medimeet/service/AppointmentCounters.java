@@ -0,0 +1,129 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.dto.AppointmentStatusCountsDTO;
+import com.gloriatech.medimeet.model.AppointmentStatusCount;
+import com.gloriatech.medimeet.repository.AppointmentStatusCountRepository;
+import com.gloriatech.medimeet.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Per-doctor appointment counts by status, kept in a summary table. Every
+ * appointment write adjusts the matching row inside its own transaction, so the
+ * dashboards read a handful of rows instead of counting appointments. A periodic
+ * rebuild recounts from the appointment table to repair any drift.
+ * <p>
+ * The counts always describe the rows in the appointment table. Cancelling
+ * deletes the appointment, so it only decrements the status it had; the
+ * cancelled bucket counts appointments whose status is "cancelled".
+ */
+@Service
+public class AppointmentCounters {
+
+    public static final List<String> STATUSES = List.of("pending", "accepted", "rejected", "cancelled");
+
+    private final AppointmentStatusCountRepository countRepository;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public AppointmentCounters(AppointmentStatusCountRepository countRepository,
+                               UserRepository userRepository) {
+        this.countRepository = countRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Moves one appointment of the doctor from one status to another; either side
+     * may be null for a booking or a cancellation. Must run in the caller's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Long doctorId, String fromStatus, String toStatus) {
+        if (Objects.equals(fromStatus, toStatus)) {
+            return;
+        }
+        if (fromStatus != null) {
+            adjust(doctorId, fromStatus, -1);
+        }
+        if (toStatus != null) {
+            adjust(doctorId, toStatus, 1);
+        }
+    }
+
+    /**
+     * Creates zero rows for a new doctor so later updates never need to insert.
+     */
+    @Transactional
+    public void doctorCreated(Long doctorId) {
+        for (String status : STATUSES) {
+            countRepository.insertIfMissing(doctorId, status);
+        }
+    }
+
+    public AppointmentStatusCountsDTO getDoctorCounts(Long doctorId) {
+        return AppointmentStatusCountsDTO.from(countRepository.sumByStatusForDoctor(doctorId));
+    }
+
+    public AppointmentStatusCountsDTO getGlobalCounts() {
+        return AppointmentStatusCountsDTO.from(countRepository.sumByStatus());
+    }
+
+    /**
+     * Ensures a row exists for every doctor and status, then recounts every row
+     * from the appointment table in a single statement.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${appointment-counters.rebuild-ms:3600000}",
+            initialDelayString = "${appointment-counters.rebuild-ms:3600000}")
+    @Transactional
+    public void rebuild() {
+        Set<String> existing = new HashSet<>();
+        for (AppointmentStatusCount row : countRepository.findAll()) {
+            existing.add(key(row.getDoctorId(), row.getStatus()));
+        }
+        for (Long doctorId : userRepository.findIdsByRole("Doctor")) {
+            seed(doctorId, existing);
+        }
+        for (Object[] row : countRepository.findAppointmentDoctorStatuses()) {
+            Long doctorId = (Long) row[0];
+            String status = (String) row[1];
+            if (status != null && existing.add(key(doctorId, status))) {
+                countRepository.insertIfMissing(doctorId, status);
+            }
+        }
+        countRepository.recountAll();
+    }
+
+    private void adjust(Long doctorId, String status, long delta) {
+        if (countRepository.addToCount(doctorId, status, delta) > 0) {
+            return;
+        }
+        // Row missing (doctor predates the last rebuild): start it from the live count, which
+        // already includes this transaction's change. If a concurrent transaction created the
+        // row first, its count cannot see our uncommitted change, so add it on top
+        if (countRepository.insertFromLiveCount(doctorId, status) == 0) {
+            countRepository.addToCount(doctorId, status, delta);
+        }
+    }
+
+    private void seed(Long doctorId, Set<String> existing) {
+        for (String status : STATUSES) {
+            if (existing.add(key(doctorId, status))) {
+                countRepository.insertIfMissing(doctorId, status);
+            }
+        }
+    }
+
+    private static String key(Long doctorId, String status) {
+        return doctorId + ":" + status;
+    }
+}
@@ -0,0 +1,40 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.dto.AppointmentDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * Position of the last appointment on a page in (date, time, id) order. Clients
+ * only ever see it as an opaque URL-safe token.
+ */
+record AppointmentCursor(LocalDate date, LocalTime time, long id) {
+
+    static AppointmentCursor after(AppointmentDTO appointment) {
+        return new AppointmentCursor(appointment.getDate(), appointment.getTime(), appointment.getId());
+    }
+
+    String encode() {
+        String raw = date + "|" + time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    static AppointmentCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new AppointmentCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
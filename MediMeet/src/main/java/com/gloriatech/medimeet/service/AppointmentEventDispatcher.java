@@ -0,0 +1,191 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.dto.AppointmentEventDTO;
+import com.gloriatech.medimeet.model.AppointmentEvent;
+import com.gloriatech.medimeet.model.UserIdentity;
+import com.gloriatech.medimeet.repository.AppointmentEventRepository;
+import com.gloriatech.medimeet.repository.UserRepository;
+import com.gloriatech.medimeet.util.RateLimitedLog;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans appointment events out from the outbox table on a single background
+ * thread. Every node streams every new event to its own connected clients;
+ * the notification email is queued once per event across all nodes, in the
+ * same transaction that marks the event emailed.
+ */
+@Service
+public class AppointmentEventDispatcher {
+
+    private static final RateLimitedLog log = new RateLimitedLog(AppointmentEventDispatcher.class);
+
+    private final AppointmentEventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final EmailService emailService;
+    private final AppointmentStreamHub streamHub;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final long wakeDelayMs;
+    private final Duration commitGrace;
+    private final Duration retention;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "appointment-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean dispatchQueued = new AtomicBoolean();
+
+    // Worker thread only. Ids are assigned at insert but become visible at commit, so a
+    // lower id can appear after a higher one; ids above the watermark are re-read until
+    // they are older than the commit grace period, skipping those already streamed.
+    private long streamedWatermark = -1;
+    private final Set<Long> streamedAboveWatermark = new HashSet<>();
+
+    @Autowired
+    public AppointmentEventDispatcher(AppointmentEventRepository eventRepository, UserRepository userRepository,
+                                      EmailService emailService, AppointmentStreamHub streamHub,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${appointment-events.batch-size:100}") int batchSize,
+                                      @Value("${appointment-events.wake-delay-ms:50}") long wakeDelayMs,
+                                      @Value("${appointment-events.commit-grace-ms:10000}") long commitGraceMs,
+                                      @Value("${appointment-events.retention-days:7}") int retentionDays) {
+        this.eventRepository = eventRepository;
+        this.userRepository = userRepository;
+        this.emailService = emailService;
+        this.streamHub = streamHub;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.wakeDelayMs = wakeDelayMs;
+        this.commitGrace = Duration.ofMillis(commitGraceMs);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    // Streams start at the events committed after startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker.execute(() -> streamedWatermark = eventRepository.findMaxId());
+    }
+
+    /**
+     * Schedules a dispatch pass shortly; calls made while one is already queued
+     * share it, so a burst of writes is delivered in one pass.
+     */
+    public void wakeUp() {
+        if (dispatchQueued.compareAndSet(false, true)) {
+            worker.schedule(() -> {
+                dispatchQueued.set(false);
+                dispatch();
+            }, wakeDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Picks up events committed by other nodes and anything a failed pass left behind
+    @Scheduled(fixedDelayString = "${appointment-events.poll-ms:1000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @Scheduled(fixedDelayString = "${appointment-events.purge-ms:3600000}")
+    @Transactional
+    public void purge() {
+        eventRepository.deleteEmailedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void dispatch() {
+        try {
+            if (streamedWatermark >= 0) {
+                stream();
+            }
+            email();
+        } catch (RuntimeException e) {
+            // Events stay in the table; the next poll retries them
+            log.error("Appointment event dispatch failed", e);
+        }
+    }
+
+    private void stream() {
+        LocalDateTime settled = LocalDateTime.now().minus(commitGrace);
+        long after = streamedWatermark;
+        long newWatermark = streamedWatermark;
+        boolean gap = false;
+        List<AppointmentEvent> events;
+        do {
+            events = eventRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize));
+            for (AppointmentEvent event : events) {
+                if (streamedAboveWatermark.add(event.getId())) {
+                    streamHub.publish(AppointmentEventDTO.from(event));
+                }
+                // The watermark only moves over settled events, and never past a newer one
+                gap |= event.getCreatedAt() == null || event.getCreatedAt().isAfter(settled);
+                if (!gap) {
+                    newWatermark = event.getId();
+                }
+                after = event.getId();
+            }
+        } while (events.size() == batchSize);
+
+        streamedWatermark = newWatermark;
+        long watermark = newWatermark;
+        streamedAboveWatermark.removeIf(id -> id <= watermark);
+    }
+
+    private void email() {
+        int emailed;
+        do {
+            emailed = transactionTemplate.execute(status -> {
+                List<AppointmentEvent> events = eventRepository.findNotEmailed(Limit.of(batchSize));
+                for (AppointmentEvent event : events) {
+                    // The mail is queued in this transaction, so it exists exactly when the event is marked
+                    if (eventRepository.markEmailed(event.getId()) == 1) {
+                        sendEmail(event);
+                    }
+                }
+                return events.size();
+            });
+        } while (emailed == batchSize);
+    }
+
+    private void sendEmail(AppointmentEvent event) {
+        boolean toPatient = AppointmentEvent.STATUS_CHANGED.equals(event.getType());
+        Long recipientId = toPatient ? event.getPatientId() : event.getDoctorId();
+        userRepository.findIdentityById(recipientId).map(UserIdentity::getEmail).ifPresent(email -> {
+            switch (event.getType()) {
+                case AppointmentEvent.BOOKED -> emailService.sendAppointmentBookedEmail(
+                        email, event.getAppointmentDate(), event.getAppointmentTime());
+                case AppointmentEvent.STATUS_CHANGED -> emailService.sendAppointmentStatusEmail(
+                        email, event.getStatus(), event.getAppointmentDate(), event.getAppointmentTime());
+                case AppointmentEvent.CANCELLED -> emailService.sendAppointmentCancelledEmail(
+                        email, event.getAppointmentDate(), event.getAppointmentTime());
+                default -> {
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.model.Appointment;
+import com.gloriatech.medimeet.model.AppointmentEvent;
+import com.gloriatech.medimeet.repository.AppointmentEventRepository;
+import com.gloriatech.medimeet.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes appointment changes to the {@code appointment_event} outbox in the
+ * transaction that makes them, so an event exists exactly when its change
+ * committed. Delivery is left to {@link AppointmentEventDispatcher}.
+ */
+@Service
+public class AppointmentEvents {
+
+    private final AppointmentEventRepository eventRepository;
+    private final AppointmentEventDispatcher dispatcher;
+
+    @Autowired
+    public AppointmentEvents(AppointmentEventRepository eventRepository, AppointmentEventDispatcher dispatcher) {
+        this.eventRepository = eventRepository;
+        this.dispatcher = dispatcher;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void booked(Appointment appointment) {
+        record(appointment, AppointmentEvent.BOOKED, null, appointment.getStatus());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Appointment appointment, String previousStatus) {
+        record(appointment, AppointmentEvent.STATUS_CHANGED, previousStatus, appointment.getStatus());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cancelled(Appointment appointment) {
+        record(appointment, AppointmentEvent.CANCELLED, appointment.getStatus(), null);
+    }
+
+    private void record(Appointment appointment, String type, String previousStatus, String status) {
+        eventRepository.save(new AppointmentEvent(appointment, type, previousStatus, status));
+        // Deliver right away instead of waiting for the next poll
+        AfterCommit.run(dispatcher::wakeUp);
+    }
+}
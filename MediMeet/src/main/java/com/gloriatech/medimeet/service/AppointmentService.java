@@ -1,30 +1,33 @@
 package com.gloriatech.medimeet.service;
 
+import com.gloriatech.medimeet.dto.AppointmentCountDTO;
+import com.gloriatech.medimeet.dto.AppointmentDTO;
+import com.gloriatech.medimeet.dto.AppointmentPageDTO;
+import com.gloriatech.medimeet.dto.AppointmentStatusCountsDTO;
 import com.gloriatech.medimeet.model.Appointment;
-import com.gloriatech.medimeet.model.Doctor;
-import com.gloriatech.medimeet.model.Patient;
-import com.gloriatech.medimeet.model.User;
+import com.gloriatech.medimeet.model.UserIdentity;
 import com.gloriatech.medimeet.repository.AppointmentRepository;
+import com.gloriatech.medimeet.repository.DoctorRepository;
 import com.gloriatech.medimeet.repository.PatientRepository;
 import com.gloriatech.medimeet.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.HashMap;
 
 @Service
 public class AppointmentService {
@@ -41,54 +44,95 @@ public class AppointmentService {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private DoctorRepository doctorRepository;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    @Transactional
-    public Appointment bookAppointment(Long doctorId, LocalDate date, LocalTime time, String comment) {
-        // Get the current logged-in user's email
-        String currentUserEmail = userService.getCurrentUserEmail();
-        if (currentUserEmail == null) {
-            throw new RuntimeException("No user is currently logged in");
-        }
+    @Autowired
+    private AppointmentCounters appointmentCounters;
 
-        // Retrieve the patient associated with the current user
-        Patient patient = (Patient) userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new RuntimeException("Patient not found for the logged-in user"));
+    @Autowired
+    private AvailabilityService availabilityService;
 
-        User doctorUser = userRepository.findById(doctorId)
-                .orElseThrow(() -> new RuntimeException("Doctor not found with id " + doctorId));
+    @Autowired
+    private AppointmentEvents appointmentEvents;
 
-        if (!"Doctor".equals(doctorUser.getRole())) {
-            throw new RuntimeException("Selected user is not a doctor");
-        }
-        Doctor doctor = (Doctor) doctorUser;
+    @Autowired
+    private SlotLocks slotLocks;
 
-        Appointment appointment = new Appointment();
-        appointment.setDoctor(doctor);
-        appointment.setPatient(patient);
-        appointment.setDate(date);
-        appointment.setTime(time);
-        appointment.setComment(comment);
-        appointment.setStatus("pending");
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-        return appointmentRepository.save(appointment);
-    }
+    @Value("${appointments.page.default-size:5}")
+    private int defaultPageSize;
 
-    public List<Appointment> getPatientAppointments() {
-        return appointmentRepository.findAll();
+    @Value("${appointments.page.max-size:50}")
+    private int maxPageSize;
+
+    /**
+     * Books a slot for the logged-in patient. Bookings for the same doctor and day are
+     * serialized by a striped lock held until the transaction has committed, so the
+     * next booker always sees this one; the unique slot constraint backs this up
+     * across nodes.
+     *
+     * @throws IllegalArgumentException if the time is outside the doctor's availability
+     * @throws IllegalStateException    if the slot is already taken
+     */
+    public AppointmentDTO bookAppointment(Long doctorId, LocalDate date, LocalTime time, String comment) {
+        // Get the current logged-in user's email
+        String currentUserEmail = userService.getCurrentUserEmail();
+        if (currentUserEmail == null) {
+            throw new RuntimeException("No user is currently logged in");
+        }
+
+        return slotLocks.withLock(doctorId, date, () -> transactionTemplate.execute(status -> {
+            // Only ids and roles are needed here; the parties are attached as references
+            UserIdentity patientUser = userRepository.findIdentityByEmail(currentUserEmail)
+                    .filter(user -> "PATIENT".equals(user.getRole()))
+                    .orElseThrow(() -> new RuntimeException("Patient not found for the logged-in user"));
+
+            UserIdentity doctorUser = userRepository.findIdentityById(doctorId)
+                    .orElseThrow(() -> new RuntimeException("Doctor not found with id " + doctorId));
+
+            if (!"Doctor".equals(doctorUser.getRole())) {
+                throw new RuntimeException("Selected user is not a doctor");
+            }
+
+            if (!availabilityService.isBookable(doctorId, date, time)) {
+                throw new IllegalArgumentException("Doctor is not available on " + date + " at " + time);
+            }
+            if (appointmentRepository.existsByDoctorIdAndDateAndTimeAndStatusNot(doctorId, date, time, "rejected")) {
+                throw new IllegalStateException("This slot is already booked");
+            }
+
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctorRepository.getReferenceById(doctorId));
+            appointment.setPatient(patientRepository.getReferenceById(patientUser.getId()));
+            appointment.setDate(date);
+            appointment.setTime(time);
+            appointment.setComment(comment);
+            appointment.setStatus("pending");
+
+            Appointment saved = appointmentRepository.saveAndFlush(appointment);
+            appointmentCounters.statusChanged(doctorId, null, saved.getStatus());
+            appointmentEvents.booked(saved);
+            return appointmentRepository.findViewById(saved.getId()).orElseThrow();
+        }));
     }
 
-    public List<Appointment> getAllAppointments() {
-        return appointmentRepository.findAll();
+    public List<AppointmentDTO> getAllAppointments() {
+        return appointmentRepository.findAllViews();
     }
 
-    public List<Appointment> getRecentAppointments(Long doctorId) {
-        return appointmentRepository.findTop3ByPatientIdOrderByDateDesc(doctorId);
+    // The doctor's three latest appointments
+    public List<AppointmentDTO> getRecentAppointments(Long doctorId) {
+        return appointmentRepository.findRecentViewsByDoctor(doctorId, Limit.of(3));
     }
 
-    public List<Appointment> getAllRecentAppointments() {
-        return appointmentRepository.findTop3ByOrderByDateDesc();
+    public List<AppointmentDTO> getAllRecentAppointments() {
+        return appointmentRepository.findRecentViews(Limit.of(3));
     }
 
     @Transactional
@@ -96,50 +140,101 @@ public class AppointmentService {
         Appointment appointment = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
         appointmentRepository.delete(appointment);
+        appointmentCounters.statusChanged(appointment.getDoctor().getId(), appointment.getStatus(), null);
+        appointmentEvents.cancelled(appointment);
     }
 
     @Transactional
-    public Appointment updateAppointmentStatus(Long appointmentId, String newStatus) {
+    public AppointmentDTO updateAppointmentStatus(Long appointmentId, String newStatus) {
         // Verify status is valid
         if (!List.of("pending", "accepted", "rejected").contains(newStatus)) {
             throw new IllegalArgumentException("Invalid appointment status: " + newStatus);
         }
 
         // Find the appointment
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = appointmentRepository.findWithPartiesById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + appointmentId));
 
+        // A rejected appointment gave up its slot; it can only come back if nobody took it since
+        String oldStatus = appointment.getStatus();
+        if ("rejected".equals(oldStatus) && !"rejected".equals(newStatus)
+                && appointmentRepository.existsByDoctorIdAndDateAndTimeAndStatusNot(
+                appointment.getDoctor().getId(), appointment.getDate(), appointment.getTime(), "rejected")) {
+            throw new IllegalStateException("This slot has been booked by another patient");
+        }
+
         // Update the status
         appointment.setStatus(newStatus);
 
         // Save and return the updated appointment
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        appointmentCounters.statusChanged(saved.getDoctor().getId(), oldStatus, newStatus);
+        if (!newStatus.equals(oldStatus)) {
+            appointmentEvents.statusChanged(saved, oldStatus);
+        }
+        return AppointmentDTO.from(saved);
     }
 
     /**
-     * Get appointments for a specific doctor by doctorId
+     * One page of a doctor's appointments in (date, time, id) order, starting after
+     * {@code cursor} (null for the first page). The total is only counted when asked for.
      */
-    public Page<Appointment> getDoctorAppointments(Long doctorId, Pageable pageable) {
+    public AppointmentPageDTO getDoctorAppointmentPage(Long doctorId, String cursor, Integer size, boolean includeTotal) {
         if (doctorId == null) {
             throw new IllegalArgumentException("Doctor ID is required");
         }
-        // Return all appointments for the doctor, including rejected ones
-        return appointmentRepository.findByDoctorId(doctorId, pageable);
+        int pageSize = pageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<AppointmentDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = appointmentRepository.findDoctorPage(doctorId, limit);
+        } else {
+            AppointmentCursor after = AppointmentCursor.decode(cursor);
+            rows = appointmentRepository.findDoctorPageAfter(doctorId, after.date(), after.time(), after.id(), limit);
+        }
+        // The counter table already holds the doctor's totals, so this is not a COUNT(*)
+        Long total = null;
+        if (includeTotal) {
+            AppointmentStatusCountsDTO counts = appointmentCounters.getDoctorCounts(doctorId);
+            total = counts.getPending() + counts.getAccepted() + counts.getRejected() + counts.getCancelled();
+        }
+        return toPage(rows, pageSize, total);
     }
 
-    // Deprecated: use the Pageable version above
-    @Deprecated
-    public Page<Appointment> getDoctorAppointments(Long doctorId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("date").ascending());
-        return getDoctorAppointments(doctorId, pageable);
+    /**
+     * One page of a patient's appointments in (date, time, id) order, see
+     * {@link #getDoctorAppointmentPage}.
+     */
+    public AppointmentPageDTO getPatientAppointmentPage(Long patientId, String cursor, Integer size, boolean includeTotal) {
+        if (patientId == null) {
+            throw new IllegalStateException("Patient ID is required");
+        }
+        int pageSize = pageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<AppointmentDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = appointmentRepository.findPatientPage(patientId, limit);
+        } else {
+            AppointmentCursor after = AppointmentCursor.decode(cursor);
+            rows = appointmentRepository.findPatientPageAfter(patientId, after.date(), after.time(), after.id(), limit);
+        }
+        Long total = includeTotal ? appointmentRepository.countByPatientId(patientId) : null;
+        return toPage(rows, pageSize, total);
     }
 
-    public List<Appointment> getPatientAppointments(Long patientID) {
-        if (patientID == null) {
-            throw new IllegalStateException("Patient ID is required");
+    private int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultPageSize;
         }
+        return Math.min(requested, maxPageSize);
+    }
 
-        return appointmentRepository.findByPatientId(patientID);
+    // Rows were fetched with one extra element to learn whether another page exists
+    private static AppointmentPageDTO toPage(List<AppointmentDTO> rows, int pageSize, Long total) {
+        boolean last = rows.size() <= pageSize;
+        List<AppointmentDTO> content = last ? rows : rows.subList(0, pageSize);
+        String nextCursor = last ? null : AppointmentCursor.after(content.get(content.size() - 1)).encode();
+        return new AppointmentPageDTO(new ArrayList<>(content), nextCursor, pageSize, last, total);
     }
 
     public Optional<Appointment> getAllAppointment(Long appointmentId) {
@@ -153,13 +248,8 @@ public class AppointmentService {
     /**
      * Get appointment counts by status for a specific doctor
      */
-    public Map<String, Long> getDoctorAppointmentCounts(Long doctorId) {
-        Map<String, Long> counts = new HashMap<>();
-        counts.put("pending", appointmentRepository.countByDoctorIdAndStatus(doctorId, "pending"));
-        counts.put("accepted", appointmentRepository.countByDoctorIdAndStatus(doctorId, "accepted"));
-        counts.put("rejected", appointmentRepository.countByDoctorIdAndStatus(doctorId, "rejected"));
-        counts.put("cancelled", appointmentRepository.countByDoctorIdAndStatus(doctorId, "cancelled"));
-        return counts;
+    public AppointmentStatusCountsDTO getDoctorAppointmentCounts(Long doctorId) {
+        return appointmentCounters.getDoctorCounts(doctorId);
     }
 
     /**
@@ -172,7 +262,56 @@ public class AppointmentService {
     /**
      * Get appointments by status for a specific doctor
      */
-    public List<Appointment> getDoctorAppointmentsByStatus(Long doctorId, String status) {
-        return appointmentRepository.findByDoctorIdAndStatus(doctorId, status);
+    public List<AppointmentDTO> getDoctorAppointmentsByStatus(Long doctorId, String status) {
+        return appointmentRepository.findViewsByDoctorAndStatus(doctorId, status);
+    }
+
+    public long countAppointments() {
+        return appointmentRepository.count();
+    }
+
+    /**
+     * Get appointment counts by status across all doctors
+     */
+    public AppointmentStatusCountsDTO getAppointmentStatusCounts() {
+        return appointmentCounters.getGlobalCounts();
+    }
+
+    /**
+     * Get appointment counts per day, week or month between two dates (inclusive).
+     * Missing bounds default to the earliest and latest appointment dates.
+     * Weeks start on Monday and months on the 1st; each bucket is labelled by its first day.
+     */
+    public List<AppointmentCountDTO> getAppointmentsOverTime(LocalDate from, LocalDate to, String bucket) {
+        String size = bucket == null ? "day" : bucket.toLowerCase();
+        if (!List.of("day", "week", "month").contains(size)) {
+            throw new IllegalArgumentException("Invalid bucket: " + bucket);
+        }
+        LocalDate start = from != null ? from : appointmentRepository.findEarliestDate();
+        LocalDate end = to != null ? to : appointmentRepository.findLatestDate();
+        if (start == null || end == null || start.isAfter(end)) {
+            return List.of();
+        }
+
+        // The database groups by day; rolling days up into weeks or months here keeps the
+        // query portable and touches at most one row per day in the range
+        List<AppointmentCountDTO> days = appointmentRepository.countGroupByDate(start, end);
+        if ("day".equals(size)) {
+            return days;
+        }
+        List<AppointmentCountDTO> result = new ArrayList<>();
+        AppointmentCountDTO current = null;
+        for (AppointmentCountDTO day : days) {
+            LocalDate date = LocalDate.parse(day.getDate());
+            String label = ("week".equals(size)
+                    ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    : date.withDayOfMonth(1)).toString();
+            if (current == null || !current.getDate().equals(label)) {
+                current = new AppointmentCountDTO(label, 0);
+                result.add(current);
+            }
+            current.setCount(current.getCount() + day.getCount());
+        }
+        return result;
     }
 }
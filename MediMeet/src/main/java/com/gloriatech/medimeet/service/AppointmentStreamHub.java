@@ -0,0 +1,296 @@
+package com.gloriatech.medimeet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gloriatech.medimeet.dto.AppointmentEventDTO;
+import com.gloriatech.medimeet.repository.AppointmentEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Event connections of logged-in users on this node. Each appointment
+ * event goes to the connections of its doctor and its patient.
+ * <p>
+ * Publishing never touches a socket: events are serialized once, offered to each
+ * connection's bounded queue and written by a small sender pool, so idle
+ * connections cost no thread. A connection whose queue overflows is closed; the
+ * client reconnects with {@code Last-Event-ID} and the missed events are replayed
+ * from the outbox table. Heartbeats keep proxies from dropping quiet connections
+ * and reveal dead ones.
+ */
+@Component
+public class AppointmentStreamHub {
+
+    private static final Message HEARTBEAT = new Message(null, null, null);
+
+    private final AppointmentEventRepository eventRepository;
+    private final ObjectMapper objectMapper;
+
+    private final long timeoutMs;
+    private final int maxConnections;
+    private final int queueCapacity;
+    private final int replayLimit;
+
+    private final ConcurrentHashMap<Long, Set<Connection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final ExecutorService senders;
+
+    @Autowired
+    public AppointmentStreamHub(AppointmentEventRepository eventRepository,
+                                MappingJackson2HttpMessageConverter jsonConverter,
+                                @Value("${appointment-stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${appointment-stream.max-connections:10000}") int maxConnections,
+                                @Value("${appointment-stream.queue-capacity:64}") int queueCapacity,
+                                @Value("${appointment-stream.replay-limit:500}") int replayLimit,
+                                @Value("${appointment-stream.sender-threads:2}") int senderThreads) {
+        this.eventRepository = eventRepository;
+        // The REST responses' mapper, so dates and times look the same on the stream
+        this.objectMapper = jsonConverter.getObjectMapper();
+        this.timeoutMs = timeoutMs;
+        this.maxConnections = maxConnections;
+        this.queueCapacity = queueCapacity;
+        this.replayLimit = replayLimit;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, task -> {
+            Thread thread = new Thread(task, "appointment-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a stream of the user's appointment events. With {@code lastEventId} the
+     * events after it are replayed first; if more were missed than can be replayed,
+     * a single {@code reset} event tells the client to reload instead.
+     *
+     * @throws IllegalStateException if this node already holds the maximum number of streams
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            throw new IllegalStateException("Too many open event streams");
+        }
+        Connection connection = new Connection(userId, new SseEmitter(timeoutMs), lastEventId != null);
+        connection.emitter.onCompletion(() -> remove(connection));
+        connection.emitter.onTimeout(() -> remove(connection));
+        connection.emitter.onError(e -> remove(connection));
+
+        // Registered before the replay query so nothing committed in between is lost;
+        // live events wait until the replay has been queued and duplicates are skipped
+        connectionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        try {
+            // Commits the response headers so the client knows it is connected
+            connection.emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            remove(connection);
+            return connection.emitter;
+        }
+        if (lastEventId != null) {
+            replay(connection, lastEventId);
+        }
+        return connection.emitter;
+    }
+
+    public void publish(AppointmentEventDTO event) {
+        Message message = message(event);
+        deliver(event.getDoctorId(), message);
+        if (!event.getPatientId().equals(event.getDoctorId())) {
+            deliver(event.getPatientId(), message);
+        }
+    }
+
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    @Scheduled(fixedRateString = "${appointment-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Connection> connections : connectionsByUser.values()) {
+            for (Connection connection : connections) {
+                // Anything already queued doubles as a heartbeat
+                if (connection.isIdle()) {
+                    offer(connection, HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private void replay(Connection connection, long lastEventId) {
+        List<Message> missed = new ArrayList<>();
+        boolean truncated = false;
+        try {
+            List<AppointmentEventDTO> events = eventRepository
+                    .findForUserAfter(connection.userId, lastEventId, Limit.of(replayLimit + 1)).stream()
+                    .map(AppointmentEventDTO::from)
+                    .toList();
+            truncated = events.size() > replayLimit;
+            if (!truncated) {
+                events.forEach(event -> missed.add(message(event)));
+            }
+        } catch (RuntimeException e) {
+            truncated = true;
+        }
+        connection.finishReplay(truncated
+                ? List.of(new Message(null, "reset", "{\"type\":\"reset\"}"))
+                : missed, truncated);
+        schedule(connection);
+    }
+
+    private void deliver(Long userId, Message message) {
+        Set<Connection> connections = connectionsByUser.get(userId);
+        if (connections != null) {
+            for (Connection connection : connections) {
+                offer(connection, message);
+            }
+        }
+    }
+
+    private void offer(Connection connection, Message message) {
+        if (!connection.offer(message, queueCapacity)) {
+            // Too slow to keep up: drop it and let the client resume from its last event id
+            remove(connection);
+            connection.emitter.complete();
+        } else {
+            schedule(connection);
+        }
+    }
+
+    private void schedule(Connection connection) {
+        if (connection.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> send(connection));
+            } catch (RuntimeException e) {
+                connection.sending.set(false);
+            }
+        }
+    }
+
+    // Runs on a sender thread; at most one per connection, so events keep their order
+    private void send(Connection connection) {
+        try {
+            Message message;
+            while ((message = connection.poll()) != null) {
+                if (message == HEARTBEAT) {
+                    connection.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    SseEmitter.SseEventBuilder event = SseEmitter.event();
+                    if (message.id() != null) {
+                        event.id(message.id());
+                    }
+                    connection.emitter.send(event.name(message.name()).data(message.data()));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container completes the emitter
+            remove(connection);
+            return;
+        } finally {
+            connection.sending.set(false);
+        }
+        // An event offered after the last poll but before the flag was cleared
+        if (connection.hasSendable()) {
+            schedule(connection);
+        }
+    }
+
+    private Message message(AppointmentEventDTO event) {
+        try {
+            return new Message(String.valueOf(event.getEventId()), event.getType(),
+                    objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize appointment event " + event.getEventId(), e);
+        }
+    }
+
+    private void remove(Connection connection) {
+        if (connection.removed.compareAndSet(false, true)) {
+            connectionCount.decrementAndGet();
+            connectionsByUser.computeIfPresent(connection.userId, (id, connections) -> {
+                connections.remove(connection);
+                return connections.isEmpty() ? null : connections;
+            });
+        }
+    }
+
+    // Serialized once per event and shared by every connection it goes to
+    private record Message(String id, String name, String data) {
+    }
+
+    private static final class Connection {
+        final Long userId;
+        final SseEmitter emitter;
+        final AtomicBoolean sending = new AtomicBoolean();
+        final AtomicBoolean removed = new AtomicBoolean();
+        // Guarded by this connection's monitor
+        private final ArrayDeque<Message> queue = new ArrayDeque<>();
+        private boolean replaying;
+
+        Connection(Long userId, SseEmitter emitter, boolean replaying) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.replaying = replaying;
+        }
+
+        // The capacity bounds live events only; a replay may queue more
+        synchronized boolean offer(Message message, int capacity) {
+            if (queue.size() >= capacity) {
+                return false;
+            }
+            queue.add(message);
+            return true;
+        }
+
+        // Nothing is sent while the replay is pending, so replayed events go first
+        synchronized Message poll() {
+            return replaying ? null : queue.poll();
+        }
+
+        synchronized boolean isIdle() {
+            return queue.isEmpty();
+        }
+
+        synchronized boolean hasSendable() {
+            return !replaying && !queue.isEmpty();
+        }
+
+        // Puts the replayed events ahead of live ones queued meanwhile, skipping live
+        // events the replay already contains; a reset replaces everything
+        synchronized void finishReplay(List<Message> replayed, boolean reset) {
+            long replayedUpTo = replayed.isEmpty() || reset ? Long.MIN_VALUE
+                    : Long.parseLong(replayed.get(replayed.size() - 1).id());
+            ArrayDeque<Message> live = new ArrayDeque<>(queue);
+            queue.clear();
+            queue.addAll(replayed);
+            if (!reset) {
+                for (Message message : live) {
+                    if (message.id() == null || Long.parseLong(message.id()) > replayedUpTo) {
+                        queue.add(message);
+                    }
+                }
+            }
+            replaying = false;
+        }
+    }
+}
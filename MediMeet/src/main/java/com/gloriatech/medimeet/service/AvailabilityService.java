@@ -0,0 +1,112 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.dto.AvailabilityDTO;
+import com.gloriatech.medimeet.model.DoctorAvailability;
+import com.gloriatech.medimeet.repository.AppointmentRepository;
+import com.gloriatech.medimeet.repository.DoctorAvailabilityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Doctors' weekly availability templates and the bookable slots they produce.
+ * A doctor without any template keeps the old behaviour and accepts any time.
+ */
+@Service
+public class AvailabilityService {
+
+    private final DoctorAvailabilityRepository availabilityRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    @Autowired
+    public AvailabilityService(DoctorAvailabilityRepository availabilityRepository,
+                               AppointmentRepository appointmentRepository) {
+        this.availabilityRepository = availabilityRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    public List<AvailabilityDTO> getTemplates(Long doctorId) {
+        List<AvailabilityDTO> result = new ArrayList<>();
+        for (DoctorAvailability window : availabilityRepository.findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(doctorId)) {
+            result.add(new AvailabilityDTO(window.getDayOfWeek().name(), window.getStartTime().toString(),
+                    window.getEndTime().toString(), window.getSlotMinutes()));
+        }
+        return result;
+    }
+
+    /**
+     * Replaces all of the doctor's windows. Existing appointments are kept even if
+     * they no longer fall inside a window.
+     */
+    @Transactional
+    public List<AvailabilityDTO> replaceTemplates(Long doctorId, List<AvailabilityDTO> windows) {
+        List<DoctorAvailability> parsed = new ArrayList<>();
+        for (AvailabilityDTO window : windows) {
+            parsed.add(parse(doctorId, window));
+        }
+        availabilityRepository.deleteByDoctorId(doctorId);
+        availabilityRepository.flush();
+        availabilityRepository.saveAll(parsed);
+        return getTemplates(doctorId);
+    }
+
+    /**
+     * True when the time starts a slot in one of the doctor's windows for that weekday,
+     * or when the doctor has not published any availability.
+     */
+    public boolean isBookable(Long doctorId, LocalDate date, LocalTime time) {
+        List<DoctorAvailability> windows =
+                availabilityRepository.findByDoctorIdAndDayOfWeekOrderByStartTimeAsc(doctorId, date.getDayOfWeek());
+        if (windows.isEmpty()) {
+            return !availabilityRepository.existsByDoctorId(doctorId);
+        }
+        for (DoctorAvailability window : windows) {
+            if (window.offersSlotAt(time)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Slots from the doctor's windows on that date that are not held by an appointment.
+     */
+    public List<LocalTime> getFreeSlots(Long doctorId, LocalDate date) {
+        Set<LocalTime> taken = new HashSet<>(appointmentRepository.findHeldSlotTimes(doctorId, date));
+        TreeSet<LocalTime> free = new TreeSet<>();
+        for (DoctorAvailability window :
+                availabilityRepository.findByDoctorIdAndDayOfWeekOrderByStartTimeAsc(doctorId, date.getDayOfWeek())) {
+            for (LocalTime slot = window.getStartTime(); window.offersSlotAt(slot); slot = slot.plusMinutes(window.getSlotMinutes())) {
+                if (!taken.contains(slot)) {
+                    free.add(slot);
+                }
+            }
+        }
+        return new ArrayList<>(free);
+    }
+
+    private static DoctorAvailability parse(Long doctorId, AvailabilityDTO window) {
+        if (window.getDayOfWeek() == null || window.getStartTime() == null || window.getEndTime() == null) {
+            throw new IllegalArgumentException("dayOfWeek, startTime and endTime are required");
+        }
+        DayOfWeek day = DayOfWeek.valueOf(window.getDayOfWeek().trim().toUpperCase(Locale.ROOT));
+        LocalTime start = LocalTime.parse(window.getStartTime());
+        LocalTime end = LocalTime.parse(window.getEndTime());
+        int slotMinutes = window.getSlotMinutes() > 0 ? window.getSlotMinutes() : 30;
+        if (!start.isBefore(end) || start.plusMinutes(slotMinutes).isAfter(end)) {
+            throw new IllegalArgumentException("Availability window " + start + "-" + end
+                    + " must hold at least one " + slotMinutes + " minute slot");
+        }
+        return new DoctorAvailability(doctorId, day, start, end, slotMinutes);
+    }
+}
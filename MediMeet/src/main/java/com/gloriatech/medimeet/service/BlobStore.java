@@ -0,0 +1,89 @@
+package com.gloriatech.medimeet.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Where uploaded files live. Uploads are content-addressed: their key is the
+ * hex SHA-256 of the content plus an extension, so identical uploads are stored
+ * once and a key never changes meaning, whichever node wrote it. Files derived
+ * from an upload (scaled variants) are stored under {@code <kind>/<key>}.
+ * <p>
+ * The local file system store is the default; {@code images.store=s3} selects
+ * an S3-compatible one so that several nodes can share the same images.
+ */
+public interface BlobStore {
+
+    // <64 hex digits>.<extension>
+    Pattern CONTENT_KEY = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]+");
+
+    /**
+     * Stores the file's content under its content key and returns that key. If
+     * the content is already stored, it is kept (and marked as recently written)
+     * instead. The file is moved or deleted either way.
+     */
+    String put(Path file, String extension) throws IOException;
+
+    /**
+     * Stores the file under the given key, replacing any blob there. Used for
+     * files derived from a content-addressed one. The file is moved or deleted.
+     */
+    void put(String key, Path file) throws IOException;
+
+    Optional<Blob> find(String key) throws IOException;
+
+    /**
+     * Opens the blob for reading from {@code offset} to its end.
+     *
+     * @throws java.nio.file.NoSuchFileException if there is no such blob
+     */
+    InputStream open(String key, long offset) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Lists the content-addressed blobs; derived blobs and files under other
+     * names are not included.
+     */
+    void list(Consumer<Blob> action) throws IOException;
+
+    /**
+     * An empty scratch file for content about to be put, placed so that put can
+     * move it rather than copy it where possible. The caller deletes it if it is
+     * not put.
+     */
+    Path createTempFile(String prefix) throws IOException;
+
+    /**
+     * The content key of a file: the hex SHA-256 of its content plus the extension.
+     */
+    static String contentKey(Path file, String extension) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest()) + "." + extension;
+    }
+
+    /**
+     * A stored blob. {@code path} is its file when the store is on the local file
+     * system, so it can be sent without going through the heap; null otherwise.
+     */
+    record Blob(String key, long size, long lastModified, Path path) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.gloriatech.medimeet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A response body serialized once, together with the strong ETag identifying it.
+ * The body array is shared between requests and must not be modified.
+ */
+public record CachedJson(String etag, byte[] body) {
+
+    public static CachedJson render(ObjectMapper objectMapper, Object value, String etag) {
+        try {
+            return new CachedJson(etag, objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cached response", e);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.gloriatech.medimeet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gloriatech.medimeet.dto.AppointDTO;
+import com.gloriatech.medimeet.dto.DoctorDTO;
+import com.gloriatech.medimeet.dto.DoctorSearchResultDTO;
+import com.gloriatech.medimeet.dto.HomeDTO;
+import com.gloriatech.medimeet.dto.SpecializationCountDTO;
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.repository.DoctorRepository;
+import com.gloriatech.medimeet.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * In-memory read model of all doctors backing the public listing endpoints.
+ * Readers get an immutable snapshot without touching the database; doctor
+ * writes copy the snapshot, apply the change and swap it in after commit.
+ * A periodic full reload reconciles changes made by other nodes.
+ * Each snapshot carries a {@link DoctorSearchIndex} for specialisation and name
+ * lookups, maintained incrementally alongside the entries.
+ * Each snapshot also caches its listings as serialized JSON with a strong ETag
+ * derived from the snapshot version, so unchanged listings are rendered once.
+ */
+@Service
+public class DoctorDirectory {
+
+    private final DoctorRepository doctorRepository;
+    private final ObjectMapper objectMapper;
+
+    // Distinguishes this node's version numbers from another node's (or a previous run's)
+    private final String etagPrefix = Long.toString(System.currentTimeMillis(), 36);
+
+    // A lock rather than a monitor: loading runs a query while holding it, which would
+    // pin a virtual thread to its carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public DoctorDirectory(DoctorRepository doctorRepository, ObjectMapper objectMapper) {
+        this.doctorRepository = doctorRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public List<DoctorDTO> getAllDoctors() {
+        return current().doctors();
+    }
+
+    public List<HomeDTO> getHomeDoctors() {
+        return current().homeDoctors();
+    }
+
+    public List<AppointDTO> getAppointDoctors() {
+        return current().appointDoctors();
+    }
+
+    public CachedJson getAllDoctorsJson() {
+        return rendered("doctors", Snapshot::doctors);
+    }
+
+    public CachedJson getHomeDoctorsJson() {
+        return rendered("home", Snapshot::homeDoctors);
+    }
+
+    public CachedJson getAppointDoctorsJson() {
+        return rendered("appoint", Snapshot::appointDoctors);
+    }
+
+    public CachedJson getSpecializationsJson() {
+        return rendered("specialisations", Snapshot::specializations);
+    }
+
+    public List<SpecializationCountDTO> getSpecializations() {
+        return current().specializations();
+    }
+
+    // Case-insensitive exact match on the specialisation
+    public List<DoctorDTO> getDoctorsBySpecialization(String specialization) {
+        Snapshot current = current();
+        return toDoctorDTOs(current, current.index().bySpecialisation(specialization));
+    }
+
+    /**
+     * Multi-term prefix search over doctor names and specialisations, ordered by id.
+     * A blank query lists every doctor.
+     */
+    public DoctorSearchResultDTO search(String query, int page, int size) {
+        Snapshot current = current();
+        List<Long> ids = query == null || query.isBlank()
+                ? List.copyOf(current.byId().keySet())
+                : List.copyOf(current.index().search(query));
+        int from = (int) Math.min((long) page * size, ids.size());
+        int to = (int) Math.min((long) from + size, ids.size());
+        List<DoctorDTO> content = toDoctorDTOs(current, ids.subList(from, to));
+        return new DoctorSearchResultDTO(content, page, size, ids.size(), to >= ids.size());
+    }
+
+    public Optional<DoctorDTO> getDoctor(long doctorId) {
+        return Optional.ofNullable(current().byId().get(doctorId)).map(Entry::toDoctorDTO);
+    }
+
+    /**
+     * Records the saved state of a doctor once the current transaction commits.
+     */
+    public void doctorSaved(Doctor doctor) {
+        Entry entry = Entry.of(doctor);
+        AfterCommit.run(() -> apply(entry.id(), entry));
+    }
+
+    public void doctorDeleted(long doctorId) {
+        AfterCommit.run(() -> apply(doctorId, null));
+    }
+
+    @Scheduled(fixedDelayString = "${doctor-directory.refresh-ms:300000}",
+            initialDelayString = "${doctor-directory.refresh-ms:300000}")
+    public void refresh() {
+        writeLock.lock();
+        try {
+            Snapshot loaded = load();
+            // Keep the current version (and its ETags) when nothing changed
+            if (snapshot == null || !snapshot.byId().equals(loaded.byId())) {
+                snapshot = loaded;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            writeLock.lock();
+            try {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+                current = snapshot;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private CachedJson rendered(String view, Function<Snapshot, List<?>> listing) {
+        Snapshot current = current();
+        return current.rendered().computeIfAbsent(view, key -> CachedJson.render(
+                objectMapper, listing.apply(current), "\"" + etagPrefix + "-" + current.version() + "-" + key + "\""));
+    }
+
+    private static List<DoctorDTO> toDoctorDTOs(Snapshot snapshot, Iterable<Long> ids) {
+        List<DoctorDTO> result = new ArrayList<>();
+        for (Long id : ids) {
+            Entry entry = snapshot.byId().get(id);
+            if (entry != null) {
+                result.add(entry.toDoctorDTO());
+            }
+        }
+        return result;
+    }
+
+    // Copy-on-write: readers keep using the old snapshot until the new one is published
+    private void apply(long doctorId, Entry entry) {
+        writeLock.lock();
+        try {
+            if (snapshot == null) {
+                // Nothing loaded yet; the first read will load the committed state
+                return;
+            }
+            TreeMap<Long, Entry> byId = new TreeMap<>(snapshot.byId());
+            Entry previous = entry == null ? byId.remove(doctorId) : byId.put(doctorId, entry);
+            if (previous == null && entry == null) {
+                return;
+            }
+            DoctorSearchIndex index = snapshot.index().with(previous, entry);
+            snapshot = Snapshot.of(byId, index, versions.incrementAndGet());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Snapshot load() {
+        TreeMap<Long, Entry> byId = new TreeMap<>();
+        for (Doctor doctor : doctorRepository.findAllDoctors()) {
+            Entry entry = Entry.of(doctor);
+            byId.put(entry.id(), entry);
+        }
+        return Snapshot.of(byId, DoctorSearchIndex.build(byId.values()), versions.incrementAndGet());
+    }
+
+    record Snapshot(SortedMap<Long, Entry> byId, DoctorSearchIndex index, long version,
+                    List<DoctorDTO> doctors, List<HomeDTO> homeDoctors, List<AppointDTO> appointDoctors,
+                    List<SpecializationCountDTO> specializations,
+                    ConcurrentHashMap<String, CachedJson> rendered) {
+
+        static Snapshot of(TreeMap<Long, Entry> byId, DoctorSearchIndex index, long version) {
+            return new Snapshot(
+                    Collections.unmodifiableSortedMap(byId),
+                    index,
+                    version,
+                    byId.values().stream().map(Entry::toListingDTO).toList(),
+                    byId.values().stream().map(Entry::toHomeDTO).toList(),
+                    byId.values().stream().map(Entry::toAppointDTO).toList(),
+                    index.specialisations().stream()
+                            .map(s -> new SpecializationCountDTO(s.displayName(), s.doctorIds().size()))
+                            .toList(),
+                    new ConcurrentHashMap<>()
+            );
+        }
+    }
+
+    // Immutable copy of the doctor columns the listings need
+    record Entry(long id, String name, String email, String phone, String specialisation,
+                 String imageUrl, String about, String experience) {
+
+        static Entry of(Doctor doc) {
+            return new Entry(doc.getId(), doc.getName(), doc.getEmail(), doc.getPhone(),
+                    doc.getSpecialisation(), doc.getImageUrl(), doc.getAbout(), doc.getExperience());
+        }
+
+        DoctorDTO toListingDTO() {
+            return new DoctorDTO(id, name, email, phone, specialisation);
+        }
+
+        DoctorDTO toDoctorDTO() {
+            return new DoctorDTO(id, name, email, phone, specialisation, imageUrl, about, experience);
+        }
+
+        HomeDTO toHomeDTO() {
+            return new HomeDTO(id, name, specialisation, imageUrl,
+                    ImageStore.variantUrl(imageUrl, ImageStore.Variant.CARD));
+        }
+
+        AppointDTO toAppointDTO() {
+            return new AppointDTO(id, name, specialisation, imageUrl, about, experience);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.gloriatech.medimeet.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable inverted index over the doctor directory: normalized specialisation
+ * to doctor ids, and name/specialisation tokens to doctor ids. Updates return a
+ * new index that shares every posting list the change did not touch.
+ */
+final class DoctorSearchIndex {
+
+    // Sorted so a prefix maps to a contiguous key range
+    private final NavigableMap<String, SortedSet<Long>> tokens;
+    private final NavigableMap<String, Specialisation> specialisations;
+
+    record Specialisation(String displayName, SortedSet<Long> doctorIds) {
+    }
+
+    private DoctorSearchIndex(NavigableMap<String, SortedSet<Long>> tokens,
+                              NavigableMap<String, Specialisation> specialisations) {
+        this.tokens = tokens;
+        this.specialisations = specialisations;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String token : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns an index reflecting the doctor going from {@code before} to {@code after};
+     * either side may be null for an insert or a delete.
+     */
+    DoctorSearchIndex with(DoctorDirectory.Entry before, DoctorDirectory.Entry after) {
+        long id = before != null ? before.id() : after.id();
+        Set<String> oldTokens = before == null ? Set.of() : tokensOf(before);
+        Set<String> newTokens = after == null ? Set.of() : tokensOf(after);
+
+        TreeMap<String, SortedSet<Long>> nextTokens = new TreeMap<>(tokens);
+        for (String token : oldTokens) {
+            if (!newTokens.contains(token)) {
+                removePosting(nextTokens, token, id);
+            }
+        }
+        for (String token : newTokens) {
+            if (!oldTokens.contains(token)) {
+                addPosting(nextTokens, token, id);
+            }
+        }
+
+        String oldKey = before == null ? "" : normalize(before.specialisation());
+        String newKey = after == null ? "" : normalize(after.specialisation());
+        NavigableMap<String, Specialisation> nextSpecialisations = specialisations;
+        if (!oldKey.equals(newKey)) {
+            TreeMap<String, Specialisation> copy = new TreeMap<>(specialisations);
+            if (!oldKey.isEmpty()) {
+                Specialisation current = copy.get(oldKey);
+                if (current != null) {
+                    SortedSet<Long> ids = new TreeSet<>(current.doctorIds());
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        copy.remove(oldKey);
+                    } else {
+                        copy.put(oldKey, new Specialisation(current.displayName(), Collections.unmodifiableSortedSet(ids)));
+                    }
+                }
+            }
+            if (!newKey.isEmpty()) {
+                Specialisation current = copy.get(newKey);
+                SortedSet<Long> ids = current == null ? new TreeSet<>() : new TreeSet<>(current.doctorIds());
+                ids.add(id);
+                String displayName = current == null ? after.specialisation().trim() : current.displayName();
+                copy.put(newKey, new Specialisation(displayName, Collections.unmodifiableSortedSet(ids)));
+            }
+            nextSpecialisations = copy;
+        }
+        return new DoctorSearchIndex(nextTokens, nextSpecialisations);
+    }
+
+    static DoctorSearchIndex build(Iterable<DoctorDirectory.Entry> entries) {
+        TreeMap<String, SortedSet<Long>> tokens = new TreeMap<>();
+        TreeMap<String, Specialisation> specialisations = new TreeMap<>();
+        for (DoctorDirectory.Entry entry : entries) {
+            for (String token : tokensOf(entry)) {
+                tokens.computeIfAbsent(token, key -> new TreeSet<>()).add(entry.id());
+            }
+            String key = normalize(entry.specialisation());
+            if (!key.isEmpty()) {
+                specialisations.computeIfAbsent(key, k -> new Specialisation(entry.specialisation().trim(), new TreeSet<>()))
+                        .doctorIds().add(entry.id());
+            }
+        }
+        tokens.replaceAll((token, ids) -> Collections.unmodifiableSortedSet(ids));
+        specialisations.replaceAll((key, specialisation) -> new Specialisation(
+                specialisation.displayName(), Collections.unmodifiableSortedSet(specialisation.doctorIds())));
+        return new DoctorSearchIndex(tokens, specialisations);
+    }
+
+    // Case-insensitive exact specialisation match
+    SortedSet<Long> bySpecialisation(String specialisation) {
+        Specialisation match = specialisations.get(normalize(specialisation));
+        return match == null ? Collections.emptySortedSet() : match.doctorIds();
+    }
+
+    /**
+     * Doctors matching every query term, where a term matches any name or
+     * specialisation token it is a prefix of. A blank query matches nothing here;
+     * callers decide what an empty search means.
+     */
+    SortedSet<Long> search(String query) {
+        SortedSet<Long> result = null;
+        for (String term : tokenize(query)) {
+            SortedSet<Long> matches = new TreeSet<>();
+            for (SortedSet<Long> posting : tokens.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                matches.addAll(posting);
+            }
+            if (result == null) {
+                result = matches;
+            } else {
+                result.retainAll(matches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result == null ? Collections.emptySortedSet() : result;
+    }
+
+    List<Specialisation> specialisations() {
+        return new ArrayList<>(specialisations.values());
+    }
+
+    private static Set<String> tokensOf(DoctorDirectory.Entry entry) {
+        Set<String> result = tokenize(entry.name());
+        result.addAll(tokenize(entry.specialisation()));
+        return result;
+    }
+
+    private static void addPosting(TreeMap<String, SortedSet<Long>> index, String token, long id) {
+        SortedSet<Long> current = index.get(token);
+        SortedSet<Long> ids = current == null ? new TreeSet<>() : new TreeSet<>(current);
+        ids.add(id);
+        index.put(token, Collections.unmodifiableSortedSet(ids));
+    }
+
+    private static void removePosting(TreeMap<String, SortedSet<Long>> index, String token, long id) {
+        SortedSet<Long> current = index.get(token);
+        if (current == null) {
+            return;
+        }
+        SortedSet<Long> ids = new TreeSet<>(current);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            index.remove(token);
+        } else {
+            index.put(token, Collections.unmodifiableSortedSet(ids));
+        }
+    }
+}
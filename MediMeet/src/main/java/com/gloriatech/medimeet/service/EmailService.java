@@ -1,29 +1,43 @@
 package com.gloriatech.medimeet.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final MailOutbox mailOutbox;
 
     @Autowired
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(MailOutbox mailOutbox) {
+        this.mailOutbox = mailOutbox;
     }
 
-    public void sendPasswordResetEmail(String to, String resetCode) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject("Password Reset Code - MediMeet");
-        message.setText("Your password reset code is: " + resetCode + "\n\n" +
-                "This code will expire in 10 minutes.\n\n" +
+    // Queued for delivery; returns without waiting for SMTP
+    public void sendPasswordResetEmail(String to, String resetCode, Duration validFor) {
+        mailOutbox.enqueue(to, "Password Reset Code - MediMeet",
+                "Your password reset code is: " + resetCode + "\n\n" +
+                "This code will expire in " + validFor.toMinutes() + " minutes.\n\n" +
                 "If you didn't request this reset, please ignore this email.");
-        
-        mailSender.send(message);
-        System.out.println("Password reset email sent to: " + to);
     }
-} 
\ No newline at end of file
+
+    public void sendAppointmentBookedEmail(String to, LocalDate date, LocalTime time) {
+        mailOutbox.enqueue(to, "New Appointment Request - MediMeet",
+                "A patient has requested an appointment on " + date + " at " + time + ".\n\n" +
+                "Please accept or reject it from your MediMeet dashboard.");
+    }
+
+    public void sendAppointmentStatusEmail(String to, String status, LocalDate date, LocalTime time) {
+        mailOutbox.enqueue(to, "Appointment " + status + " - MediMeet",
+                "Your appointment on " + date + " at " + time + " is now " + status + ".");
+    }
+
+    public void sendAppointmentCancelledEmail(String to, LocalDate date, LocalTime time) {
+        mailOutbox.enqueue(to, "Appointment Cancelled - MediMeet",
+                "The appointment on " + date + " at " + time + " has been cancelled by the patient.");
+    }
+}
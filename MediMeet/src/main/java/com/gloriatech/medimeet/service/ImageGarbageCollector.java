@@ -0,0 +1,120 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.repository.DoctorRepository;
+import com.gloriatech.medimeet.util.AfterCommit;
+import com.gloriatech.medimeet.util.RateLimitedLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Deletes uploaded images no doctor refers to any more. Identical uploads share
+ * one blob, so an image is only deleted once no doctor row has its URL.
+ * <p>
+ * Images released by a doctor update or delete are checked right after the
+ * commit; a periodic sweep over the whole store catches the rest (uploads whose
+ * transaction rolled back, releases lost to a restart). Both leave blobs written
+ * within the grace period alone: such a blob may belong to a doctor whose
+ * transaction has not committed yet, and re-uploading existing content marks
+ * its blob as written again.
+ */
+@Service
+public class ImageGarbageCollector {
+
+    private static final RateLimitedLog log = new RateLimitedLog(ImageGarbageCollector.class);
+
+    private final DoctorRepository doctorRepository;
+    private final ImageStore imageStore;
+    private final BlobStore blobStore;
+    private final TransactionTemplate afterCommitReads;
+    private final long graceMs;
+
+    @Autowired
+    public ImageGarbageCollector(DoctorRepository doctorRepository, ImageStore imageStore, BlobStore blobStore,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${images.gc.grace-ms:3600000}") long graceMs) {
+        this.doctorRepository = doctorRepository;
+        this.imageStore = imageStore;
+        this.blobStore = blobStore;
+        this.graceMs = graceMs;
+        // The committed transaction's resources are still bound after commit; queries need their own
+        this.afterCommitReads = new TransactionTemplate(transactionManager);
+        this.afterCommitReads.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.afterCommitReads.setReadOnly(true);
+    }
+
+    /**
+     * Deletes the image once the caller's transaction commits, unless another
+     * doctor still refers to it. Does nothing for URLs that are not uploads.
+     */
+    public void release(String imageUrl) {
+        Optional<String> filename = ImageStore.filename(imageUrl).filter(ImageStore::isUpload);
+        if (filename.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            try {
+                Boolean referenced = afterCommitReads.execute(status -> doctorRepository.existsByImageUrl(imageUrl));
+                if (Boolean.TRUE.equals(referenced)) {
+                    return;
+                }
+                Optional<BlobStore.Blob> blob = blobStore.find(filename.get());
+                if (blob.isPresent() && isPastGrace(blob.get())) {
+                    imageStore.delete(filename.get());
+                }
+            } catch (IOException | RuntimeException e) {
+                // The next sweep retries
+                log.error("Could not release image", e, "imageUrl", imageUrl);
+            }
+        });
+    }
+
+    /**
+     * Deletes every content-addressed image older than the grace period that no
+     * doctor refers to, and returns how many were deleted.
+     */
+    @Scheduled(fixedDelayString = "${images.gc.interval-ms:86400000}",
+            initialDelayString = "${images.gc.interval-ms:86400000}")
+    public int sweep() throws IOException {
+        // Listed before the references are read, so a blob referenced by then is kept
+        List<BlobStore.Blob> candidates = new ArrayList<>();
+        blobStore.list(blob -> {
+            if (isPastGrace(blob)) {
+                candidates.add(blob);
+            }
+        });
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        Set<String> referenced = new HashSet<>();
+        for (String imageUrl : doctorRepository.findAllImageUrls()) {
+            ImageStore.filename(imageUrl).ifPresent(referenced::add);
+        }
+        int deleted = 0;
+        for (BlobStore.Blob blob : candidates) {
+            if (!referenced.contains(blob.key())) {
+                imageStore.delete(blob.key());
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            log.logger().info("Deleted {} unreferenced images from {}", deleted, blobStore);
+        }
+        return deleted;
+    }
+
+    private boolean isPastGrace(BlobStore.Blob blob) {
+        return blob.lastModified() <= System.currentTimeMillis() - graceMs;
+    }
+}
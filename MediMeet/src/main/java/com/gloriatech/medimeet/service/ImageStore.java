@@ -0,0 +1,389 @@
+package com.gloriatech.medimeet.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gloriatech.medimeet.service.BlobStore.Blob;
+import com.gloriatech.medimeet.service.ImageResizer.Format;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Doctor images: stores uploads with their pre-sized variants in the
+ * {@link BlobStore} and looks them up for serving. Each image's size,
+ * modification time and ETag are fetched once and cached; images small enough
+ * (thumbnails) are kept in memory as well, bounded by total bytes.
+ * <p>
+ * Uploads are content-addressed (older ones have random UUID names) and never
+ * rewritten, so such an image is trusted from the cache without asking the
+ * store. Any other name is checked once per request and re-read when it changed.
+ */
+@Service
+public class ImageStore {
+
+    /**
+     * Pre-sized copies of every upload, each stored as a blob derived from the
+     * original ({@code <directory>/<key>}) in the original's format.
+     */
+    public enum Variant {
+        THUMB("thumb", 128),
+        CARD("card", 480);
+
+        private final String directory;
+        private final int maxSide;
+
+        Variant(String directory, int maxSide) {
+            this.directory = directory;
+            this.maxSide = maxSide;
+        }
+
+        public String directory() {
+            return directory;
+        }
+
+        String key(String filename) {
+            return directory + "/" + filename;
+        }
+
+        public static Optional<Variant> of(String directory) {
+            for (Variant variant : values()) {
+                if (variant.directory.equals(directory)) {
+                    return Optional.of(variant);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    // One path segment of plain characters: no separators, no "..", no hidden files
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+    private static final Pattern UUID_NAME = Pattern.compile(
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\.[A-Za-z0-9]+");
+
+    // Weight of an entry without content, so metadata-only entries also count against the bound
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final BlobStore blobStore;
+    private final long maxUploadBytes;
+    private final long maxPixels;
+    private final int maxCachedFileBytes;
+    private final Cache<String, StoredImage> cache;
+
+    @Autowired
+    public ImageStore(BlobStore blobStore,
+                      @Value("${images.max-upload-bytes:10485760}") long maxUploadBytes,
+                      @Value("${images.max-pixels:40000000}") long maxPixels,
+                      @Value("${images.cache.max-bytes:16777216}") long maxCacheBytes,
+                      @Value("${images.cache.max-file-bytes:65536}") int maxCachedFileBytes) {
+        this.blobStore = blobStore;
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxPixels = maxPixels;
+        this.maxCachedFileBytes = maxCachedFileBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxCacheBytes)
+                .<String, StoredImage>weigher((key, image) ->
+                        ENTRY_OVERHEAD + (image.content() == null ? 0 : image.content().length))
+                .build();
+    }
+
+    /**
+     * The URL of a variant of an image, given the image's stored URL
+     * ({@code assets/<file>}); any other URL is returned as it is.
+     */
+    public static String variantUrl(String imageUrl, Variant variant) {
+        return filename(imageUrl).map(name -> "assets/" + variant.key(name)).orElse(imageUrl);
+    }
+
+    /**
+     * The file name in an image URL stored by {@link #store}, i.e. {@code assets/<file>}.
+     */
+    public static Optional<String> filename(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith("assets/") || imageUrl.indexOf('/', 7) >= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(imageUrl.substring(7));
+    }
+
+    /**
+     * Whether the name is one given to an upload, as opposed to a file put in the
+     * image directory by hand. Only uploads are ever garbage collected.
+     */
+    public static boolean isUpload(String filename) {
+        return BlobStore.CONTENT_KEY.matcher(filename).matches() || UUID_NAME.matcher(filename).matches();
+    }
+
+    /**
+     * Stores an uploaded image and its variants under the image's content key and
+     * returns that key. The upload is streamed to a temporary file and only decoded
+     * at reduced resolution, so memory use does not grow with the file size.
+     *
+     * @throws IllegalArgumentException if the content is not a JPEG, PNG or GIF image
+     *                                  (whatever the file is called) or exceeds the size limits
+     */
+    public String store(InputStream upload) throws IOException {
+        List<Path> pending = new ArrayList<>();
+        try {
+            Path original = blobStore.createTempFile("upload-");
+            pending.add(original);
+            Format format = copy(upload, original);
+
+            Map<Variant, Path> variants = new EnumMap<>(Variant.class);
+            BufferedImage decoded = ImageResizer.decode(original, format, largestVariantSide(), maxPixels);
+            for (Variant variant : Variant.values()) {
+                Path file = blobStore.createTempFile(variant.directory() + "-");
+                pending.add(file);
+                ImageResizer.write(ImageResizer.fit(decoded, variant.maxSide, format != Format.JPEG), format, file);
+                variants.put(variant, file);
+            }
+
+            // The key comes from the content, so the original goes first; a variant
+            // asked for before it is in place is made from the original
+            String name = blobStore.put(original, format.extension);
+            for (Map.Entry<Variant, Path> variant : variants.entrySet()) {
+                blobStore.put(variant.getKey().key(name), variant.getValue());
+            }
+            return name;
+        } finally {
+            // Left over only if something failed before the put
+            for (Path path : pending) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Looks up an image by file name; empty if the name is not a plain file name or
+     * no such image exists.
+     */
+    public Optional<StoredImage> find(String filename) throws IOException {
+        if (!SAFE_NAME.matcher(filename).matches()) {
+            return Optional.empty();
+        }
+        return lookup(filename, isUpload(filename));
+    }
+
+    /**
+     * Looks up a variant of an image. Images stored before variants existed get
+     * theirs made on first request.
+     */
+    public Optional<StoredImage> find(Variant variant, String filename) throws IOException {
+        if (!SAFE_NAME.matcher(filename).matches()) {
+            return Optional.empty();
+        }
+        String key = variant.key(filename);
+        boolean immutable = isUpload(filename);
+        Optional<StoredImage> found = lookup(key, immutable);
+        if (found.isPresent()) {
+            return found;
+        }
+        Optional<Blob> original = blobStore.find(filename);
+        if (original.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            createVariant(original.get(), variant, key);
+        } catch (IllegalArgumentException e) {
+            // Not an image we can scale
+            return Optional.empty();
+        }
+        return lookup(key, immutable);
+    }
+
+    /**
+     * Opens an image for reading from {@code offset}, for images that are neither
+     * in memory nor local files.
+     */
+    public InputStream open(StoredImage image, long offset) throws IOException {
+        return blobStore.open(image.key(), offset);
+    }
+
+    /**
+     * Deletes an image and its variants, variants first: an image left without
+     * some of them by a failure gets them made again on request.
+     */
+    public void delete(String filename) throws IOException {
+        if (!SAFE_NAME.matcher(filename).matches()) {
+            throw new IllegalArgumentException("Invalid image name: " + filename);
+        }
+        for (Variant variant : Variant.values()) {
+            blobStore.delete(variant.key(filename));
+            cache.invalidate(variant.key(filename));
+        }
+        blobStore.delete(filename);
+        cache.invalidate(filename);
+    }
+
+    /**
+     * Drops a cached entry whose file turned out to be gone.
+     */
+    public void evict(StoredImage image) {
+        cache.invalidate(image.key());
+    }
+
+    private Optional<StoredImage> lookup(String key, boolean immutable) throws IOException {
+        StoredImage cached = cache.getIfPresent(key);
+        if (cached != null && immutable) {
+            return Optional.of(cached);
+        }
+
+        Optional<Blob> blob = blobStore.find(key);
+        if (blob.isEmpty()) {
+            cache.invalidate(key);
+            return Optional.empty();
+        }
+        if (cached != null && cached.size() == blob.get().size() && cached.lastModified() == blob.get().lastModified()) {
+            return Optional.of(cached);
+        }
+
+        StoredImage loaded = load(blob.get(), immutable);
+        cache.put(key, loaded);
+        return Optional.of(loaded);
+    }
+
+    // Copies the upload while checking its magic bytes and size
+    private Format copy(InputStream upload, Path target) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int head = upload.readNBytes(buffer, 0, 16);
+        Format format = ImageResizer.sniff(buffer, head);
+        if (format == null) {
+            throw new IllegalArgumentException("Invalid image format. Only JPG, PNG and GIF images are allowed.");
+        }
+        try (OutputStream out = Files.newOutputStream(target)) {
+            out.write(buffer, 0, head);
+            long total = head;
+            int read;
+            while ((read = upload.read(buffer)) != -1) {
+                total += read;
+                if (total > maxUploadBytes) {
+                    throw new IllegalArgumentException("Image is larger than " + maxUploadBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return format;
+    }
+
+    private void createVariant(Blob original, Variant variant, String key) throws IOException {
+        List<Path> pending = new ArrayList<>();
+        try {
+            Path source = original.path();
+            if (source == null) {
+                // Decoding needs random access; fetch remote originals once
+                source = blobStore.createTempFile("original-");
+                pending.add(source);
+                try (InputStream in = blobStore.open(original.key(), 0)) {
+                    Files.copy(in, source, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Format format;
+            try (InputStream in = Files.newInputStream(source)) {
+                byte[] head = in.readNBytes(16);
+                format = ImageResizer.sniff(head, head.length);
+            }
+            if (format == null) {
+                throw new IllegalArgumentException("Not an image");
+            }
+            Path temp = blobStore.createTempFile(variant.directory() + "-");
+            pending.add(temp);
+            BufferedImage decoded = ImageResizer.decode(source, format, variant.maxSide, maxPixels);
+            ImageResizer.write(ImageResizer.fit(decoded, variant.maxSide, format != Format.JPEG), format, temp);
+            blobStore.put(key, temp);
+        } finally {
+            for (Path path : pending) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static int largestVariantSide() {
+        int largest = 0;
+        for (Variant variant : Variant.values()) {
+            largest = Math.max(largest, variant.maxSide);
+        }
+        return largest;
+    }
+
+    private StoredImage load(Blob blob, boolean immutable) throws IOException {
+        String key = blob.key();
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        byte[] content = null;
+        if (blob.size() <= maxCachedFileBytes) {
+            try (InputStream in = blobStore.open(key, 0)) {
+                content = in.readAllBytes();
+            }
+        }
+
+        String etag;
+        if (BlobStore.CONTENT_KEY.matcher(name).matches()) {
+            // The key already names the content
+            etag = "\"" + key.substring(0, key.lastIndexOf('.')).replace('/', '-') + "\"";
+        } else {
+            MessageDigest digest = sha256();
+            if (content != null) {
+                digest.update(content);
+            } else {
+                try (InputStream in = blobStore.open(key, 0)) {
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+            // 128 bits of the hash are plenty to tell versions apart
+            etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest()).substring(0, 22) + "\"";
+        }
+        return new StoredImage(key, blob.path(), content != null ? content.length : blob.size(), blob.lastModified(),
+                etag, contentType(name), immutable, content);
+    }
+
+    private static MediaType contentType(String filename) {
+        String name = filename.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+            return MediaType.IMAGE_JPEG;
+        } else if (name.endsWith(".png")) {
+            return MediaType.IMAGE_PNG;
+        } else if (name.endsWith(".gif")) {
+            return MediaType.IMAGE_GIF;
+        } else if (name.endsWith(".webp")) {
+            return MediaType.parseMediaType("image/webp");
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * An image as last seen in the store. {@code path} is its local file, if it
+     * has one. {@code content} holds the bytes of small images and is null
+     * otherwise; it is shared and must not be modified.
+     */
+    public record StoredImage(String key, Path path, long size, long lastModified, String etag,
+                              MediaType contentType, boolean immutable, byte[] content) {
+    }
+}
@@ -1,48 +1,137 @@
 package com.gloriatech.medimeet.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.gloriatech.medimeet.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Serializer;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.ServiceLoader;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret:defaultSecretKeyForDevelopmentEnvironmentOnly}")
-    private String secretKey;
+    // Claims that let the filter rebuild the principal without loading the user
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_CREDENTIAL_VERSION = "cv";
 
-    @Value("${jwt.expiration:86400000}") // Default: 24 hours
-    private long jwtExpiration;
+    private final long jwtExpiration;
+
+    // Built once: the key is immutable, the parser and JSON serializer are thread-safe
+    private final Key signingKey;
+    private final JwtParser parser;
+    @SuppressWarnings("rawtypes")
+    private final Serializer jsonSerializer;
+
+    // Recently verified tokens keyed by SHA-256 digest, so repeat tokens skip HMAC and JSON parsing.
+    // Null when disabled; entries expire with their token
+    private final Cache<ByteBuffer, Claims> verifiedTokens;
+
+    @Autowired
+    public JwtService(
+            @Value("${jwt.secret:defaultSecretKeyForDevelopmentEnvironmentOnly}") String secretKey,
+            @Value("${jwt.expiration:86400000}") long jwtExpiration, // Default: 24 hours
+            @Value("${jwt.verified-cache-size:10000}") int verifiedCacheSize
+    ) {
+        this.jwtExpiration = jwtExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        // Otherwise every builder runs a ServiceLoader lookup for the JSON serializer
+        this.jsonSerializer = ServiceLoader.load(Serializer.class).findFirst()
+                .orElseThrow(() -> new IllegalStateException("No JWT JSON serializer on the classpath"));
+        this.verifiedTokens = verifiedCacheSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiry(jwtExpiration))
+                .build();
+    }
 
     // Generate token without extra claims
     public String generateToken(UserDetails userDetails) {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    // Generate token carrying user id, role and credential version for stateless authentication
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole());
+        claims.put(CLAIM_CREDENTIAL_VERSION, user.getCredentialVersion());
+        return buildToken(claims, user.getEmail());
+    }
+
     // Generate token with extra claims
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+        return buildToken(extraClaims, userDetails.getUsername());
+    }
+
+    @SuppressWarnings("unchecked")
+    private String buildToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
-                .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
+                .serializeToJsonWith(jsonSerializer)
+                .setClaims(claims)
+                .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the token signature and expiry exactly once and returns its claims.
+     * Callers should pass the returned claims along instead of re-parsing the token.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public Claims verify(String token) {
+        if (verifiedTokens == null) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+
+        ByteBuffer digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            // Checked again, as cache expiry is not exact to the millisecond
+            if (isExpired(cached)) {
+                verifiedTokens.invalidate(digest);
+                throw new ExpiredJwtException(null, cached, "JWT expired at " + cached.getExpiration());
+            }
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        verifiedTokens.put(digest, claims);
+        return claims;
+    }
+
+    // Validate already verified claims against the loaded user
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject()) && !isExpired(claims);
+    }
+
     // Validate token
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
     }
 
     // Extract username from token
@@ -50,34 +139,52 @@ public class JwtService {
         return extractClaim(token, Claims::getSubject);
     }
 
-    // Check if token is expired
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Extract a specific claim from token
+    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+        return claimsResolver.apply(verify(token));
     }
 
-    // Extract expiration date from token
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
 
-    // Extract a specific claim from token
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
+    // Keeps verified claims no longer than the token is valid, and tokens without exp for one token lifetime
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, Claims> {
+
+        private final long maxNanos;
+
+        UntilTokenExpiry(long jwtExpirationMillis) {
+            this.maxNanos = TimeUnit.MILLISECONDS.toNanos(jwtExpirationMillis);
+        }
+
+        @Override
+        public long expireAfterCreate(ByteBuffer digest, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxNanos;
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(remaining, maxNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer digest, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, claims, currentTime);
+        }
 
-    // Extract all claims from token
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        @Override
+        public long expireAfterRead(ByteBuffer digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 
-    // Get signing key for JWT
-    private Key getSigningKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-} 
\ No newline at end of file
+}
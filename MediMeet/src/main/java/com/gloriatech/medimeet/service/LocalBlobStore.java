@@ -0,0 +1,165 @@
+package com.gloriatech.medimeet.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Blobs as files under {@code images.dir}. Content-addressed blobs are sharded
+ * by the first two bytes of their hash ({@code ab/cd/abcd...jpg}), so no
+ * directory grows past a few hundred entries; derived blobs mirror that layout
+ * under their kind ({@code card/ab/cd/abcd...jpg}). Other names resolve to a
+ * flat file, which keeps images stored before content addressing reachable.
+ * <p>
+ * Every write goes to a temporary file first and is renamed into place, so a
+ * reader never sees a partial file.
+ */
+@Service
+@ConditionalOnProperty(name = "images.store", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    // Key segments are plain names; no separators, no "..", no hidden files
+    private static final Pattern SEGMENT = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    // On the same file system as the blobs, so that writes end with a rename
+    private static final String TEMP_DIR = ".tmp";
+
+    private final Path root;
+
+    @Autowired
+    public LocalBlobStore(@Value("${images.dir:${user.home}/.medimeet/images}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String put(Path file, String extension) throws IOException {
+        String key = BlobStore.contentKey(file, extension);
+        Path target = resolve(key);
+        if (Files.isRegularFile(target)) {
+            // Already stored; refresh it so garbage collection treats it as new
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            Files.delete(file);
+            return key;
+        }
+        moveIntoPlace(file, target);
+        return key;
+    }
+
+    @Override
+    public void put(String key, Path file) throws IOException {
+        moveIntoPlace(file, resolve(key));
+    }
+
+    @Override
+    public Optional<Blob> find(String key) throws IOException {
+        Path path = resolve(key);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        if (!attributes.isRegularFile()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Blob(key, attributes.size(), attributes.lastModifiedTime().toMillis(), path));
+    }
+
+    @Override
+    public InputStream open(String key, long offset) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        channel.position(offset);
+        return Channels.newInputStream(channel);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public void list(Consumer<Blob> action) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        // Shard directories are two levels deep; derived blobs sit one level further down
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                if (CONTENT_KEY.matcher(name).matches() && path.equals(resolve(name))) {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    action.accept(new Blob(name, attributes.size(), attributes.lastModifiedTime().toMillis(), path));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Path createTempFile(String prefix) throws IOException {
+        return Files.createTempFile(Files.createDirectories(root.resolve(TEMP_DIR)), prefix, ".tmp");
+    }
+
+    /**
+     * The file a key is stored in.
+     *
+     * @throws IllegalArgumentException if the key is not made of plain name segments
+     */
+    Path resolve(String key) {
+        String[] segments = key.split("/", -1);
+        Path path = root;
+        for (String segment : segments) {
+            if (!SEGMENT.matcher(segment).matches()) {
+                throw new IllegalArgumentException("Invalid blob key: " + key);
+            }
+        }
+        for (int i = 0; i < segments.length - 1; i++) {
+            path = path.resolve(segments[i]);
+        }
+        String name = segments[segments.length - 1];
+        if (CONTENT_KEY.matcher(name).matches()) {
+            path = path.resolve(name.substring(0, 2)).resolve(name.substring(2, 4));
+        }
+        return path.resolve(name);
+    }
+
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Created on another file system; copy next to the blobs first, then rename
+            Path temp = createTempFile("copy-");
+            try {
+                Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(source);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.model.OutboundMail;
+import com.gloriatech.medimeet.repository.OutboundMailRepository;
+import com.gloriatech.medimeet.util.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbound mail queue persisted in the {@code mail_outbox} table. Callers only
+ * insert a row; a small worker pool claims due rows in batches, sends each batch
+ * over one SMTP connection and retries failures with exponential backoff.
+ * Claims are leases, so mail held by a crashed node is picked up again.
+ * <p>
+ * Metrics: mail.outbox.enqueued, mail.outbox.send (one timing per batch, by
+ * outcome), mail.outbox.messages (by result: sent, retry, failed) and the
+ * mail.outbox.queued.batches gauge.
+ */
+@Service
+public class MailOutbox {
+
+    private final OutboundMailRepository repository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    // Bounded on both threads and queued batches; the table is the real queue
+    private final ThreadPoolExecutor workers;
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    private final MeterRegistry meterRegistry;
+    private final Counter enqueued;
+
+    @Autowired
+    public MailOutbox(OutboundMailRepository repository, JavaMailSender mailSender,
+                      TransactionTemplate transactionTemplate, Environment environment,
+                      MeterRegistry meterRegistry,
+                      @Value("${mail.outbox.workers:2}") int workerCount,
+                      @Value("${mail.outbox.queued-batches:4}") int queuedBatches,
+                      @Value("${mail.outbox.batch-size:50}") int batchSize,
+                      @Value("${mail.outbox.max-attempts:8}") int maxAttempts,
+                      @Value("${mail.outbox.backoff-ms:30000}") long baseBackoffMs,
+                      @Value("${mail.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+                      @Value("${mail.outbox.lease-ms:300000}") long leaseMs) {
+        this.repository = repository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofMillis(baseBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.lease = Duration.ofMillis(leaseMs);
+
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queuedBatches), threadFactory(environment));
+
+        this.meterRegistry = meterRegistry;
+        this.enqueued = meterRegistry.counter("mail.outbox.enqueued");
+        meterRegistry.gauge("mail.outbox.queued.batches", workers, pool -> pool.getQueue().size());
+    }
+
+    // Virtual threads when spring.threads.virtual.enabled is set on Java 21+; the pool
+    // still caps how many SMTP connections are open at once
+    private static ThreadFactory threadFactory(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("mail-").getVirtualThreadFactory();
+        }
+        AtomicInteger threads = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "mail-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Queues a plain-text email in the caller's transaction, if any, and wakes
+     * the workers once it commits. Delivery happens asynchronously.
+     */
+    public void enqueue(String to, String subject, String text) {
+        repository.save(new OutboundMail(to, subject, text, LocalDateTime.now()));
+        AfterCommit.run(() -> {
+            enqueued.increment();
+            wakeUp();
+        });
+    }
+
+    /**
+     * Claims due mail and hands it to the workers batch by batch, stopping once
+     * nothing is due or the workers have no room for another batch.
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-ms:5000}",
+            initialDelayString = "${mail.outbox.poll-ms:5000}")
+    public void drain() {
+        while (workers.getQueue().remainingCapacity() > 0) {
+            List<OutboundMail> batch = claimBatch();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                workers.execute(() -> send(batch));
+            } catch (RejectedExecutionException e) {
+                // Lost the race for the last queue slot; the lease expires and the batch is retried
+                return;
+            }
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // Mail queued together (e.g. in one transaction) shares a single drain
+    private void wakeUp() {
+        if (drainQueued.compareAndSet(false, true)) {
+            try {
+                workers.execute(() -> {
+                    drainQueued.set(false);
+                    drain();
+                });
+            } catch (RejectedExecutionException e) {
+                // Workers are saturated; the next scheduled drain picks it up
+                drainQueued.set(false);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private List<OutboundMail> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> claimed = new ArrayList<>();
+            for (Long id : repository.findDueIds(now, Limit.of(batchSize))) {
+                if (repository.claim(id, now, now.plus(lease)) == 1) {
+                    claimed.add(id);
+                }
+            }
+            return claimed.isEmpty() ? List.of() : repository.findAllById(claimed);
+        });
+    }
+
+    private void send(List<OutboundMail> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            OutboundMail mail = batch.get(i);
+            messages[i] = new SimpleMailMessage();
+            messages[i].setTo(mail.getRecipient());
+            messages[i].setSubject(mail.getSubject());
+            messages[i].setText(mail.getBody());
+        }
+
+        Map<Object, Exception> failures;
+        MailException batchFailure = null;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            // One connection for the whole batch
+            mailSender.send(messages);
+            failures = Map.of();
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            batchFailure = e;
+        } catch (MailException e) {
+            failures = Map.of();
+            batchFailure = e;
+        }
+        sample.stop(meterRegistry.timer("mail.outbox.send", "outcome", batchFailure == null ? "success" : "failure"));
+
+        List<Long> sent = new ArrayList<>();
+        List<OutboundMail> failed = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < messages.length; i++) {
+            Exception failure = failures.get(messages[i]);
+            if (failure == null && batchFailure != null && failures.isEmpty()) {
+                // Nothing per message, so the batch failed as a whole (e.g. connection refused)
+                failure = batchFailure;
+            }
+            if (failure == null) {
+                sent.add(batch.get(i).getId());
+            } else {
+                failed.add(batch.get(i));
+                errors.add(String.valueOf(failure.getMessage()));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                repository.deleteAllByIdInBatch(sent);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < failed.size(); i++) {
+                OutboundMail mail = failed.get(i);
+                int attempts = mail.getAttempts() + 1;
+                mail.setAttempts(attempts);
+                mail.setLastError(truncate(errors.get(i), 1000));
+                if (attempts >= maxAttempts) {
+                    mail.setStatus(OutboundMail.FAILED);
+                } else {
+                    mail.setStatus(OutboundMail.PENDING);
+                    mail.setNextAttemptAt(now.plus(backoff(attempts)));
+                }
+            }
+            repository.saveAll(failed);
+        });
+
+        int gaveUp = (int) failed.stream().filter(mail -> OutboundMail.FAILED.equals(mail.getStatus())).count();
+        meterRegistry.counter("mail.outbox.messages", "result", "sent").increment(sent.size());
+        meterRegistry.counter("mail.outbox.messages", "result", "retry").increment(failed.size() - gaveUp);
+        meterRegistry.counter("mail.outbox.messages", "result", "failed").increment(gaveUp);
+    }
+
+    // base, 2 x base, 4 x base, ... capped at maxBackoff
+    Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration delay = baseBackoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String text, int length) {
+        return text.length() <= length ? text : text.substring(0, length);
+    }
+}
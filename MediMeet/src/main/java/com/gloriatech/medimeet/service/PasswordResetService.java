@@ -0,0 +1,143 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.model.PasswordResetToken;
+import com.gloriatech.medimeet.repository.PasswordResetTokenRepository;
+import com.gloriatech.medimeet.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Password reset codes kept in the {@code password_reset_token} table, so any
+ * node can check a code another node sent. Codes come from SecureRandom, expire
+ * after {@code password-reset.ttl-ms}, allow a few wrong guesses and are stored
+ * only as an HMAC keyed with a server secret: a leaked table does not give away
+ * live codes, and six digits cannot be brute-forced offline without the key.
+ * <p>
+ * Requests are rate limited per email and per client address before any
+ * database or mail work, so the endpoint cannot be used to flood an inbox.
+ */
+@Service
+public class PasswordResetService {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final PasswordResetTokenRepository tokenRepository;
+    private final UserRepository userRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate ownTransaction;
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec hmacKey;
+
+    private final Duration ttl;
+    private final int maxAttempts;
+    private final RateLimiter perEmail;
+    private final RateLimiter perClient;
+
+    @Autowired
+    public PasswordResetService(PasswordResetTokenRepository tokenRepository, UserRepository userRepository,
+                                EmailService emailService, PlatformTransactionManager transactionManager,
+                                @Value("${password-reset.secret:${jwt.secret:defaultSecretKeyForDevelopmentEnvironmentOnly}}") String secret,
+                                @Value("${password-reset.ttl-ms:600000}") long ttlMs,
+                                @Value("${password-reset.max-attempts:5}") int maxAttempts,
+                                @Value("${password-reset.email.burst:3}") int emailBurst,
+                                @Value("${password-reset.email.refill-ms:600000}") long emailRefillMs,
+                                @Value("${password-reset.client.burst:20}") int clientBurst,
+                                @Value("${password-reset.client.refill-ms:60000}") long clientRefillMs,
+                                @Value("${password-reset.rate-limit.max-keys:100000}") long maxKeys) {
+        this.tokenRepository = tokenRepository;
+        this.userRepository = userRepository;
+        this.emailService = emailService;
+        this.hmacKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC);
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.maxAttempts = maxAttempts;
+        this.perEmail = new RateLimiter(emailBurst, Duration.ofMillis(emailRefillMs), maxKeys);
+        this.perClient = new RateLimiter(clientBurst, Duration.ofMillis(clientRefillMs), maxKeys);
+
+        this.transaction = new TransactionTemplate(transactionManager);
+        // Wrong guesses must count even though the caller's transaction rolls back
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Emails a new reset code, replacing any outstanding one. Unknown emails are
+     * accepted silently, so the endpoint does not reveal who has an account.
+     *
+     * @throws IllegalArgumentException  if the email is malformed
+     * @throws RateLimiter.LimitExceeded if the email or the client asked too often
+     */
+    public void sendCode(String email, String clientAddress) {
+        if (email == null || !email.matches("^[A-Za-z0-9+_.-]+@(.+)$")) {
+            throw new IllegalArgumentException("Invalid email format");
+        }
+        perClient.acquire(clientAddress);
+        perEmail.acquire(email.toLowerCase(Locale.ROOT));
+
+        // Only requests within the limits get a database connection
+        transaction.executeWithoutResult(status -> {
+            if (userRepository.findByEmail(email).isEmpty()) {
+                return;
+            }
+            String code = String.format("%06d", random.nextInt(1_000_000));
+            String codeHash = hash(email, code);
+            LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+            if (tokenRepository.reissue(email, codeHash, expiresAt) == 0) {
+                tokenRepository.save(new PasswordResetToken(email, codeHash, expiresAt));
+            }
+            // Queued in the same transaction: the mail goes out only if the code was stored
+            emailService.sendPasswordResetEmail(email, code, ttl);
+        });
+    }
+
+    /**
+     * Uses up the email's reset code, in the caller's transaction so that the code
+     * stays valid if the password change fails. Each call counts as a guess.
+     *
+     * @throws IllegalArgumentException  if the code is wrong, expired or out of guesses
+     * @throws RateLimiter.LimitExceeded if the client guessed too often
+     */
+    @Transactional
+    public void redeem(String email, String code, String clientAddress) {
+        perClient.acquire(clientAddress);
+        LocalDateTime now = LocalDateTime.now();
+        Integer counted = ownTransaction.execute(status -> tokenRepository.recordAttempt(email, maxAttempts, now));
+        if (counted == null || counted == 0 || code == null
+                || tokenRepository.consume(email, hash(email, code), now) == 0) {
+            throw new IllegalArgumentException("Invalid or expired reset code");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${password-reset.purge-ms:3600000}",
+            initialDelayString = "${password-reset.purge-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        tokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private String hash(String email, String code) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(hmacKey);
+            return HexFormat.of().formatHex(mac.doFinal((email + ":" + code).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.gloriatech.medimeet.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Token buckets per key (an email, a client address): up to {@code capacity}
+ * requests at once, then one per {@code refillInterval}. Buckets live in a
+ * cache bounded by key count and dropped once idle long enough to be full again,
+ * so a flood of distinct keys cannot grow memory. Limits are per node.
+ */
+public class RateLimiter {
+
+    private final int capacity;
+    private final long refillNanos;
+    private final Cache<String, Bucket> buckets;
+
+    public RateLimiter(int capacity, Duration refillInterval, long maxKeys) {
+        if (capacity <= 0 || refillInterval.isNegative() || refillInterval.isZero()) {
+            throw new IllegalArgumentException("Rate limit capacity and refill interval must be positive");
+        }
+        this.capacity = capacity;
+        this.refillNanos = refillInterval.toNanos();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(refillInterval.multipliedBy(capacity))
+                .build();
+    }
+
+    /**
+     * Takes a token from the key's bucket.
+     *
+     * @throws LimitExceeded if the bucket is empty
+     */
+    public void acquire(String key) {
+        long waitNanos = take(key);
+        if (waitNanos > 0) {
+            throw new LimitExceeded(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    /**
+     * Takes a token from the key's bucket if there is one; for callers that
+     * simply skip work when limited, without the cost of an exception.
+     */
+    public boolean tryAcquire(String key) {
+        return take(key) == 0;
+    }
+
+    private long take(String key) {
+        return buckets.get(key, k -> new Bucket(capacity, System.nanoTime()))
+                .tryTake(capacity, refillNanos, System.nanoTime());
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(int tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        // 0 when a token was taken, else the time until the next one
+        synchronized long tryTake(int capacity, long refillNanos, long now) {
+            tokens = Math.min(capacity, tokens + (double) (now - refilledAt) / refillNanos);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) ((1 - tokens) * refillNanos));
+        }
+    }
+
+    /**
+     * Too many requests for a key; {@code retryAfter} is when the next one is allowed.
+     */
+    public static class LimitExceeded extends RuntimeException {
+
+        private final Duration retryAfter;
+
+        public LimitExceeded(Duration retryAfter) {
+            super("Too many requests, please try again later");
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        // Whole seconds, rounded up, as the Retry-After header wants them
+        public long getRetryAfterSeconds() {
+            return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.gloriatech.medimeet.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Blobs as objects in an S3-compatible bucket (AWS S3, MinIO, ...), under
+ * {@code images.s3.prefix}. Selected with {@code images.store=s3}; set
+ * {@code images.s3.endpoint} and {@code images.s3.path-style=true} for MinIO.
+ * Credentials come from {@code images.s3.access-key}/{@code secret-key} when
+ * set, and from the default AWS provider chain otherwise.
+ * <p>
+ * The content key is computed locally before the upload, so content that is
+ * already in the bucket costs a HEAD and a metadata-only copy instead of a PUT.
+ */
+@Service
+@ConditionalOnProperty(name = "images.store", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    private static final int NOT_FOUND = 404;
+
+    private final S3Client client;
+    private final String bucket;
+    private final String prefix;
+
+    @Autowired
+    public S3BlobStore(@Value("${images.s3.bucket}") String bucket,
+                       @Value("${images.s3.prefix:images/}") String prefix,
+                       @Value("${images.s3.region:us-east-1}") String region,
+                       @Value("${images.s3.endpoint:}") String endpoint,
+                       @Value("${images.s3.path-style:false}") boolean pathStyle,
+                       @Value("${images.s3.access-key:}") String accessKey,
+                       @Value("${images.s3.secret-key:}") String secretKey) {
+        AwsCredentialsProvider credentials = accessKey.isEmpty()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .forcePathStyle(pathStyle);
+        if (!endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        this.client = builder.build();
+        this.bucket = bucket;
+        this.prefix = prefix;
+    }
+
+    @PreDestroy
+    public void close() {
+        client.close();
+    }
+
+    @Override
+    public String put(Path file, String extension) throws IOException {
+        String key = BlobStore.contentKey(file, extension);
+        try {
+            if (head(key).isPresent()) {
+                // Copying onto itself refreshes Last-Modified, so garbage collection treats it as new
+                client.copyObject(request -> request
+                        .sourceBucket(bucket).sourceKey(prefix + key)
+                        .destinationBucket(bucket).destinationKey(prefix + key)
+                        .metadataDirective(MetadataDirective.REPLACE)
+                        .contentType(contentType(key)));
+            } else {
+                upload(key, file);
+            }
+        } catch (SdkException e) {
+            throw new IOException("Could not store " + key + " in bucket " + bucket, e);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        return key;
+    }
+
+    @Override
+    public void put(String key, Path file) throws IOException {
+        try {
+            upload(key, file);
+        } catch (SdkException e) {
+            throw new IOException("Could not store " + key + " in bucket " + bucket, e);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public Optional<Blob> find(String key) throws IOException {
+        try {
+            return head(key).map(object -> new Blob(key, object.contentLength(),
+                    object.lastModified().toEpochMilli(), null));
+        } catch (SdkException e) {
+            throw new IOException("Could not look up " + key + " in bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long offset) throws IOException {
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(prefix + key);
+        if (offset > 0) {
+            request.range("bytes=" + offset + "-");
+        }
+        try {
+            return client.getObject(request.build());
+        } catch (S3Exception e) {
+            if (e.statusCode() == NOT_FOUND) {
+                throw new NoSuchFileException(key);
+            }
+            throw new IOException("Could not read " + key + " from bucket " + bucket, e);
+        } catch (SdkException e) {
+            throw new IOException("Could not read " + key + " from bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            client.deleteObject(request -> request.bucket(bucket).key(prefix + key));
+        } catch (SdkException e) {
+            throw new IOException("Could not delete " + key + " from bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public void list(Consumer<Blob> action) throws IOException {
+        // The delimiter leaves out derived blobs, which sit under <kind>/
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucket).prefix(prefix).delimiter("/").build();
+        try {
+            for (S3Object object : client.listObjectsV2Paginator(request).contents()) {
+                String key = object.key().substring(prefix.length());
+                if (CONTENT_KEY.matcher(key).matches()) {
+                    action.accept(new Blob(key, object.size(), object.lastModified().toEpochMilli(), null));
+                }
+            }
+        } catch (SdkException e) {
+            throw new IOException("Could not list bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public Path createTempFile(String prefix) throws IOException {
+        return Files.createTempFile("medimeet-" + prefix, ".tmp");
+    }
+
+    @Override
+    public String toString() {
+        return "s3://" + bucket + "/" + prefix;
+    }
+
+    private Optional<HeadObjectResponse> head(String key) {
+        try {
+            return Optional.of(client.headObject(request -> request.bucket(bucket).key(prefix + key)));
+        } catch (S3Exception e) {
+            if (e.statusCode() == NOT_FOUND) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    private void upload(String key, Path file) {
+        client.putObject(request -> request.bucket(bucket).key(prefix + key).contentType(contentType(key)),
+                RequestBody.fromFile(file));
+    }
+
+    private static String contentType(String key) {
+        return MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.gloriatech.medimeet.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks serializing bookings per (doctor, day). Bookings for different
+ * doctors or days almost always land on different stripes and run in parallel;
+ * the unique slot constraint still guards against other nodes and stripe misses.
+ */
+@Component
+public class SlotLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    public SlotLocks(@Value("${booking.lock-stripes:256}") int stripeCount,
+                     @Value("${booking.lock-timeout-ms:5000}") long timeoutMillis) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("booking.lock-stripes must be positive");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Runs {@code action} while holding the stripe for the doctor's day.
+     *
+     * @throws IllegalStateException if the stripe stays busy past the timeout
+     */
+    public <T> T withLock(long doctorId, LocalDate date, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(doctorId, date);
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Booking system is busy for this doctor, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to book", e);
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int stripeIndex(long doctorId, LocalDate date) {
+        long h = doctorId * 0x9E3779B97F4A7C15L + date.toEpochDay();
+        h ^= (h >>> 32);
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= (h >>> 29);
+        return (int) Math.floorMod(h, (long) stripes.length);
+    }
+
+    private ReentrantLock stripeFor(long doctorId, LocalDate date) {
+        return stripes[stripeIndex(doctorId, date)];
+    }
+}
@@ -0,0 +1,72 @@
+package com.gloriatech.medimeet.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.gloriatech.medimeet.model.User;
+import com.gloriatech.medimeet.repository.UserRepository;
+import com.gloriatech.medimeet.util.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Decides whether a stateless JWT is still good from the user's credential
+ * version in the users table, so tokens issued before a password reset, email
+ * change or account deletion stop authenticating on every node and across
+ * restarts. Versions are cached per user for a short TTL; changes made on this
+ * node take effect as soon as they commit, changes from other nodes within the TTL.
+ */
+@Service
+public class TokenRevocationService {
+
+    // Version of a user whose row is gone: no token version can ever reach it
+    private static final int REVOKED_ALL = Integer.MAX_VALUE;
+
+    private final LoadingCache<Long, Integer> credentialVersions;
+
+    @Autowired
+    public TokenRevocationService(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.revocation.max-size:100000}") long maxSize,
+            @Value("${security.revocation.ttl:PT30S}") Duration ttl
+    ) {
+        this.credentialVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(userId -> userRepository.findCredentialVersionById(userId).orElse(REVOKED_ALL));
+        CaffeineCacheMetrics.monitor(meterRegistry, credentialVersions, "credentialVersions");
+    }
+
+    /**
+     * Returns true when a token carrying the given credential version was issued
+     * before the user's credentials last changed, or the user no longer exists.
+     */
+    public boolean isRevoked(long userId, int tokenCredentialVersion) {
+        return tokenCredentialVersion < credentialVersions.get(userId);
+    }
+
+    /**
+     * Bumps the user's credential version. The entity must be saved by the caller;
+     * the cached version is only updated once the transaction commits.
+     */
+    public void credentialsChanged(User user) {
+        int newVersion = user.getCredentialVersion() + 1;
+        user.setCredentialVersion(newVersion);
+        long userId = user.getId();
+        AfterCommit.run(() -> credentialVersions.asMap().merge(userId, newVersion, Math::max));
+    }
+
+    /**
+     * For users whose row is being deleted; the missing row keeps their tokens
+     * revoked once the cached entry expires.
+     */
+    public void revokeAll(long userId) {
+        AfterCommit.run(() -> credentialVersions.put(userId, REVOKED_ALL));
+    }
+}
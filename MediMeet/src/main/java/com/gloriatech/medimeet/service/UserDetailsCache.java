@@ -0,0 +1,58 @@
+package com.gloriatech.medimeet.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gloriatech.medimeet.util.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring cache of {@link UserDetails} by email in front of
+ * {@code UserRepository.findByEmail}. Writers that change a user's email,
+ * password or existence must evict the affected entries.
+ * Hit and miss counts are published as {@code cache.gets{cache=userDetails}}.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    @Autowired
+    public UserDetailsCache(
+            MeterRegistry meterRegistry,
+            @Value("${security.user-cache.max-size:10000}") long maxSize,
+            @Value("${security.user-cache.ttl:PT5M}") Duration ttl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+    }
+
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        UserDetails cached = cache.get(email, loader);
+        // Hand out a copy: authentication erases credentials on the instance it is given
+        return User.withUserDetails(cached).build();
+    }
+
+    // Evicts once the current transaction commits, so a concurrent load cannot re-cache stale data
+    public void evict(String... emails) {
+        AfterCommit.run(() -> {
+            for (String email : emails) {
+                if (email != null) {
+                    cache.invalidate(email);
+                }
+            }
+        });
+    }
+}
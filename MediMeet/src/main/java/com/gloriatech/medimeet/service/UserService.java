@@ -3,9 +3,12 @@ package com.gloriatech.medimeet.service;
 import com.gloriatech.medimeet.dto.AppointDTO;
 import com.gloriatech.medimeet.dto.DoctorDTO;
 import com.gloriatech.medimeet.dto.DoctorProfileDTO;
+import com.gloriatech.medimeet.dto.DoctorSearchResultDTO;
 import com.gloriatech.medimeet.dto.HomeDTO;
 import com.gloriatech.medimeet.model.*;
 import com.gloriatech.medimeet.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.core.Authentication;
@@ -14,43 +17,45 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.io.InputStream;
 import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
 
 @Service
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
-
-    private static final String UPLOAD_DIR = "D:\\Documents\\developing projects\\medimeet\\medimeet\\src\\assets\\";
-
-    // In-memory reset code store (for demo; use DB in production)
-    private final ConcurrentHashMap<String, String> resetCodes = new ConcurrentHashMap<>();
+    private final TokenRevocationService tokenRevocationService;
+    private final UserDetailsCache userDetailsCache;
+    private final DoctorDirectory doctorDirectory;
+    private final AppointmentCounters appointmentCounters;
+    private final ImageStore imageStore;
+    private final ImageGarbageCollector imageGarbageCollector;
+    private final PasswordResetService passwordResetService;
+    // Hashed lazily at the current strength; racing logins may each hash one, which is harmless
+    private volatile String unknownUserHash;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, EmailService emailService) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, EmailService emailService,
+                       TokenRevocationService tokenRevocationService, UserDetailsCache userDetailsCache,
+                       DoctorDirectory doctorDirectory, AppointmentCounters appointmentCounters,
+                       ImageStore imageStore, ImageGarbageCollector imageGarbageCollector,
+                       PasswordResetService passwordResetService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
-
-        // Ensure the upload directory exists
-        File uploadDir = new File(UPLOAD_DIR);
-        System.out.println("Upload directory path: " + uploadDir.getAbsolutePath());
-        System.out.println("Upload directory exists: " + uploadDir.exists());
-        if (!uploadDir.exists()) {
-            boolean created = uploadDir.mkdirs();
-            System.out.println("Upload directory created: " + created);
-        }
+        this.tokenRevocationService = tokenRevocationService;
+        this.userDetailsCache = userDetailsCache;
+        this.doctorDirectory = doctorDirectory;
+        this.appointmentCounters = appointmentCounters;
+        this.imageStore = imageStore;
+        this.imageGarbageCollector = imageGarbageCollector;
+        this.passwordResetService = passwordResetService;
     }
 
     @Transactional
@@ -79,24 +84,10 @@ public class UserService {
 
         String imagePath = null;
         if (imageFile != null && !imageFile.isEmpty()) {
-            // Validate file typ
-            String originalFilename = imageFile.getOriginalFilename();
-            if (originalFilename != null && !originalFilename.matches(".*\\.(jpg|jpeg|png|gif)$")) {
-                throw new RuntimeException("Invalid image format. Only JPG, JPEG, PNG, GIF allowed.");
+            // Streamed to disk and checked by content, not by file name
+            try (InputStream upload = imageFile.getInputStream()) {
+                imagePath = "assets/" + imageStore.store(upload);
             }
-
-            // Generate a unique file name
-            String fileExtension = originalFilename != null ? originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-            String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-
-            // Save the file
-            Path filePath = Paths.get(UPLOAD_DIR + uniqueFileName);
-            System.out.println("Saving image to absolute path: " + filePath.toAbsolutePath());
-            Files.write(filePath, imageFile.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
-
-            // Set the image path
-            imagePath = "assets/" + uniqueFileName;
-            System.out.println("Image path stored in doctor record: " + imagePath);
         } else {
             // Image is required; throw exception
             throw new RuntimeException("Image file is required");
@@ -108,12 +99,11 @@ public class UserService {
         doctor.setPassword(passwordEncoder.encode(doctor.getPassword()));
         doctor.setImageUrl(imagePath);
 
-        // Log for debugging
-        System.out.println("Saving Doctor: name=" + doctor.getName() + ", imageUrl=" + doctor.getImageUrl());
-
         // Save to database
         Doctor savedDoctor = (Doctor) userRepository.save(doctor);
-        System.out.println("Saved Doctor: id=" + savedDoctor.getId() + ", imageUrl=" + savedDoctor.getImageUrl());
+        log.debug("Doctor saved id={} imageUrl={}", savedDoctor.getId(), savedDoctor.getImageUrl());
+        doctorDirectory.doctorSaved(savedDoctor);
+        appointmentCounters.doctorCreated(savedDoctor.getId());
 
         return savedDoctor;
     }
@@ -138,12 +128,46 @@ public class UserService {
         return (Admin) userRepository.save(admin);
     }
 
+    /**
+     * Checks the credentials with a single user fetch and returns the user.
+     * Hashes written with an older encoding or a lower BCrypt strength are
+     * replaced with the current one while the raw password is at hand.
+     *
+     * @throws PasswordHashing.Overloaded if too many logins are being hashed
+     */
     public User login(String email, String password) {
-        User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found with email: " + email));
-        if (passwordEncoder.matches(password, user.getPassword())) {
-            return user;
+        Optional<User> found = email == null ? Optional.empty() : userRepository.findByEmail(email);
+        if (password == null) {
+            throw new RuntimeException("Invalid credentials");
+        }
+        if (found.isEmpty()) {
+            // Same hashing cost as a wrong password, so response times do not reveal who has an account
+            passwordEncoder.matches(password, unknownUserHash());
+            throw new RuntimeException("Invalid credentials");
+        }
+        User user = found.get();
+        String hash = user.getPassword();
+        if (hash == null || !passwordEncoder.matches(password, hash)) {
+            throw new RuntimeException("Invalid credentials");
+        }
+        if (passwordEncoder.upgradeEncoding(hash)) {
+            String upgraded = passwordEncoder.encode(password);
+            // Same password, so tokens already issued stay valid
+            if (userRepository.rehashPassword(user.getId(), hash, upgraded) > 0) {
+                user.setPassword(upgraded);
+                userDetailsCache.evict(email);
+            }
+        }
+        return user;
+    }
+
+    private String unknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("unknown-user-" + System.nanoTime());
+            unknownUserHash = hash;
         }
-        throw new RuntimeException("Invalid credentials");
+        return hash;
     }
 
     public User getUserByEmail(String email) {
@@ -158,61 +182,43 @@ public class UserService {
             throw new RuntimeException("User is not a doctor");
         }
         userRepository.deleteById(doctorId);
+        tokenRevocationService.revokeAll(doctorId);
+        userDetailsCache.evict(user.getEmail());
+        doctorDirectory.doctorDeleted(doctorId);
+        imageGarbageCollector.release(((Doctor) user).getImageUrl());
     }
 
+    // Served from the in-memory doctor directory; no database access on these paths
     public List<DoctorDTO> getAllDoctors() {
-        List<User> users = userRepository.findByRole("Doctor");
-        return users.stream()
-                .map(user -> {
-                    Doctor doc = (Doctor) user;
-                    DoctorDTO dto = new DoctorDTO(
-                            doc.getId(),
-                            doc.getName(),
-                            doc.getEmail(),
-                            doc.getPhone(),
-                            doc.getSpecialisation()
-                    );
-                    return dto;
-                })
-                .toList();
+        return doctorDirectory.getAllDoctors();
     }
 
     public List<HomeDTO> getHomeDoctor() {
-        List<User> users = userRepository.findByRole("Doctor");
-        return users.stream()
-                .map(user -> {
-                    Doctor doc = (Doctor) user;
-                    return new HomeDTO(
-                            doc.getId(),
-                            doc.getName(),
-                            doc.getSpecialisation(),
-                            doc.getImageUrl()
-                    );
-                })
-                .toList();
+        return doctorDirectory.getHomeDoctors();
     }
 
     public List<AppointDTO> getAppointDoctor() {
-        List<User> users = userRepository.findByRole("Doctor");
-        return users.stream()
-                .map(user -> {
-                    Doctor doc = (Doctor) user;
-                    return new AppointDTO(
-                            doc.getId(),
-                            doc.getName(),
-                            doc.getSpecialisation(),
-                            doc.getImageUrl(),
-                            doc.getAbout(),
-                            doc.getExperience()
-                    );
-                })
-                .toList();
+        return doctorDirectory.getAppointDoctors();
+    }
+
+    // Pre-serialized variants of the listings above, for the public endpoints
+    public CachedJson getAllDoctorsJson() {
+        return doctorDirectory.getAllDoctorsJson();
+    }
+
+    public CachedJson getHomeDoctorJson() {
+        return doctorDirectory.getHomeDoctorsJson();
+    }
+
+    public CachedJson getAppointDoctorJson() {
+        return doctorDirectory.getAppointDoctorsJson();
     }
 
     @Transactional
     public Doctor updateDoctor(Long doctorId, Doctor updatedDoctor, MultipartFile imageFile) throws IOException {
         Doctor existingDoctor = (Doctor) userRepository.findById(doctorId)
                 .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + doctorId));
+        String previousEmail = existingDoctor.getEmail();
 
         if (updatedDoctor.getName() != null && !updatedDoctor.getName().isEmpty()) {
             existingDoctor.setName(updatedDoctor.getName());
@@ -223,28 +229,34 @@ public class UserService {
         if (updatedDoctor.getPhone() != null && !updatedDoctor.getPhone().isEmpty()) {
             existingDoctor.setPhone(updatedDoctor.getPhone());
         }
-        if (updatedDoctor.getEmail() != null && !updatedDoctor.getEmail().isEmpty()) {
+        boolean credentialsChanged = false;
+        if (updatedDoctor.getEmail() != null && !updatedDoctor.getEmail().isEmpty()
+                && !updatedDoctor.getEmail().equals(existingDoctor.getEmail())) {
             existingDoctor.setEmail(updatedDoctor.getEmail());
+            credentialsChanged = true;
         }
         if (updatedDoctor.getPassword() != null && !updatedDoctor.getPassword().isEmpty()) {
             existingDoctor.setPassword(passwordEncoder.encode(updatedDoctor.getPassword()));
+            credentialsChanged = true;
+        }
+        if (credentialsChanged) {
+            tokenRevocationService.credentialsChanged(existingDoctor);
+            userDetailsCache.evict(previousEmail, existingDoctor.getEmail());
         }
 
         if (imageFile != null && !imageFile.isEmpty()) {
-            String originalFilename = imageFile.getOriginalFilename();
-            if (originalFilename != null && !originalFilename.matches(".*\\.(jpg|jpeg|png)$")) {
-                throw new RuntimeException("Invalid Image format");
+            String previousImageUrl = existingDoctor.getImageUrl();
+            try (InputStream upload = imageFile.getInputStream()) {
+                existingDoctor.setImageUrl("assets/" + imageStore.store(upload));
+            }
+            if (!existingDoctor.getImageUrl().equals(previousImageUrl)) {
+                imageGarbageCollector.release(previousImageUrl);
             }
-            String fileExtension = originalFilename != null ? originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-            String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-
-            Path filePath = Paths.get(UPLOAD_DIR + uniqueFileName);
-            Files.write(filePath, imageFile.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
-
-            existingDoctor.setImageUrl("assets/" + uniqueFileName);
         }
 
-        return (Doctor) userRepository.save(existingDoctor);
+        Doctor savedDoctor = (Doctor) userRepository.save(existingDoctor);
+        doctorDirectory.doctorSaved(savedDoctor);
+        return savedDoctor;
     }
 
     @Transactional
@@ -257,6 +269,7 @@ public class UserService {
         }
 
         Doctor existingDoctor = (Doctor) user;
+        boolean credentialsChanged = false;
 
         // Update fields if provided and valid
         if (updateDTO.getName() != null && !updateDTO.getName().trim().isEmpty()) {
@@ -266,10 +279,16 @@ public class UserService {
             if (userRepository.findByEmail(updateDTO.getEmail()).isPresent() && !updateDTO.getEmail().equals(email)) {
                 throw new RuntimeException("Email already in use: " + updateDTO.getEmail());
             }
+            credentialsChanged = !updateDTO.getEmail().trim().equals(email);
             existingDoctor.setEmail(updateDTO.getEmail().trim());
         }
         if (updateDTO.getPassword() != null && !updateDTO.getPassword().trim().isEmpty()) {
             existingDoctor.setPassword(passwordEncoder.encode(updateDTO.getPassword().trim()));
+            credentialsChanged = true;
+        }
+        if (credentialsChanged) {
+            tokenRevocationService.credentialsChanged(existingDoctor);
+            userDetailsCache.evict(email, existingDoctor.getEmail());
         }
         if (updateDTO.getAbout() != null && !updateDTO.getAbout().trim().isEmpty()) {
             existingDoctor.setAbout(updateDTO.getAbout().trim());
@@ -283,6 +302,7 @@ public class UserService {
 
         // Save the updated doctor
         Doctor updatedDoctor = (Doctor) userRepository.save(existingDoctor);
+        doctorDirectory.doctorSaved(updatedDoctor);
 
         // Return the updated profile as DTO
         return new DoctorProfileDTO(
@@ -296,55 +316,21 @@ public class UserService {
     }
 
     public List<DoctorDTO> getDoctorsBySpecialization(String specialization) {
-        // Standardize input - trim and adjust case if needed
-        String searchSpecialization = specialization.trim();
-
-        // Get doctors with the specified specialization
-        List<Doctor> doctors = userRepository.findByRoleAndSpecialisation("Doctor", searchSpecialization);
-
-        // Log the search and results for debugging
-        System.out.println("Searching for doctors with specialization: " + searchSpecialization);
-        System.out.println("Found " + doctors.size() + " doctors");
-
-        // Map to DTOs
-        return doctors.stream()
-                .map(doc -> {
-                    DoctorDTO dto = new DoctorDTO(
-                            doc.getId(),
-                            doc.getName(),
-                            doc.getEmail(),
-                            doc.getPhone(),
-                            doc.getSpecialisation(),
-                            doc.getImageUrl(),
-                            doc.getAbout(),
-                            doc.getExperience()
-                    );
-                    return dto;
-                })
-                .toList();
+        return doctorDirectory.getDoctorsBySpecialization(specialization);
+    }
+
+    public DoctorSearchResultDTO searchDoctors(String query, int page, int size) {
+        return doctorDirectory.search(query, page, size);
+    }
+
+    public CachedJson getSpecializationsJson() {
+        return doctorDirectory.getSpecializationsJson();
     }
 
     // Get a doctor by ID
     public DoctorDTO getDoctorById(Long doctorId) {
-        User user = userRepository.findById(doctorId)
+        return doctorDirectory.getDoctor(doctorId)
                 .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + doctorId));
-
-        if (!"Doctor".equals(user.getRole())) {
-            throw new RuntimeException("User is not a doctor");
-        }
-
-        Doctor doctor = (Doctor) user;
-
-        return new DoctorDTO(
-                doctor.getId(),
-                doctor.getName(),
-                doctor.getEmail(),
-                doctor.getPhone(),
-                doctor.getSpecialisation(),
-                doctor.getImageUrl(),
-                doctor.getAbout(),
-                doctor.getExperience()
-        );
     }
 
     public DoctorProfileDTO getLoggedInDoctor(String email) {
@@ -373,42 +359,27 @@ public class UserService {
         return userRepository.countByRole("PATIENT");
     }
 
-    public void sendPasswordResetCode(String email) {
-        // Validate email format
-        if (email == null || !email.matches("^[A-Za-z0-9+_.-]+@(.+)$")) {
-            throw new RuntimeException("Invalid email format");
-        }
-
-        // Check if user exists
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("No user found with email: " + email));
-
-        // Generate reset code
-        String code = String.valueOf((int) (Math.random() * 900000) + 100000); // 6-digit code
-
-        // Store the code
-        resetCodes.put(email, code);
-
-        try {
-            // Send the reset code via email
-            emailService.sendPasswordResetEmail(email, code);
-            System.out.println("Reset code sent to: " + email);
-        } catch (Exception e) {
-            // Remove the code if email sending fails
-            resetCodes.remove(email);
-            throw new RuntimeException("Failed to send reset code. Please try again later.");
-        }
+    public void sendPasswordResetCode(String email, String clientAddress) {
+        passwordResetService.sendCode(email, clientAddress);
     }
 
-    public void resetPassword(String email, String code, String newPassword) {
-        if (!resetCodes.containsKey(email) || !resetCodes.get(email).equals(code)) {
-            throw new RuntimeException("Invalid reset code");
+    /**
+     * @throws PasswordHashing.Overloaded if too many passwords are being hashed; the code stays usable
+     */
+    @Transactional
+    public void resetPassword(String email, String code, String newPassword, String clientAddress) {
+        if (newPassword == null || newPassword.isBlank()) {
+            throw new IllegalArgumentException("New password is required");
         }
+        // Hashed first: an overloaded hasher must not use up one of the code's attempts
+        String newHash = passwordEncoder.encode(newPassword);
+        passwordResetService.redeem(email, code, clientAddress);
         User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("No user with that email"));
-        user.setPassword(passwordEncoder.encode(newPassword));
+                .orElseThrow(() -> new IllegalArgumentException("No user with that email"));
+        user.setPassword(newHash);
+        tokenRevocationService.credentialsChanged(user);
         userRepository.save(user);
-        resetCodes.remove(email);
+        userDetailsCache.evict(email);
     }
 
     @Transactional
@@ -417,6 +388,8 @@ public class UserService {
         Patient existingPatient = (Patient) userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Patient not found with email: " + email));
 
+        boolean credentialsChanged = false;
+
         // Update fields if provided and valid
         if (updatedPatient.getName() != null && !updatedPatient.getName().trim().isEmpty()) {
             existingPatient.setName(updatedPatient.getName().trim());
@@ -425,10 +398,16 @@ public class UserService {
             if (userRepository.findByEmail(updatedPatient.getEmail()).isPresent() && !updatedPatient.getEmail().equals(email)) {
                 throw new RuntimeException("Email already in use: " + updatedPatient.getEmail());
             }
+            credentialsChanged = !updatedPatient.getEmail().trim().equals(email);
             existingPatient.setEmail(updatedPatient.getEmail().trim());
         }
         if (updatedPatient.getPassword() != null && !updatedPatient.getPassword().trim().isEmpty()) {
             existingPatient.setPassword(passwordEncoder.encode(updatedPatient.getPassword().trim()));
+            credentialsChanged = true;
+        }
+        if (credentialsChanged) {
+            tokenRevocationService.credentialsChanged(existingPatient);
+            userDetailsCache.evict(email, existingPatient.getEmail());
         }
         if (updatedPatient.getPhone() != null && !updatedPatient.getPhone().trim().isEmpty()) {
             existingPatient.setPhone(updatedPatient.getPhone().trim());
@@ -0,0 +1,79 @@
+package com.gloriatech.medimeet.util;
+
+import com.gloriatech.medimeet.service.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warnings and errors from request paths, limited per message so that a flood
+ * of failing requests cannot flood the log: each message may be logged a burst
+ * of times, then about once a second, and the next line logged says how many
+ * were dropped in between. Values go out as key-value pairs, which structured
+ * console logging (logging.structured.format.console) emits as separate fields.
+ */
+public final class RateLimitedLog {
+
+    private static final int BURST = 10;
+    private static final Duration REFILL = Duration.ofSeconds(1);
+    // Keys are message constants, so the number of distinct keys is small
+    private static final long MAX_MESSAGES = 1000;
+
+    private final Logger log;
+    private final RateLimiter limiter = new RateLimiter(BURST, REFILL, MAX_MESSAGES);
+    private final Map<String, AtomicLong> dropped = new ConcurrentHashMap<>();
+
+    public RateLimitedLog(Class<?> type) {
+        this.log = LoggerFactory.getLogger(type);
+    }
+
+    public Logger logger() {
+        return log;
+    }
+
+    /**
+     * Logs {@code message} with alternating key and value arguments, e.g.
+     * {@code warn("Appointment lookup failed", "email", email, "error", e.getMessage())}.
+     */
+    public void warn(String message, Object... keyValues) {
+        log(Level.WARN, message, null, keyValues);
+    }
+
+    public void error(String message, Throwable cause, Object... keyValues) {
+        log(Level.ERROR, message, cause, keyValues);
+    }
+
+    private void log(Level level, String message, Throwable cause, Object[] keyValues) {
+        if (!log.isEnabledForLevel(level)) {
+            return;
+        }
+        if (!limiter.tryAcquire(message)) {
+            dropped.computeIfAbsent(message, k -> new AtomicLong()).incrementAndGet();
+            return;
+        }
+        LoggingEventBuilder event = log.atLevel(level);
+        StringBuilder text = new StringBuilder(message);
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            String key = String.valueOf(keyValues[i]);
+            event = event.addKeyValue(key, keyValues[i + 1]);
+            // Also in the text, for the plain console format
+            text.append(' ').append(key).append('=').append(keyValues[i + 1]);
+        }
+        AtomicLong count = dropped.get(message);
+        long suppressed = count == null ? 0 : count.getAndSet(0);
+        if (suppressed > 0) {
+            event = event.addKeyValue("suppressed", suppressed);
+            text.append(" suppressed=").append(suppressed);
+        }
+        if (cause != null) {
+            event = event.setCause(cause);
+        }
+        event.log(text.toString());
+    }
+}
@@ -0,0 +1,94 @@
+-- Schema as previously generated by Hibernate auto-DDL. Every statement is
+-- idempotent so databases created before migrations existed are adopted as-is
+-- (they are baselined at version 0 and still run this script).
+
+CREATE TABLE IF NOT EXISTS users (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email              VARCHAR(255) NOT NULL,
+    password           VARCHAR(255),
+    role               VARCHAR(255),
+    credential_version INTEGER DEFAULT 0 NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+-- Added after the first release of the users table
+ALTER TABLE users ADD COLUMN IF NOT EXISTS credential_version INTEGER DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS doctor (
+    id             BIGINT NOT NULL PRIMARY KEY,
+    name           VARCHAR(255),
+    specialisation VARCHAR(255),
+    phone          VARCHAR(255),
+    image_url      VARCHAR(255),
+    about          VARCHAR(255),
+    experience     VARCHAR(255),
+    CONSTRAINT fk_doctor_user FOREIGN KEY (id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS patient (
+    id    BIGINT NOT NULL PRIMARY KEY,
+    name  VARCHAR(255),
+    phone VARCHAR(255),
+    CONSTRAINT fk_patient_user FOREIGN KEY (id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS admin (
+    id   BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(255),
+    CONSTRAINT fk_admin_user FOREIGN KEY (id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS appointment (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    doctor_id  BIGINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    date       DATE,
+    time       TIME,
+    comment    VARCHAR(255),
+    status     VARCHAR(255),
+    slot_held  BOOLEAN,
+    created_at TIMESTAMP(6),
+    CONSTRAINT fk_appointment_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id),
+    CONSTRAINT fk_appointment_patient FOREIGN KEY (patient_id) REFERENCES patient (id)
+);
+
+-- Added with slot-level double-booking protection; rows booked before it hold their slot
+ALTER TABLE appointment ADD COLUMN IF NOT EXISTS slot_held BOOLEAN;
+UPDATE appointment SET slot_held = TRUE WHERE slot_held IS NULL AND status <> 'rejected';
+
+-- Slots double-booked before that protection would fail the unique index below. Keep
+-- one holder per slot, an accepted appointment before others and then the oldest;
+-- the rest stay in place but release the slot
+UPDATE appointment SET slot_held = NULL
+WHERE slot_held IS NOT NULL
+  AND EXISTS (
+      SELECT 1 FROM appointment keeper
+      WHERE keeper.doctor_id = appointment.doctor_id
+        AND keeper.date = appointment.date
+        AND keeper.time = appointment.time
+        AND keeper.slot_held IS NOT NULL
+        AND (CASE WHEN keeper.status = 'accepted' THEN 0 ELSE 1 END
+                 < CASE WHEN appointment.status = 'accepted' THEN 0 ELSE 1 END
+             OR (CASE WHEN keeper.status = 'accepted' THEN 0 ELSE 1 END
+                     = CASE WHEN appointment.status = 'accepted' THEN 0 ELSE 1 END
+                 AND keeper.id < appointment.id)));
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_appointment_slot ON appointment (doctor_id, date, time, slot_held);
+
+CREATE TABLE IF NOT EXISTS appointment_status_count (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    doctor_id         BIGINT NOT NULL,
+    status            VARCHAR(255) NOT NULL,
+    appointment_count BIGINT NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_status_count_doctor_status ON appointment_status_count (doctor_id, status);
+
+CREATE TABLE IF NOT EXISTS doctor_availability (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    doctor_id    BIGINT NOT NULL,
+    day_of_week  VARCHAR(255) NOT NULL,
+    start_time   TIME NOT NULL,
+    end_time     TIME NOT NULL,
+    slot_minutes INTEGER NOT NULL
+);
@@ -0,0 +1,28 @@
+-- Indexes for the repository access paths. Composite keys list the equality
+-- columns first and end with the ORDER BY columns, so each query is a single
+-- index range scan that is already in the requested order.
+
+-- Doctor keyset pages, doctor listings, held slots of a day and the slot check
+CREATE INDEX IF NOT EXISTS idx_appointment_doctor_page ON appointment (doctor_id, date, time, id);
+
+-- Patient keyset pages, patient listings and the patient total
+CREATE INDEX IF NOT EXISTS idx_appointment_patient_page ON appointment (patient_id, date, time, id);
+
+-- Doctor appointments filtered by status, and the per-status counts behind the counters
+CREATE INDEX IF NOT EXISTS idx_appointment_doctor_status ON appointment (doctor_id, status, date, time, id);
+
+-- Recent appointments, the appointments-over-time range and its min/max bounds
+CREATE INDEX IF NOT EXISTS idx_appointment_date ON appointment (date, time, id);
+
+-- Users by role (listings, counts, id lookups)
+CREATE INDEX IF NOT EXISTS idx_users_role ON users (role);
+
+-- Tokens of users whose credentials changed, loaded at startup for revocation
+CREATE INDEX IF NOT EXISTS idx_users_credential_version ON users (credential_version);
+
+-- Doctors by specialisation (role is checked on the joined users row)
+CREATE INDEX IF NOT EXISTS idx_doctor_specialisation ON doctor (specialisation);
+
+-- Weekly templates of a doctor, already in day/start order
+DROP INDEX IF EXISTS idx_availability_doctor;
+CREATE INDEX IF NOT EXISTS idx_availability_doctor_day ON doctor_availability (doctor_id, day_of_week, start_time);
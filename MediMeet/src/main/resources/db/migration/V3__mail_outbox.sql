@@ -0,0 +1,16 @@
+-- Outbound mail queue drained by MailOutbox. Sent rows are deleted; rows that
+-- ran out of attempts stay with status 'failed' for inspection.
+CREATE TABLE IF NOT EXISTS mail_outbox (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recipient       VARCHAR(255) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    body            VARCHAR(4000) NOT NULL,
+    status          VARCHAR(255) NOT NULL,
+    attempts        INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP(6)
+);
+
+-- The drainer's claim: due rows of a status, oldest first
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_due ON mail_outbox (status, next_attempt_at);
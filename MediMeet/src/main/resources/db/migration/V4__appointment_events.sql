@@ -0,0 +1,20 @@
+-- Transactional outbox of appointment changes, written in the same transaction
+-- as the change itself and fanned out to email and live streams afterwards.
+CREATE TABLE IF NOT EXISTS appointment_event (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    appointment_id   BIGINT NOT NULL,
+    doctor_id        BIGINT NOT NULL,
+    patient_id       BIGINT NOT NULL,
+    type             VARCHAR(255) NOT NULL,
+    status           VARCHAR(255),
+    appointment_date DATE,
+    appointment_time TIME,
+    emailed          BOOLEAN NOT NULL,
+    created_at       TIMESTAMP(6)
+);
+
+-- Events still waiting for their email, oldest first
+CREATE INDEX IF NOT EXISTS idx_appointment_event_emailed ON appointment_event (emailed, id);
+
+-- Retention purge
+CREATE INDEX IF NOT EXISTS idx_appointment_event_created ON appointment_event (created_at);
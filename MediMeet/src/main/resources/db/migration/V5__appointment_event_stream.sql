@@ -0,0 +1,6 @@
+-- Status before the change, so clients can apply an event as a delta to their counts
+ALTER TABLE appointment_event ADD COLUMN IF NOT EXISTS previous_status VARCHAR(255);
+
+-- Stream resume (Last-Event-ID): a user's events after an id, for either party
+CREATE INDEX IF NOT EXISTS idx_appointment_event_doctor ON appointment_event (doctor_id, id);
+CREATE INDEX IF NOT EXISTS idx_appointment_event_patient ON appointment_event (patient_id, id);
@@ -0,0 +1,12 @@
+-- Outstanding password reset codes, one per email, shared by all nodes. Only an
+-- HMAC of the code is stored; expired rows are dead and purged periodically.
+CREATE TABLE IF NOT EXISTS password_reset_token (
+    email      VARCHAR(255) NOT NULL PRIMARY KEY,
+    code_hash  VARCHAR(64) NOT NULL,
+    attempts   INTEGER NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6)
+);
+
+-- The purge: rows past their expiry
+CREATE INDEX IF NOT EXISTS idx_password_reset_token_expires ON password_reset_token (expires_at);
@@ -0,0 +1,153 @@
+package com.gloriatech.medimeet.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gloriatech.medimeet.model.Admin;
+import com.gloriatech.medimeet.model.Appointment;
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.repository.AppointmentRepository;
+import com.gloriatech.medimeet.repository.UserRepository;
+import com.gloriatech.medimeet.service.AppointmentCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Admin dashboard aggregates: day, week (from Monday) and month buckets across
+ * month and year boundaries, and the typed global status counts.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminStatsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentCounters appointmentCounters;
+
+    private String adminEmail;
+    private Doctor doctor;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        String run = Long.toString(System.nanoTime(), 36);
+        Admin admin = new Admin("Admin " + run);
+        admin.setEmail("admin-" + run + "@stats.test");
+        admin.setPassword("x");
+        admin.setRole("ADMIN");
+        adminEmail = userRepository.save(admin).getEmail();
+
+        doctor = new Doctor("Dr Stats " + run, "General", "000", null, "about", "1 year");
+        doctor.setEmail("doctor-" + run + "@stats.test");
+        doctor.setPassword("x");
+        doctor.setRole("Doctor");
+        doctor = userRepository.save(doctor);
+
+        patient = new Patient("000", "Patient " + run);
+        patient.setEmail("patient-" + run + "@stats.test");
+        patient.setPassword("x");
+        patient.setRole("PATIENT");
+        patient = userRepository.save(patient);
+    }
+
+    @Test
+    void bucketsRollDaysUpAcrossMonthAndYearBoundaries() throws Exception {
+        // No other test books in 2053-2054
+        appointment("2053-12-30", 9, "pending");
+        appointment("2053-12-30", 10, "accepted");
+        appointment("2053-12-31", 9, "pending");
+        appointment("2054-01-02", 9, "rejected");
+        appointment("2054-01-05", 9, "accepted");
+        appointment("2054-02-28", 9, "pending");
+        appointment("2054-03-01", 9, "pending");
+
+        assertEquals(Map.of("2053-12-30", 2L, "2053-12-31", 1L, "2054-01-02", 1L, "2054-01-05", 1L,
+                "2054-02-28", 1L, "2054-03-01", 1L), overTime("2053-12-01", "2054-03-31", "day"));
+        // Tue 30 Dec to Fri 2 Jan is one week starting Monday 29 Dec; 28 Feb and 1 Mar share a week too
+        assertEquals(Map.of("2053-12-29", 4L, "2054-01-05", 1L, "2054-02-23", 2L),
+                overTime("2053-12-01", "2054-03-31", "week"));
+        assertEquals(Map.of("2053-12-01", 3L, "2054-01-01", 2L, "2054-02-01", 1L, "2054-03-01", 1L),
+                overTime("2053-12-01", "2054-03-31", "month"));
+        // The range bounds are inclusive and cut inside a bucket
+        assertEquals(Map.of("2053-12-29", 2L), overTime("2053-12-31", "2054-01-02", "week"));
+        assertEquals(Map.of(), overTime("2054-03-31", "2053-12-01", "day"));
+
+        mockMvc.perform(admin(get("/api/appointments/admin/appointments-over-time").param("bucket", "year")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void statusCountsAreTypedAndComeFromTheCounters() throws Exception {
+        // Other tests also save appointments around the counters; start from a recount
+        appointmentCounters.rebuild();
+        JsonNode before = json(admin(get("/api/appointments/admin/status-counts")));
+        appointment("2055-06-01", 9, "pending");
+        appointment("2055-06-01", 10, "accepted");
+        appointment("2055-06-01", 11, "accepted");
+        appointment("2055-06-01", 12, "rejected");
+        appointment("2055-06-01", 13, "cancelled");
+        // Saved through the repository, so the counters only see them after a rebuild
+        appointmentCounters.rebuild();
+
+        JsonNode after = json(admin(get("/api/appointments/admin/status-counts")));
+        assertEquals(4, after.size(), "exactly the four typed fields");
+        assertEquals(1, after.get("pending").asLong() - before.get("pending").asLong());
+        assertEquals(2, after.get("accepted").asLong() - before.get("accepted").asLong());
+        assertEquals(1, after.get("rejected").asLong() - before.get("rejected").asLong());
+        assertEquals(1, after.get("cancelled").asLong() - before.get("cancelled").asLong());
+
+        mockMvc.perform(get("/api/appointments/admin/status-counts").with(user(patient.getEmail()).roles("PATIENT")))
+                .andExpect(status().isForbidden());
+    }
+
+    private void appointment(String date, int hour, String status) {
+        appointmentRepository.save(new Appointment(null, doctor, patient, LocalDate.parse(date),
+                LocalTime.of(hour, 0), "stats", status));
+    }
+
+    private Map<String, Long> overTime(String from, String to, String bucket) throws Exception {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (JsonNode row : json(admin(get("/api/appointments/admin/appointments-over-time")
+                .param("from", from).param("to", to).param("bucket", bucket)))) {
+            counts.put(row.get("date").asText(), row.get("count").asLong());
+        }
+        return counts;
+    }
+
+    private RequestBuilder admin(MockHttpServletRequestBuilder request) {
+        return request.with(user(adminEmail).roles("ADMIN"));
+    }
+
+    private JsonNode json(RequestBuilder request) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,155 @@
+package com.gloriatech.medimeet.controller;
+
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.repository.AppointmentRepository;
+import com.gloriatech.medimeet.repository.UserRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.Address;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bookings and status changes reach the doctor's and patient's open event
+ * streams and their inboxes (an embedded GreenMail server) without polling,
+ * and a reconnecting stream resumes after its Last-Event-ID.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentEventStreamTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    void bookingAndStatusChangeAreStreamedAndEmailed() throws Exception {
+        String run = Long.toString(System.nanoTime(), 36);
+        Doctor doctor = new Doctor("Dr Stream", "General", "000", null, "about", "1 year");
+        doctor.setEmail("stream-" + run + "@doctor.test");
+        doctor.setPassword("x");
+        doctor.setRole("Doctor");
+        doctor = userRepository.save(doctor);
+        Patient patient = new Patient("000", "Stream Patient");
+        patient.setEmail("stream-" + run + "@patient.test");
+        patient.setPassword("x");
+        patient.setRole("PATIENT");
+        patient = userRepository.save(patient);
+
+        MockHttpServletResponse doctorStream = openStream(doctor.getEmail(), "Doctor");
+        MockHttpServletResponse patientStream = openStream(patient.getEmail(), "PATIENT");
+
+        mockMvc.perform(post("/api/appointments/bookAppointment")
+                        .param("doctorId", Long.toString(doctor.getId()))
+                        .param("date", "2032-02-02")
+                        .param("time", "11:00")
+                        .param("comment", "stream")
+                        .with(user(patient.getEmail()).roles("PATIENT")))
+                .andExpect(status().isOk());
+        await(() -> content(doctorStream).contains("event:booked"));
+        await(() -> content(patientStream).contains("event:booked"));
+        String doctorEmail = doctor.getEmail();
+        await(() -> receivedBy(doctorEmail));
+
+        Long appointmentId = appointmentRepository.findByDoctorId(doctor.getId()).get(0).getId();
+        mockMvc.perform(put("/api/appointments/" + appointmentId + "/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"accepted\"}"))
+                .andExpect(status().isOk());
+        await(() -> content(patientStream).contains("event:status"));
+        assertTrue(content(patientStream).contains("\"status\":\"accepted\""));
+        String patientEmail = patient.getEmail();
+        await(() -> receivedBy(patientEmail));
+
+        // A doctor reconnecting after the booking gets only what came after it, as a delta
+        Matcher bookedId = Pattern.compile("id:(\\d+)\nevent:booked").matcher(content(doctorStream));
+        assertTrue(bookedId.find());
+        MockHttpServletResponse resumed = mockMvc.perform(get("/api/appointments/doctor/stream")
+                        .header("Last-Event-ID", bookedId.group(1))
+                        .with(user(doctor.getEmail()).roles("Doctor")))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+        await(() -> content(resumed).contains("event:status"));
+        assertTrue(content(resumed).contains("\"previousStatus\":\"pending\",\"status\":\"accepted\""));
+        assertFalse(content(resumed).contains("event:booked"));
+    }
+
+    @Test
+    void streamRequiresALoggedInUser() throws Exception {
+        mockMvc.perform(get("/api/appointments/stream")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void doctorQueueStreamIsForDoctorsOnly() throws Exception {
+        Patient patient = new Patient("000", "Queue Patient");
+        patient.setEmail("queue-" + Long.toString(System.nanoTime(), 36) + "@patient.test");
+        patient.setPassword("x");
+        patient.setRole("PATIENT");
+        userRepository.save(patient);
+
+        mockMvc.perform(get("/api/appointments/doctor/stream").with(user(patient.getEmail()).roles("PATIENT")))
+                .andExpect(status().isForbidden());
+    }
+
+    private MockHttpServletResponse openStream(String email, String role) throws Exception {
+        return mockMvc.perform(get("/api/appointments/stream").with(user(email).roles(role)))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String content(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean receivedBy(String email) {
+        return Arrays.stream(greenMail.getReceivedMessages()).anyMatch(message -> {
+            try {
+                return Arrays.stream(message.getAllRecipients()).map(Address::toString).anyMatch(email::equals);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,128 @@
+package com.gloriatech.medimeet.controller;
+
+import com.gloriatech.medimeet.dto.AppointmentEventDTO;
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.repository.UserRepository;
+import com.gloriatech.medimeet.service.AppointmentStreamHub;
+import com.gloriatech.medimeet.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Holds thousands of idle doctor queue streams open against a real server and
+ * pushes one event through all of them, reporting threads and heap per stream.
+ * Opt-in, as it needs a few thousand file descriptors:
+ * {@code mvn test -Dtest=AppointmentStreamLoadTest -Dloadtest=true [-Dloadtest.connections=2000]}
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class AppointmentStreamLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private AppointmentStreamHub appointmentStreamHub;
+
+    @Test
+    void thousandsOfIdleStreamsShareAFewThreads() throws Exception {
+        int connections = Integer.getInteger("loadtest.connections", 2000);
+        Doctor doctor = new Doctor("Dr Load", "General", "000", null, "about", "1 year");
+        doctor.setEmail("load-" + Long.toString(System.nanoTime(), 36) + "@doctor.test");
+        doctor.setPassword("x");
+        doctor.setRole("Doctor");
+        doctor = userRepository.save(doctor);
+        String token = jwtService.generateToken(doctor);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        int streamsBefore = appointmentStreamHub.connectionCount();
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/appointments/doctor/stream"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "text/event-stream")
+                .build();
+        CountDownLatch received = new CountDownLatch(connections);
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+        long openStart = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(new EventCounter(received))));
+        }
+        for (int i = 0; i < 600 && appointmentStreamHub.connectionCount() - streamsBefore < connections; i++) {
+            Thread.sleep(100);
+        }
+        long openMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openStart);
+        assertEquals(connections, appointmentStreamHub.connectionCount() - streamsBefore);
+
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        long publishStart = System.nanoTime();
+        appointmentStreamHub.publish(new AppointmentEventDTO(Long.MAX_VALUE, "booked", 1L, doctor.getId(), -1L,
+                null, "pending", LocalDate.of(2032, 1, 1), LocalTime.of(9, 0)));
+        assertTrue(received.await(60, TimeUnit.SECONDS), received.getCount() + " streams missed the event");
+        long fanOutMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - publishStart);
+
+        System.out.printf("%d streams opened in %d ms; threads %d -> %d; heap %d -> %d MB (~%d KB per stream, "
+                        + "client side included); one event reached all of them in %d ms%n",
+                connections, openMs, threadsBefore, threadsAfter, heapBefore >> 20, heapAfter >> 20,
+                Math.max(0, heapAfter - heapBefore) / connections >> 10, fanOutMs);
+
+        responses.forEach(response -> response.cancel(true));
+    }
+
+    // Counts down once per stream when the booked event arrives
+    private record EventCounter(CountDownLatch received) implements Flow.Subscriber<String> {
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.equals("event:booked")) {
+                received.countDown();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.gloriatech.medimeet.controller;
+
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.repository.UserRepository;
+import com.gloriatech.medimeet.service.DoctorDirectory;
+import com.gloriatech.medimeet.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The public doctor listings come from the in-memory directory: admin updates
+ * show up as soon as they commit, other nodes' changes after a refresh, and the
+ * ETag moves with the snapshot version so unchanged listings answer 304.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class DoctorListingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DoctorDirectory doctorDirectory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Doctor doctor;
+    private String run;
+
+    @BeforeEach
+    void setUp() {
+        run = Long.toString(System.nanoTime(), 36);
+        doctor = new Doctor("Dr Listed " + run, "Cardiology", "000", "d.jpg", "about", "5 years");
+        doctor.setEmail("listed-" + run + "@listing.test");
+        doctor.setPassword("x");
+        doctor.setRole("Doctor");
+        doctor = userRepository.save(doctor);
+        doctorDirectory.refresh();
+    }
+
+    @Test
+    void listingsReflectAdminUpdatesAndRefreshes() throws Exception {
+        mockMvc.perform(get("/api/users/getDoctors"))
+                .andExpect(content().string(containsString("Dr Listed " + run)));
+
+        Doctor update = new Doctor();
+        update.setName("Dr Renamed " + run);
+        userService.updateDoctor(doctor.getId(), update, null);
+        mockMvc.perform(get("/api/users/getDoctors"))
+                .andExpect(content().string(containsString("Dr Renamed " + run)))
+                .andExpect(content().string(not(containsString("Dr Listed " + run))));
+
+        // Written behind the directory's back, as another node would
+        jdbcTemplate.update("update doctor set name = ? where id = ?", "Dr Elsewhere " + run, doctor.getId());
+        mockMvc.perform(get("/api/users/getHomeDoctors"))
+                .andExpect(content().string(containsString("Dr Renamed " + run)));
+        doctorDirectory.refresh();
+        mockMvc.perform(get("/api/users/getHomeDoctors"))
+                .andExpect(content().string(containsString("Dr Elsewhere " + run)));
+    }
+
+    @Test
+    void etagFollowsTheSnapshotVersion() throws Exception {
+        String etag = etag();
+        mockMvc.perform(get("/api/users/getDoctors").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        // A refresh that finds nothing new keeps the version
+        doctorDirectory.refresh();
+        assertEquals(etag, etag());
+
+        Doctor update = new Doctor();
+        update.setPhone("0790" + run);
+        userService.updateDoctor(doctor.getId(), update, null);
+        String changed = etag();
+        assertNotEquals(etag, changed);
+        mockMvc.perform(get("/api/users/getDoctors").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("0790" + run)));
+        mockMvc.perform(get("/api/users/getDoctors").header(HttpHeaders.IF_NONE_MATCH, changed))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void searchValidatesAndCapsPaging() throws Exception {
+        mockMvc.perform(get("/api/users/doctors/search").param("q", "listed " + run))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(doctor.getId()));
+        mockMvc.perform(get("/api/users/doctors/search").param("q", "cardio").param("page", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/doctors/search").param("q", "cardio").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/doctors/search").param("size", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(100));
+        mockMvc.perform(get("/api/users/doctors/search").param("page", "2147483647").param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty())
+                .andExpect(jsonPath("$.last").value(true));
+    }
+
+    private String etag() throws Exception {
+        return mockMvc.perform(get("/api/users/getDoctors"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
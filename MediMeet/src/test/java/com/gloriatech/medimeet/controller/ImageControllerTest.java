@@ -0,0 +1,170 @@
+package com.gloriatech.medimeet.controller;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Image serving over a real connector, so large files take Tomcat's sendfile
+ * path: validators and 304s, immutable caching of UUID uploads, byte ranges,
+ * pre-sized variants, and rejection of names outside the image directory.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ImageControllerTest {
+
+    private static final String SMALL = "0b8e4a52-6f1e-4c59-9a41-2d3c5e6f7a81.png";
+    private static final String LARGE = "5d2f9c3b-1a7e-4b6d-8c0f-9e8d7c6b5a43.jpg";
+
+    private static final Path DIR;
+    private static final byte[] SMALL_BYTES = randomBytes(2_000, 1);
+    private static final byte[] LARGE_BYTES = randomBytes(300_000, 2);
+
+    static {
+        try {
+            DIR = Files.createTempDirectory("medimeet-images");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void imageDir(DynamicPropertyRegistry registry) {
+        registry.add("images.dir", DIR::toString);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void writeImages() throws IOException {
+        Files.write(DIR.resolve(SMALL), SMALL_BYTES);
+        Files.write(DIR.resolve(LARGE), LARGE_BYTES);
+        Files.writeString(DIR.resolve("secret.txt"), "not an image");
+    }
+
+    @Test
+    void uploadsAreCachedForeverAndRevalidatedByETag() throws Exception {
+        HttpResponse<byte[]> first = get("/api/assets/" + SMALL);
+        assertEquals(200, first.statusCode());
+        assertArrayEquals(SMALL_BYTES, first.body());
+        assertEquals("image/png", first.headers().firstValue("Content-Type").orElseThrow());
+        assertTrue(first.headers().firstValue("Cache-Control").orElseThrow().contains("immutable"));
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertTrue(first.headers().firstValue("Last-Modified").isPresent());
+
+        HttpResponse<byte[]> revalidated = get("/api/users/image/" + SMALL, "If-None-Match", etag);
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(0, revalidated.body().length);
+    }
+
+    @Test
+    void largeImagesAreServedWholeAndByRange() throws Exception {
+        HttpResponse<byte[]> whole = get("/api/assets/" + LARGE);
+        assertEquals(200, whole.statusCode());
+        assertArrayEquals(LARGE_BYTES, whole.body());
+        assertEquals("bytes", whole.headers().firstValue("Accept-Ranges").orElseThrow());
+
+        HttpResponse<byte[]> part = get("/api/assets/" + LARGE, "Range", "bytes=100000-100099");
+        assertEquals(206, part.statusCode());
+        assertEquals("bytes 100000-100099/300000", part.headers().firstValue("Content-Range").orElseThrow());
+        assertArrayEquals(Arrays.copyOfRange(LARGE_BYTES, 100_000, 100_100), part.body());
+
+        HttpResponse<byte[]> tail = get("/api/assets/" + SMALL, "Range", "bytes=-10");
+        assertEquals(206, tail.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(SMALL_BYTES, 1_990, 2_000), tail.body());
+
+        // A stale If-Range gets the whole current file instead of a piece of it
+        HttpResponse<byte[]> stale = get("/api/assets/" + LARGE, "Range", "bytes=0-9", "If-Range", "\"old\"");
+        assertEquals(200, stale.statusCode());
+        assertEquals(LARGE_BYTES.length, stale.body().length);
+
+        assertEquals(416, get("/api/assets/" + LARGE, "Range", "bytes=400000-").statusCode());
+    }
+
+    @Test
+    void changedFilesUnderFixedNamesGetANewETag() throws Exception {
+        Path file = DIR.resolve("logo.png");
+        Files.write(file, randomBytes(500, 3));
+        HttpResponse<byte[]> before = get("/api/assets/logo.png");
+        assertEquals(200, before.statusCode());
+        assertTrue(before.headers().firstValue("Cache-Control").orElseThrow().contains("max-age=3600"));
+
+        Files.write(file, randomBytes(600, 4));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        HttpResponse<byte[]> after = get("/api/assets/logo.png");
+        assertEquals(600, after.body().length);
+        assertNotEquals(before.headers().firstValue("ETag").orElseThrow(),
+                after.headers().firstValue("ETag").orElseThrow());
+    }
+
+    @Test
+    void variantsAreServedAndMadeForOlderImages() throws Exception {
+        BufferedImage photo = new BufferedImage(900, 600, BufferedImage.TYPE_INT_RGB);
+        Files.write(DIR.resolve("portrait.png"), png(photo));
+
+        HttpResponse<byte[]> thumb = get("/api/assets/thumb/portrait.png");
+        assertEquals(200, thumb.statusCode());
+        assertEquals("image/png", thumb.headers().firstValue("Content-Type").orElseThrow());
+        BufferedImage scaled = ImageIO.read(new ByteArrayInputStream(thumb.body()));
+        assertEquals(128, scaled.getWidth());
+        assertTrue(Files.isRegularFile(DIR.resolve("thumb").resolve("portrait.png")));
+
+        // Not decodable, so there is no variant to make
+        assertEquals(404, get("/api/assets/card/" + SMALL).statusCode());
+        assertEquals(404, get("/api/assets/card/missing.png").statusCode());
+    }
+
+    @Test
+    void onlyPlainFileNamesInTheImageDirectoryAreServed() throws Exception {
+        assertEquals(404, get("/api/assets/missing.png").statusCode());
+        assertEquals(404, get("/api/assets/.hidden").statusCode());
+        assertTrue(get("/api/assets/..%2F..%2Fetc%2Fpasswd").statusCode() >= 400);
+        assertEquals("application/octet-stream",
+                get("/api/assets/secret.txt").headers().firstValue("Content-Type").orElseThrow());
+    }
+
+    private HttpResponse<byte[]> get(String path, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
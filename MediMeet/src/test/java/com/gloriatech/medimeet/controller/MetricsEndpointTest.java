@@ -0,0 +1,90 @@
+package com.gloriatech.medimeet.controller;
+
+import com.gloriatech.medimeet.model.Admin;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.repository.UserRepository;
+import com.gloriatech.medimeet.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The Prometheus endpoint only answers admins and carries the request, JWT
+ * filter, repository and mail metrics; health checks stay anonymous.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void prometheusScrapeHasEndpointFilterRepositoryAndMailMetrics() throws Exception {
+        Patient patient = new Patient("000", "Metrics Patient");
+        patient.setEmail("metrics-" + System.nanoTime() + "@metrics.test");
+        patient.setPassword("x");
+        patient.setRole("PATIENT");
+        patient = userRepository.save(patient);
+
+        mockMvc.perform(get("/api/appointments/patient")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(patient)))
+                .andExpect(status().isOk());
+
+        Admin admin = new Admin("Metrics Admin");
+        admin.setEmail("metrics-admin-" + System.nanoTime() + "@metrics.test");
+        admin.setPassword("x");
+        admin.setRole("ADMIN");
+        admin = userRepository.save(admin);
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(admin)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertMetric(scrape, "http_server_requests_seconds_count{", "uri=\"/api/appointments/patient\"");
+        assertMetric(scrape, "http_server_requests_seconds_bucket{", "uri=\"/api/appointments/patient\"");
+        assertMetric(scrape, "security_jwt_authentication_seconds_count{", "outcome=\"authenticated\"");
+        assertMetric(scrape, "spring_data_repository_invocations_seconds_count{", "repository=\"UserRepository\"");
+        assertMetric(scrape, "mail_outbox_queued_batches{", "application=\"medimeet\"");
+    }
+
+    @Test
+    void metricsAreRefusedToAnonymousAndNonAdminCallers() throws Exception {
+        Patient patient = new Patient("000", "Curious Patient");
+        patient.setEmail("curious-" + System.nanoTime() + "@metrics.test");
+        patient.setPassword("x");
+        patient.setRole("PATIENT");
+        patient = userRepository.save(patient);
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(patient)))
+                .andExpect(status().isForbidden());
+        // Reachable without credentials; whether it reports UP depends on the mail server
+        int health = mockMvc.perform(get("/actuator/health")).andReturn().getResponse().getStatus();
+        assertTrue(health != 401 && health != 403, "health answered " + health);
+    }
+
+    private static void assertMetric(String scrape, String name, String tag) {
+        boolean found = scrape.lines().anyMatch(line -> line.startsWith(name) && line.contains(tag));
+        assertTrue(found, name + " with " + tag + " in the scrape");
+    }
+}
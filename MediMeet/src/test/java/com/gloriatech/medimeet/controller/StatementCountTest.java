@@ -0,0 +1,195 @@
+package com.gloriatech.medimeet.controller;
+
+import com.gloriatech.medimeet.model.Appointment;
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.model.UserPrincipal;
+import com.gloriatech.medimeet.repository.AppointmentRepository;
+import com.gloriatech.medimeet.repository.UserRepository;
+import com.gloriatech.medimeet.service.AppointmentCounters;
+import com.gloriatech.medimeet.service.AppointmentEventDispatcher;
+import com.gloriatech.medimeet.service.CustomUserDetailsService;
+import com.gloriatech.medimeet.service.DoctorDirectory;
+import com.gloriatech.medimeet.service.UserDetailsCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each read path issues. The fixture has
+ * several doctors, patients and appointments, so any per-row loading (N+1)
+ * shows up as a higher count.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Event delivery runs on its own thread and would add its queries to the counts
+    @MockitoBean
+    private AppointmentEventDispatcher appointmentEventDispatcher;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentCounters appointmentCounters;
+
+    @Autowired
+    private DoctorDirectory doctorDirectory;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private Statistics statistics;
+    private Doctor doctor;
+    private Patient patient;
+    private Appointment appointment;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String run = Long.toString(System.nanoTime(), 36);
+        List<Doctor> doctors = new ArrayList<>();
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Doctor d = new Doctor("Dr " + run + i, "Cardiology", "000", "d.jpg", "about", "5 years");
+            d.setEmail("doctor" + i + "-" + run + "@count.test");
+            d.setPassword("x");
+            d.setRole("Doctor");
+            doctors.add(userRepository.save(d));
+
+            Patient p = new Patient("000", "Patient " + run + i);
+            p.setEmail("patient" + i + "-" + run + "@count.test");
+            p.setPassword("x");
+            p.setRole("PATIENT");
+            patients.add(userRepository.save(p));
+        }
+        for (int i = 0; i < 9; i++) {
+            appointment = appointmentRepository.save(new Appointment(null, doctors.get(i % 3), patients.get(i / 3),
+                    LocalDate.of(2031, 3, 1 + i), LocalTime.of(9, 0), "check-up", "pending"));
+        }
+        doctor = doctors.get(0);
+        patient = patients.get(0);
+        appointmentCounters.rebuild();
+    }
+
+    @Test
+    void doctorListingIsOneQueryThenServedFromMemory() throws Exception {
+        assertStatements(1, () -> doctorDirectory.refresh());
+        assertStatements(0, get("/api/users/getDoctors"));
+        assertStatements(0, get("/api/users/getHomeDoctors"));
+    }
+
+    @Test
+    void appointmentListsAreOneQueryWithPartyNames() throws Exception {
+        assertStatements(1, get("/api/appointments"));
+        assertStatements(1, get("/api/appointments/allRecentAppointments"));
+    }
+
+    @Test
+    void ownAppointmentListsAreIdentityPlusOnePageQuery() throws Exception {
+        assertStatements(2, get("/api/appointments/doctor").with(user(doctor.getEmail()).roles("Doctor")));
+        assertStatements(2, get("/api/appointments/patient").with(user(patient.getEmail()).roles("PATIENT")));
+        assertStatements(2, get("/api/appointments/recentAppointment").with(user(doctor.getEmail()).roles("Doctor")));
+        assertStatements(2, get("/api/appointments/doctor/counts").with(user(doctor.getEmail()).roles("Doctor")));
+    }
+
+    @Test
+    void jwtPrincipalNeedsNoIdentityLookup() throws Exception {
+        UserPrincipal principal = new UserPrincipal(doctor.getId(), doctor.getEmail(), "Doctor");
+        assertStatements(1, get("/api/appointments/doctor").with(authentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()))));
+    }
+
+    @Test
+    void authLookupReadsOnlyTheUsersTable() {
+        userDetailsCache.evict(patient.getEmail());
+        assertStatements(1, () -> userDetailsService.loadUserByUsername(patient.getEmail()));
+    }
+
+    @Test
+    void loginFetchesTheUserOnceAndRehashesOldHashesOnce() throws Exception {
+        // Stored before the {bcrypt} prefix, at a lower strength than configured
+        String legacyHash = new BCryptPasswordEncoder(4).encode("secret");
+        userRepository.rehashPassword(patient.getId(), "x", legacyHash);
+        RequestBuilder login = post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + patient.getEmail() + "\",\"password\":\"secret\"}");
+
+        assertStatements(2, login);
+        String upgraded = userRepository.findCredentialsByEmail(patient.getEmail()).orElseThrow().getPassword();
+        assertTrue(upgraded.startsWith("{bcrypt}"));
+        assertTrue(passwordEncoder.matches("secret", upgraded));
+        assertFalse(passwordEncoder.upgradeEncoding(upgraded));
+
+        assertStatements(1, login);
+    }
+
+    @Test
+    void writesLoadPartiesOnce() throws Exception {
+        // Each write also inserts its appointment_event outbox row
+        assertStatements(5, put("/api/appointments/" + appointment.getId() + "/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"accepted\"}"));
+        assertStatements(9, post("/api/appointments/bookAppointment")
+                .param("doctorId", Long.toString(doctor.getId()))
+                .param("date", "2031-04-01")
+                .param("time", "10:00")
+                .param("comment", "new")
+                .with(user(patient.getEmail()).roles("PATIENT")));
+    }
+
+    private void assertStatements(long expected, RequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements");
+    }
+
+    private void assertStatements(long expected, Runnable action) {
+        statistics.clear();
+        action.run();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements");
+    }
+}
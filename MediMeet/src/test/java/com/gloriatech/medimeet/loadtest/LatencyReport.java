@@ -0,0 +1,101 @@
+package com.gloriatech.medimeet.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response times per endpoint, recorded exactly (every sample is kept) and
+ * summarised as count, errors, throughput and p50/p95/p99/max. Each driver
+ * thread records into its own report; they are merged at the end.
+ */
+class LatencyReport {
+
+    private final Map<String, Samples> endpoints = new TreeMap<>();
+
+    void record(String endpoint, long nanos, boolean error) {
+        endpoints.computeIfAbsent(endpoint, k -> new Samples()).add(nanos, error);
+    }
+
+    void merge(LatencyReport other) {
+        other.endpoints.forEach((endpoint, samples) ->
+                endpoints.computeIfAbsent(endpoint, k -> new Samples()).addAll(samples));
+    }
+
+    Map<String, Summary> summarise(long durationNanos) {
+        Map<String, Summary> summaries = new TreeMap<>();
+        endpoints.forEach((endpoint, samples) -> summaries.put(endpoint, samples.summarise(durationNanos)));
+        return summaries;
+    }
+
+    void print(PrintStream out, long durationNanos) {
+        out.printf("%n%-28s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        summarise(durationNanos).forEach((endpoint, s) -> out.printf("%-28s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, s.count(), s.errors(), s.perSecond(), s.p50(), s.p95(), s.p99(), s.max()));
+    }
+
+    void writeCsv(Path file, long durationNanos) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,count,errors,requests_per_second,p50_ms,p95_ms,p99_ms,max_ms");
+        summarise(durationNanos).forEach((endpoint, s) -> lines.add(String.format("%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f",
+                endpoint, s.count(), s.errors(), s.perSecond(), s.p50(), s.p95(), s.p99(), s.max())));
+        Files.createDirectories(file.getParent());
+        Files.write(file, lines);
+    }
+
+    record Summary(int count, int errors, double perSecond, double p50, double p95, double p99, double max) {
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        void add(long value, boolean error) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = value;
+            if (error) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.nanos[i], false);
+            }
+            errors += other.errors;
+        }
+
+        Summary summarise(long durationNanos) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return new Summary(count, errors, count / (durationNanos / 1e9),
+                    millis(percentile(sorted, 50)), millis(percentile(sorted, 95)), millis(percentile(sorted, 99)),
+                    millis(count == 0 ? 0 : sorted[count - 1]));
+        }
+
+        // Nearest-rank percentile
+        private static long percentile(long[] sorted, double percent) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percent / 100 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
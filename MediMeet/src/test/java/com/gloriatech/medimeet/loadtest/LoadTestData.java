@@ -0,0 +1,139 @@
+package com.gloriatech.medimeet.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic doctors, patients and appointments written straight to the tables
+ * with JDBC batches, so a realistic data size is seeded in seconds rather than
+ * through one JPA save (and one password hash) per row. Rows get explicit ids
+ * above the current maximum; the identity columns are moved past them
+ * afterwards so the application's own inserts do not collide.
+ * <p>
+ * Every patient shares one password hash, every doctor is available daily from
+ * {@link #OPENS} to {@link #CLOSES} in {@link #SLOT_MINUTES} minute slots, and each
+ * doctor's appointments sit in distinct slots before {@link #FIRST_FREE_DATE}, so
+ * bookings from that date on do not conflict with seeded rows.
+ */
+class LoadTestData {
+
+    static final LocalDate FIRST_FREE_DATE = LocalDate.of(2040, 1, 1);
+    static final LocalTime OPENS = LocalTime.of(8, 0);
+    static final LocalTime CLOSES = LocalTime.of(20, 0);
+    static final int SLOT_MINUTES = 30;
+
+    private static final String[] SPECIALISATIONS = {"Cardiology", "Dermatology", "Neurology", "Pediatrics",
+            "Orthopedics", "Psychiatry", "Oncology", "General"};
+    private static final String[] STATUSES = {"pending", "accepted", "accepted", "completed", "rejected"};
+    private static final String[] NAMES = {"Amara", "Bruno", "Chen", "Divya", "Emeka", "Farah", "Goran", "Hana",
+            "Ivan", "Jia", "Kofi", "Lena", "Mateo", "Nia", "Omar", "Priya"};
+    private static final int BATCH = 1000;
+    private static final int SLOTS_PER_DAY = 16;
+
+    private final JdbcTemplate jdbc;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    final List<Long> doctorIds = new ArrayList<>();
+    final List<String> doctorEmails = new ArrayList<>();
+    final List<Long> patientIds = new ArrayList<>();
+    final List<String> patientEmails = new ArrayList<>();
+
+    LoadTestData(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    void seed(int doctors, int patients, int appointments, String passwordHash) {
+        String run = Long.toString(System.nanoTime(), 36);
+        long nextUserId = maxId("users") + 1;
+
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> doctorRows = new ArrayList<>();
+        for (int i = 0; i < doctors; i++) {
+            long id = nextUserId++;
+            String email = "doctor" + i + "-" + run + "@load.test";
+            users.add(new Object[]{id, email, passwordHash, "Doctor"});
+            doctorRows.add(new Object[]{id, "Dr " + NAMES[i % NAMES.length] + " " + i,
+                    SPECIALISATIONS[i % SPECIALISATIONS.length], "0780" + String.format("%06d", i),
+                    "assets/doctor-" + (i % 50) + ".jpg",
+                    "Experienced " + SPECIALISATIONS[i % SPECIALISATIONS.length].toLowerCase() + " specialist.",
+                    (1 + i % 30) + " years"});
+            doctorIds.add(id);
+            doctorEmails.add(email);
+        }
+        List<Object[]> patientRows = new ArrayList<>();
+        for (int i = 0; i < patients; i++) {
+            long id = nextUserId++;
+            String email = "patient" + i + "-" + run + "@load.test";
+            users.add(new Object[]{id, email, passwordHash, "PATIENT"});
+            patientRows.add(new Object[]{id, NAMES[i % NAMES.length] + " Patient " + i, "0790" + String.format("%06d", i)});
+            patientIds.add(id);
+            patientEmails.add(email);
+        }
+        batch("insert into users (id, email, password, role, credential_version) values (?, ?, ?, ?, 0)", users);
+        batch("insert into doctor (id, name, specialisation, phone, image_url, about, experience) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", doctorRows);
+        batch("insert into patient (id, name, phone) values (?, ?, ?)", patientRows);
+        restartIdentity("users", nextUserId);
+
+        List<Object[]> windows = new ArrayList<>();
+        for (long doctorId : doctorIds) {
+            for (DayOfWeek day : DayOfWeek.values()) {
+                windows.add(new Object[]{doctorId, day.name(), Time.valueOf(OPENS), Time.valueOf(CLOSES), SLOT_MINUTES});
+            }
+        }
+        batch("insert into doctor_availability (doctor_id, day_of_week, start_time, end_time, slot_minutes) "
+                + "values (?, ?, ?, ?, ?)", windows);
+
+        long nextAppointmentId = maxId("appointment") + 1;
+        LocalDate firstDate = FIRST_FREE_DATE.minusDays((long) appointments / Math.max(1, doctors) / SLOTS_PER_DAY + 1);
+        List<Object[]> appointmentRows = new ArrayList<>(BATCH);
+        for (int i = 0; i < appointments; i++) {
+            // Slot i / doctors of doctor i % doctors: unique per doctor, so the slot constraint holds
+            int slot = i / doctors;
+            LocalDate date = firstDate.plusDays(slot / SLOTS_PER_DAY);
+            LocalTime time = LocalTime.of(9, 0).plusMinutes((long) SLOT_MINUTES * (slot % SLOTS_PER_DAY));
+            String status = STATUSES[random.nextInt(STATUSES.length)];
+            appointmentRows.add(new Object[]{nextAppointmentId++, doctorIds.get(i % doctors),
+                    patientIds.get(random.nextInt(patients)), Date.valueOf(date), Time.valueOf(time),
+                    "Seeded visit " + i, status, "rejected".equals(status) ? null : Boolean.TRUE,
+                    Timestamp.valueOf(LocalDateTime.now().minusMinutes(appointments - i))});
+            if (appointmentRows.size() == BATCH) {
+                insertAppointments(appointmentRows);
+                appointmentRows.clear();
+            }
+        }
+        insertAppointments(appointmentRows);
+        restartIdentity("appointment", nextAppointmentId);
+    }
+
+    private void insertAppointments(List<Object[]> rows) {
+        batch("insert into appointment (id, doctor_id, patient_id, date, time, comment, status, slot_held, created_at) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH, rows.size())));
+        }
+    }
+
+    private long maxId(String table) {
+        Long max = jdbc.queryForObject("select max(id) from " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    // Same syntax on H2 and PostgreSQL
+    private void restartIdentity(String table, long next) {
+        jdbc.execute("alter table " + table + " alter column id restart with " + next);
+    }
+}
@@ -0,0 +1,223 @@
+package com.gloriatech.medimeet.loadtest;
+
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.model.User;
+import com.gloriatech.medimeet.service.AppointmentCounters;
+import com.gloriatech.medimeet.service.DoctorDirectory;
+import com.gloriatech.medimeet.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays the production traffic mix against a real server on a seeded database
+ * and reports p50/p95/p99 latency per endpoint: landing-page doctor listings,
+ * logins, availability lookups and bookings, patient appointment lists and
+ * doctor dashboard polling. A fixed number of simulated users send requests
+ * back to back for the measured duration, after an unrecorded warm-up.
+ * <p>
+ * Opt-in: {@code mvn -Ploadtest test} or
+ * {@code mvn test -Dtest=TrafficMixLoadTest -Dloadtest=true}, with optional
+ * {@code -Dloadtest.doctors=200 -Dloadtest.patients=5000 -Dloadtest.appointments=50000
+ * -Dloadtest.users=32 -Dloadtest.duration-seconds=30 -Dloadtest.warmup-seconds=5}.
+ * Runs on the in-memory H2 database in PostgreSQL mode; pass
+ * {@code -Dspring.datasource.url=jdbc:postgresql://...} (and credentials) to use
+ * a real PostgreSQL. The summary is also written to target/loadtest/traffic-mix.csv.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class TrafficMixLoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private AppointmentCounters appointmentCounters;
+
+    @Autowired
+    private DoctorDirectory doctorDirectory;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private LoadTestData data;
+    private List<String> doctorTokens;
+    private List<String> patientTokens;
+
+    @Test
+    void productionTrafficMix() throws Exception {
+        int doctors = Integer.getInteger("loadtest.doctors", 200);
+        int patients = Integer.getInteger("loadtest.patients", 5000);
+        int appointments = Integer.getInteger("loadtest.appointments", 50000);
+        int users = Integer.getInteger("loadtest.users", 32);
+        long warmupNanos = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 5)).toNanos();
+        long durationNanos = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 30)).toNanos();
+
+        long seedStart = System.nanoTime();
+        data = new LoadTestData(jdbcTemplate);
+        data.seed(doctors, patients, appointments, passwordEncoder.encode(PASSWORD));
+        // The read models are normally kept up to date by the application's own writes
+        appointmentCounters.rebuild();
+        doctorDirectory.refresh();
+        System.out.printf("Seeded %d doctors, %d patients and %d appointments in %d ms%n", doctors, patients,
+                appointments, Duration.ofNanos(System.nanoTime() - seedStart).toMillis());
+
+        doctorTokens = new ArrayList<>();
+        for (int i = 0; i < doctors; i++) {
+            doctorTokens.add(jwtService.generateToken(user(new Doctor(), data.doctorIds.get(i), data.doctorEmails.get(i), "Doctor")));
+        }
+        patientTokens = new ArrayList<>();
+        for (int i = 0; i < Math.min(patients, 1000); i++) {
+            patientTokens.add(jwtService.generateToken(user(new Patient(), data.patientIds.get(i), data.patientEmails.get(i), "PATIENT")));
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        List<Future<LatencyReport>> reports = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(7);
+        for (int i = 0; i < users; i++) {
+            SplittableRandom random = seeds.split();
+            reports.add(pool.submit(() -> drive(random, measureFrom, end)));
+        }
+        LatencyReport report = new LatencyReport();
+        try {
+            for (Future<LatencyReport> future : reports) {
+                report.merge(future.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        System.out.printf("%nTraffic mix: %d users for %d s on %d doctors, %d patients, %d appointments%n",
+                users, Duration.ofNanos(durationNanos).toSeconds(), doctors, patients, appointments);
+        report.print(System.out, durationNanos);
+        report.writeCsv(Path.of("target", "loadtest", "traffic-mix.csv"), durationNanos);
+
+        Map<String, LatencyReport.Summary> summaries = report.summarise(durationNanos);
+        for (Map.Entry<String, LatencyReport.Summary> entry : summaries.entrySet()) {
+            assertEquals(0, entry.getValue().errors(), entry.getKey() + " errors");
+        }
+        assertTrue(summaries.size() >= 10, "every endpoint in the mix was exercised");
+    }
+
+    // One simulated user: weighted requests back to back until the end of the run
+    private LatencyReport drive(SplittableRandom random, long measureFrom, long end) throws Exception {
+        LatencyReport report = new LatencyReport();
+        while (System.nanoTime() < end) {
+            Request request = next(random);
+            long sent = System.nanoTime();
+            int status = client.send(request.http(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            long elapsed = System.nanoTime() - sent;
+            if (sent >= measureFrom) {
+                report.record(request.endpoint(), elapsed, status >= 400 && !request.allowed(status));
+            }
+        }
+        return report;
+    }
+
+    // Weights out of 100: 40 landing page, 5 login, 10 booking, 5 patient list, 40 doctor dashboard polling
+    private Request next(SplittableRandom random) {
+        int dice = random.nextInt(100);
+        long doctorId = data.doctorIds.get(random.nextInt(data.doctorIds.size()));
+        String patientToken = patientTokens.get(random.nextInt(patientTokens.size()));
+        String doctorToken = doctorTokens.get(random.nextInt(doctorTokens.size()));
+        if (dice < 25) {
+            return get("getHomeDoctors", "/api/users/getHomeDoctors", null);
+        } else if (dice < 30) {
+            return get("getAllSpecializations", "/api/users/getAllSpecializations", null);
+        } else if (dice < 35) {
+            return get("doctors/search", "/api/users/doctors/search?q=dr%20" + (char) ('a' + random.nextInt(16)), null);
+        } else if (dice < 40) {
+            return get("doctors/{id}", "/api/users/doctors/" + doctorId, null);
+        } else if (dice < 45) {
+            int patient = random.nextInt(data.patientEmails.size());
+            String body = "{\"email\":\"" + data.patientEmails.get(patient) + "\",\"password\":\"" + PASSWORD + "\"}";
+            return new Request("login", HttpRequest.newBuilder(uri("/api/users/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), false);
+        } else if (dice < 50) {
+            String date = LoadTestData.FIRST_FREE_DATE.plusDays(random.nextInt(365)).toString();
+            return get("availability", "/api/appointments/availability?doctorId=" + doctorId + "&date=" + date, null);
+        } else if (dice < 55) {
+            // Random future slots; the occasional 409 for a taken slot is a normal outcome
+            String date = LoadTestData.FIRST_FREE_DATE.plusDays(random.nextInt(365)).toString();
+            int slots = (int) Duration.between(LoadTestData.OPENS, LoadTestData.CLOSES).toMinutes() / LoadTestData.SLOT_MINUTES;
+            String time = LoadTestData.OPENS.plusMinutes((long) LoadTestData.SLOT_MINUTES * random.nextInt(slots)).toString();
+            return new Request("bookAppointment", HttpRequest.newBuilder(uri("/api/appointments/bookAppointment?doctorId="
+                            + doctorId + "&date=" + date + "&time=" + time + "&comment=load"))
+                    .header("Authorization", "Bearer " + patientToken)
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), true);
+        } else if (dice < 60) {
+            return get("appointments/patient", "/api/appointments/patient", patientToken);
+        } else if (dice < 80) {
+            return get("appointments/doctor", "/api/appointments/doctor", doctorToken);
+        } else if (dice < 95) {
+            return get("doctor/counts", "/api/appointments/doctor/counts", doctorToken);
+        } else {
+            return get("recentAppointment", "/api/appointments/recentAppointment", doctorToken);
+        }
+    }
+
+    private Request get(String endpoint, String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return new Request(endpoint, request.build(), false);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static User user(User user, long id, String email, String role) {
+        user.setId(id);
+        user.setEmail(email);
+        user.setRole(role);
+        return user;
+    }
+
+    private record Request(String endpoint, HttpRequest http, boolean conflictAllowed) {
+
+        boolean allowed(int status) {
+            return conflictAllowed && status == 409;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.gloriatech.medimeet.repository;
+
+import com.gloriatech.medimeet.config.SchemaConfig;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Adopting a database that Hibernate created before migrations existed, and
+ * that already holds double bookings, still gets through the baseline script:
+ * one appointment keeps each slot and the unique slot index is created.
+ */
+class BaselineMigrationTest {
+
+    @Test
+    void duplicateSlotHoldersAreReleasedBeforeTheSlotIndex() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:adopted-" + System.nanoTime()
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        // Tables as an early release generated them: no credential versions, no slot_held
+        jdbc.execute("create table users (id bigint generated by default as identity primary key, "
+                + "email varchar(255) not null, password varchar(255), role varchar(255))");
+        jdbc.execute("create table doctor (id bigint not null primary key, name varchar(255), "
+                + "specialisation varchar(255), phone varchar(255), image_url varchar(255), "
+                + "about varchar(255), experience varchar(255))");
+        jdbc.execute("create table patient (id bigint not null primary key, name varchar(255), phone varchar(255))");
+        jdbc.execute("create table appointment (id bigint generated by default as identity primary key, "
+                + "doctor_id bigint not null, patient_id bigint not null, date date, time time, "
+                + "comment varchar(255), status varchar(255), created_at timestamp(6))");
+        jdbc.update("insert into users (id, email, role) values (1, 'd1@adopted.test', 'Doctor'), "
+                + "(2, 'd2@adopted.test', 'Doctor'), (3, 'p@adopted.test', 'PATIENT')");
+        jdbc.update("insert into doctor (id, name) values (1, 'Dr One'), (2, 'Dr Two')");
+        jdbc.update("insert into patient (id, name) values (3, 'Patient')");
+        jdbc.update("insert into appointment (id, doctor_id, patient_id, date, time, status) values "
+                + "(1, 1, 3, date '2025-03-03', time '09:00', 'pending'), "
+                + "(2, 1, 3, date '2025-03-03', time '09:00', 'accepted'), "
+                + "(3, 1, 3, date '2025-03-03', time '09:00', 'pending'), "
+                + "(4, 1, 3, date '2025-03-03', time '09:00', 'rejected'), "
+                + "(5, 1, 3, date '2025-03-03', time '10:00', 'pending'), "
+                + "(6, 1, 3, date '2025-03-04', time '09:00', 'pending'), "
+                + "(7, 1, 3, date '2025-03-04', time '09:00', 'pending'), "
+                + "(8, 2, 3, date '2025-03-03', time '09:00', 'pending')");
+
+        FluentConfiguration configuration = Flyway.configure().dataSource(dataSource);
+        new SchemaConfig().baselineExistingSchema().customize(configuration);
+        configuration.load().migrate();
+
+        // The accepted booking wins its slot, otherwise the oldest; nothing is deleted
+        assertEquals(List.of(2L, 5L, 6L, 8L),
+                jdbc.queryForList("select id from appointment where slot_held is not null order by id", Long.class));
+        assertEquals(8, jdbc.queryForObject("select count(*) from appointment", Integer.class));
+        assertThrows(RuntimeException.class, () -> jdbc.update("insert into appointment "
+                + "(doctor_id, patient_id, date, time, status, slot_held) "
+                + "values (1, 3, date '2025-03-03', time '09:00', 'pending', true)"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.gloriatech.medimeet.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the embedded database, whose schema comes from the Flyway
+ * migrations, and checks that each repository access path is served by the
+ * index meant for it rather than a table scan.
+ * H2 does not cost ORDER BY and creates its own indexes for foreign keys, so
+ * where another index with the same leading column ties it is accepted too.
+ */
+@SpringBootTest
+class IndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void doctorPageUsesDoctorPageIndex() {
+        assertUsesIndex("idx_appointment_doctor_page|uk_appointment_slot",
+                "select a.id from appointment a where a.doctor_id = 1 order by a.date, a.time, a.id");
+        assertUsesIndex("idx_appointment_doctor_page|uk_appointment_slot",
+                "select a.id from appointment a where a.doctor_id = 1 and (a.date > date '2025-01-01' "
+                        + "or (a.date = date '2025-01-01' and (a.time > time '09:00' "
+                        + "or (a.time = time '09:00' and a.id > 5)))) order by a.date, a.time, a.id");
+        assertUsesIndex("idx_appointment_doctor_page|uk_appointment_slot",
+                "select a.time from appointment a where a.doctor_id = 1 and a.date = date '2025-01-01' "
+                        + "and a.slot_held = true");
+    }
+
+    @Test
+    void patientPageUsesPatientPageIndex() {
+        assertUsesIndex("idx_appointment_patient_page",
+                "select a.id from appointment a where a.patient_id = 1 order by a.date, a.time, a.id");
+        assertUsesIndex("idx_appointment_patient_page|fk_appointment_patient",
+                "select count(a.id) from appointment a where a.patient_id = 1");
+    }
+
+    @Test
+    void doctorStatusQueriesUseDoctorStatusIndex() {
+        assertUsesIndex("idx_appointment_doctor_status",
+                "select a.id from appointment a where a.doctor_id = 1 and a.status = 'pending' "
+                        + "order by a.date, a.time, a.id");
+        assertUsesIndex("idx_appointment_doctor_status",
+                "select count(a.id) from appointment a where a.doctor_id = 1 and a.status = 'pending'");
+    }
+
+    @Test
+    void dateQueriesUseDateIndex() {
+        assertUsesIndex("idx_appointment_date",
+                "select a.date, count(a.id) from appointment a "
+                        + "where a.date between date '2025-01-01' and date '2025-01-31' group by a.date");
+        assertUsesIndex("idx_appointment_date",
+                "select a.id from appointment a order by a.date desc, a.time desc, a.id desc limit 3");
+    }
+
+    @Test
+    void userLookupsUseUserIndexes() {
+        assertUsesIndex("idx_users_role", "select u.id from users u where u.role = 'DOCTOR'");
+        assertUsesIndex("idx_users_role", "select count(u.id) from users u where u.role = 'PATIENT'");
+        assertUsesIndex("idx_users_credential_version",
+                "select u.id, u.credential_version from users u where u.credential_version > 0");
+        assertUsesIndex("idx_doctor_specialisation",
+                "select u.id from users u join doctor d on d.id = u.id "
+                        + "where u.role = 'DOCTOR' and d.specialisation = 'Cardiology'");
+    }
+
+    @Test
+    void availabilityUsesDoctorDayIndex() {
+        assertUsesIndex("idx_availability_doctor_day",
+                "select a.id from doctor_availability a where a.doctor_id = 1 and a.day_of_week = 'MONDAY' "
+                        + "order by a.start_time");
+    }
+
+    // indexes: one index name, or several separated by '|'
+    private void assertUsesIndex(String indexes, String sql) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        String normalized = plan == null ? "" : plan.toLowerCase();
+        assertTrue(Arrays.stream(indexes.split("\\|")).anyMatch(normalized::contains),
+                () -> "Expected " + indexes + " in plan:\n" + plan);
+    }
+}
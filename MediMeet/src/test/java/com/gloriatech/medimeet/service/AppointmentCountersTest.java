@@ -0,0 +1,177 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.dto.AppointmentDTO;
+import com.gloriatech.medimeet.dto.AppointmentStatusCountsDTO;
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The per-doctor counters follow bookings, status changes and cancellations,
+ * rebuilds agree with the appointment table, and concurrent first writes for a
+ * doctor without counter rows all succeed.
+ */
+@SpringBootTest
+class AppointmentCountersTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentCounters appointmentCounters;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void countersFollowBookingStatusChangesAndCancellation() {
+        long doctorId = doctor(true);
+        String patient = patient();
+        AppointmentDTO first = book(patient, doctorId, LocalDate.of(2056, 5, 3), LocalTime.of(9, 0));
+        AppointmentDTO second = book(patient, doctorId, LocalDate.of(2056, 5, 3), LocalTime.of(9, 30));
+        assertCounts(doctorId, 2, 0, 0, 0);
+
+        appointmentService.updateAppointmentStatus(first.getId(), "accepted");
+        appointmentService.updateAppointmentStatus(second.getId(), "rejected");
+        assertCounts(doctorId, 0, 1, 1, 0);
+
+        // Cancelling deletes the appointment: its status goes down and nothing is counted as cancelled
+        appointmentService.cancelAppointment(first.getId());
+        assertCounts(doctorId, 0, 0, 1, 0);
+        assertEquals(tableCounts(doctorId), counterRows(doctorId));
+    }
+
+    @Test
+    void rebuildRecountsFromTheAppointmentTable() {
+        long doctorId = doctor(true);
+        String patient = patient();
+        AppointmentDTO booked = book(patient, doctorId, LocalDate.of(2056, 6, 1), LocalTime.of(9, 0));
+        book(patient, doctorId, LocalDate.of(2056, 6, 1), LocalTime.of(10, 0));
+        appointmentService.updateAppointmentStatus(booked.getId(), "accepted");
+
+        jdbcTemplate.update("update appointment_status_count set appointment_count = 99 where doctor_id = ?", doctorId);
+        appointmentCounters.rebuild();
+
+        assertCounts(doctorId, 1, 1, 0, 0);
+        assertEquals(tableCounts(doctorId), counterRows(doctorId));
+        Map<String, Long> global = new HashMap<>();
+        jdbcTemplate.query("select status, count(*) from appointment group by status",
+                row -> {
+                    global.put(row.getString(1), row.getLong(2));
+                });
+        AppointmentStatusCountsDTO counts = appointmentCounters.getGlobalCounts();
+        assertEquals(global.getOrDefault("pending", 0L), counts.getPending());
+        assertEquals(global.getOrDefault("accepted", 0L), counts.getAccepted());
+        assertEquals(global.getOrDefault("rejected", 0L), counts.getRejected());
+        assertEquals(global.getOrDefault("cancelled", 0L), counts.getCancelled());
+    }
+
+    @Test
+    void concurrentFirstBookingsForADoctorWithoutCounterRowsAllCount() throws Exception {
+        // Saved without doctorCreated, like a doctor that predates the last rebuild
+        long doctorId = doctor(false);
+        String patient = patient();
+        int bookings = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(bookings);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < bookings; i++) {
+                // A different day each, so the bookings do not share a slot lock
+                LocalDate date = LocalDate.of(2056, 7, 1).plusDays(i);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return book(patient, doctorId, date, LocalTime.of(9, 0));
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertCounts(doctorId, bookings, 0, 0, 0);
+        assertEquals(tableCounts(doctorId), counterRows(doctorId));
+    }
+
+    private void assertCounts(long doctorId, long pending, long accepted, long rejected, long cancelled) {
+        AppointmentStatusCountsDTO counts = appointmentCounters.getDoctorCounts(doctorId);
+        assertEquals(List.of(pending, accepted, rejected, cancelled),
+                List.of(counts.getPending(), counts.getAccepted(), counts.getRejected(), counts.getCancelled()));
+    }
+
+    // Non-zero counter rows, which must match the live counts exactly
+    private Map<String, Long> counterRows(long doctorId) {
+        Map<String, Long> rows = new HashMap<>();
+        jdbcTemplate.query("select status, appointment_count from appointment_status_count "
+                + "where doctor_id = ? and appointment_count <> 0", row -> {
+            rows.put(row.getString(1), row.getLong(2));
+        }, doctorId);
+        return rows;
+    }
+
+    private Map<String, Long> tableCounts(long doctorId) {
+        Map<String, Long> rows = new HashMap<>();
+        jdbcTemplate.query("select status, count(*) from appointment where doctor_id = ? group by status", row -> {
+            rows.put(row.getString(1), row.getLong(2));
+        }, doctorId);
+        return rows;
+    }
+
+    private AppointmentDTO book(String patientEmail, long doctorId, LocalDate date, LocalTime time) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                patientEmail, null, List.of(new SimpleGrantedAuthority("ROLE_PATIENT"))));
+        try {
+            return appointmentService.bookAppointment(doctorId, date, time, "counters");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private long doctor(boolean withCounterRows) {
+        String run = Long.toString(System.nanoTime(), 36);
+        Doctor doctor = new Doctor("Dr Counted " + run, "General", "000", null, "about", "1 year");
+        doctor.setEmail("doctor-" + run + "@counters.test");
+        doctor.setPassword("x");
+        doctor.setRole("Doctor");
+        long id = userRepository.save(doctor).getId();
+        if (withCounterRows) {
+            appointmentCounters.doctorCreated(id);
+        }
+        return id;
+    }
+
+    private String patient() {
+        String run = Long.toString(System.nanoTime(), 36);
+        Patient patient = new Patient("000", "Patient " + run);
+        patient.setEmail("patient-" + run + "@counters.test");
+        patient.setPassword("x");
+        patient.setRole("PATIENT");
+        return userRepository.save(patient).getEmail();
+    }
+}
@@ -0,0 +1,146 @@
+package com.gloriatech.medimeet.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gloriatech.medimeet.model.Appointment;
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.repository.AppointmentRepository;
+import com.gloriatech.medimeet.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cursor tokens round-trip, bad tokens are a client error, and paging walks
+ * appointments sharing a (date, time) by id without gaps or repeats.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentCursorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    void tokensRoundTripAndRejectAnythingElse() {
+        AppointmentCursor cursor = new AppointmentCursor(LocalDate.of(2057, 1, 5), LocalTime.of(9, 30), 42);
+        String token = cursor.encode();
+
+        assertEquals(cursor, AppointmentCursor.decode(token));
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "URL-safe without padding");
+        assertThrows(IllegalArgumentException.class, () -> AppointmentCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> AppointmentCursor.decode(encode("2057-01-05|09:30")));
+        assertThrows(IllegalArgumentException.class, () -> AppointmentCursor.decode(encode("2057-13-05|09:30|42")));
+        assertThrows(IllegalArgumentException.class, () -> AppointmentCursor.decode(encode("2057-01-05|09:30|x")));
+    }
+
+    @Test
+    void pagesWalkTiesByIdAndEndWithoutACursor() throws Exception {
+        String run = Long.toString(System.nanoTime(), 36);
+        Doctor doctor = new Doctor("Dr Paged " + run, "General", "000", null, "about", "1 year");
+        doctor.setEmail("doctor-" + run + "@cursor.test");
+        doctor.setPassword("x");
+        doctor.setRole("Doctor");
+        doctor = userRepository.save(doctor);
+        Patient patient = new Patient("000", "Patient " + run);
+        patient.setEmail("patient-" + run + "@cursor.test");
+        patient.setPassword("x");
+        patient.setRole("PATIENT");
+        patient = userRepository.save(patient);
+
+        // Rejected appointments do not hold their slot, so several can share one (date, time)
+        List<Long> expected = new ArrayList<>();
+        LocalDate day = LocalDate.of(2057, 1, 5);
+        expected.add(save(doctor, patient, day, LocalTime.of(8, 0), "pending"));
+        for (int i = 0; i < 4; i++) {
+            expected.add(save(doctor, patient, day, LocalTime.of(9, 0), "rejected"));
+        }
+        expected.add(save(doctor, patient, day, LocalTime.of(9, 0), "pending"));
+        expected.add(save(doctor, patient, day.plusDays(1), LocalTime.of(7, 0), "accepted"));
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        JsonNode page;
+        do {
+            page = page(doctor.getEmail(), cursor, 2);
+            page.get("content").forEach(row -> seen.add(row.get("id").asLong()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            assertEquals(cursor == null, page.get("last").asBoolean());
+        } while (cursor != null);
+
+        assertEquals(expected, seen);
+        // Seven rows in pages of two: the last page is short and carries no cursor
+        assertEquals(1, page.get("content").size());
+
+        // A page that exactly fills up is the last one too
+        JsonNode exact = page(doctor.getEmail(), null, expected.size());
+        assertTrue(exact.get("last").asBoolean());
+        assertFalse(exact.hasNonNull("nextCursor"));
+        assertFalse(page(doctor.getEmail(), null, expected.size() - 1).get("last").asBoolean());
+    }
+
+    @Test
+    void invalidOrTamperedCursorsAreBadRequests() throws Exception {
+        String run = Long.toString(System.nanoTime(), 36);
+        Doctor doctor = new Doctor("Dr Tampered " + run, "General", "000", null, "about", "1 year");
+        doctor.setEmail("tampered-" + run + "@cursor.test");
+        doctor.setPassword("x");
+        doctor.setRole("Doctor");
+        doctor = userRepository.save(doctor);
+        String valid = new AppointmentCursor(LocalDate.of(2057, 1, 5), LocalTime.of(9, 0), 1).encode();
+
+        for (String cursor : List.of("%%%", valid.substring(0, valid.length() - 3) + "!!!",
+                encode("2057-01-05|09:00"), encode("2057-01-05|25:00|1"), encode("2057-01-05|09:00|99999999999999999999"))) {
+            mockMvc.perform(get("/api/appointments/doctor").param("cursor", cursor)
+                            .with(user(doctor.getEmail()).roles("DOCTOR")))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private long save(Doctor doctor, Patient patient, LocalDate date, LocalTime time, String status) {
+        return appointmentRepository.save(new Appointment(null, doctor, patient, date, time, "paging", status)).getId();
+    }
+
+    private JsonNode page(String doctorEmail, String cursor, int size) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/appointments/doctor").param("size", Integer.toString(size))
+                .with(user(doctorEmail).roles("DOCTOR"));
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        return objectMapper.readTree(mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
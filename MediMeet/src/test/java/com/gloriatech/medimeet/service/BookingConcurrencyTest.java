@@ -0,0 +1,194 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.repository.AppointmentRepository;
+import com.gloriatech.medimeet.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hundreds of patients booking at once must never end up sharing a slot, and a
+ * booking held up on one doctor's stripe must not hold up other doctors.
+ */
+@SpringBootTest
+class BookingConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private SlotLocks slotLocks;
+
+    @Test
+    void concurrentBookersNeverDoubleBookASlot() throws Exception {
+        int doctors = 8;
+        int slotsPerDoctor = 5;
+        int bookers = 400;
+        List<Long> doctorIds = createDoctors("race", doctors);
+        List<String> patients = createPatients("race", 50);
+        LocalDate date = LocalDate.of(2030, 1, 7);
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        runConcurrently(bookers, i -> {
+            long doctorId = doctorIds.get(i % doctors);
+            LocalTime time = LocalTime.of(9, 0).plusMinutes(30L * ((i / doctors) % slotsPerDoctor));
+            try {
+                book(patients.get(i % patients.size()), doctorId, date, time);
+                booked.incrementAndGet();
+            } catch (IllegalStateException e) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        assertEquals(doctors * slotsPerDoctor, booked.get());
+        assertEquals(bookers - booked.get(), conflicts.get());
+        for (Long doctorId : doctorIds) {
+            List<LocalTime> held = appointmentRepository.findHeldSlotTimes(doctorId, date);
+            assertEquals(slotsPerDoctor, held.size());
+            assertEquals(slotsPerDoctor, new HashSet<>(held).size());
+        }
+    }
+
+    @Test
+    void bookingsForDifferentDoctorsDoNotShareALock() throws Exception {
+        List<String> patients = createPatients("spread", 1);
+        LocalDate date = LocalDate.of(2030, 1, 8);
+        List<Long> doctors = createDoctors("spread", 2);
+        long busy = doctors.get(0);
+        long other = doctors.get(1);
+        if (slotLocks.stripeIndex(busy, date) == slotLocks.stripeIndex(other, date)) {
+            other = createDoctors("spread-other", 1).get(0);
+        }
+        long free = other;
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Hold the busy doctor's stripe, as a slow booking would
+            Future<?> holder = pool.submit(() -> slotLocks.withLock(busy, date, () -> {
+                held.countDown();
+                try {
+                    return release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            assertTrue(held.await(10, TimeUnit.SECONDS));
+
+            Future<?> sameStripe = pool.submit(() -> {
+                book(patients.get(0), busy, date, LocalTime.of(9, 0));
+                return null;
+            });
+            Future<?> otherStripe = pool.submit(() -> {
+                book(patients.get(0), free, date, LocalTime.of(9, 0));
+                return null;
+            });
+
+            // Completes while the busy stripe is still held
+            otherStripe.get(10, TimeUnit.SECONDS);
+            assertFalse(sameStripe.isDone(), "booking on the held stripe must wait for it");
+
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+            sameStripe.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+        assertEquals(1, appointmentRepository.findHeldSlotTimes(busy, date).size());
+        assertEquals(1, appointmentRepository.findHeldSlotTimes(free, date).size());
+    }
+
+    private void book(String patientEmail, long doctorId, LocalDate date, LocalTime time) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                patientEmail, null, List.of(new SimpleGrantedAuthority("ROLE_PATIENT"))));
+        try {
+            appointmentService.bookAppointment(doctorId, date, time, "load test");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Starts all tasks together and waits for the last one to finish
+    private void runConcurrently(int tasks, IntTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Long> createDoctors(String prefix, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Doctor doctor = new Doctor("Dr " + prefix + i, "General", "000", null, "about", "1 year");
+            doctor.setEmail(prefix + i + "@doctor.test");
+            doctor.setPassword("x");
+            doctor.setRole("Doctor");
+            ids.add(userRepository.save(doctor).getId());
+        }
+        return ids;
+    }
+
+    private List<String> createPatients(String prefix, int count) {
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Patient patient = new Patient("000", "Patient " + prefix + i);
+            patient.setEmail(prefix + i + "@patient.test");
+            patient.setPassword("x");
+            patient.setRole("PATIENT");
+            emails.add(userRepository.save(patient).getEmail());
+        }
+        return emails;
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int index) throws Exception;
+    }
+}
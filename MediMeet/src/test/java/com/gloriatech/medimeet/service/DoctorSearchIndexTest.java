@@ -0,0 +1,111 @@
+package com.gloriatech.medimeet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gloriatech.medimeet.dto.DoctorDTO;
+import com.gloriatech.medimeet.dto.DoctorSearchResultDTO;
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.repository.DoctorRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Prefix, multi-term and case-insensitive matching in the doctor search index,
+ * incremental updates, and paging over the directory's search results.
+ */
+class DoctorSearchIndexTest {
+
+    private static final List<DoctorDirectory.Entry> DOCTORS = List.of(
+            entry(1, "Amara Okafor", "Cardiology"),
+            entry(2, "Bruno Cardoso", "Dermatology"),
+            entry(3, "Chen Amadi", "Cardiology"),
+            entry(4, "Divya Nair", "Pediatrics"));
+
+    @Test
+    void termsMatchAsPrefixesRegardlessOfCase() {
+        DoctorSearchIndex index = DoctorSearchIndex.build(DOCTORS);
+
+        // "card" is a prefix of Cardiology and of Cardoso
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(index.search("card")));
+        assertEquals(List.of(1L, 3L), List.copyOf(index.search("AMA")));
+        assertEquals(List.of(4L), List.copyOf(index.search("  dIVYA  ")));
+        assertTrue(index.search("cardiologist").isEmpty());
+        assertTrue(index.search("   ").isEmpty());
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        DoctorSearchIndex index = DoctorSearchIndex.build(DOCTORS);
+
+        assertEquals(List.of(3L), List.copyOf(index.search("cardio chen")));
+        assertEquals(List.of(1L, 3L), List.copyOf(index.search("cardiology am")));
+        assertTrue(index.search("cardio divya").isEmpty());
+    }
+
+    @Test
+    void specialisationLookupIsExactAndCaseInsensitive() {
+        DoctorSearchIndex index = DoctorSearchIndex.build(DOCTORS);
+
+        assertEquals(List.of(1L, 3L), List.copyOf(index.bySpecialisation(" cardiology ")));
+        assertTrue(index.bySpecialisation("cardio").isEmpty());
+    }
+
+    @Test
+    void updatesMoveTheDoctorBetweenPostings() {
+        DoctorSearchIndex index = DoctorSearchIndex.build(DOCTORS);
+        DoctorSearchIndex updated = index.with(DOCTORS.get(0), entry(1, "Amara Okafor", "Neurology"));
+
+        assertEquals(List.of(3L), List.copyOf(updated.bySpecialisation("Cardiology")));
+        assertEquals(List.of(1L), List.copyOf(updated.search("neuro")));
+        // The previous index is unchanged
+        assertEquals(List.of(1L, 3L), List.copyOf(index.bySpecialisation("Cardiology")));
+
+        DoctorSearchIndex deleted = updated.with(entry(1, "Amara Okafor", "Neurology"), null);
+        assertTrue(deleted.search("amara").isEmpty());
+        assertTrue(deleted.specialisations().stream().noneMatch(s -> s.displayName().equals("Neurology")));
+    }
+
+    @Test
+    void searchPagesThroughTheMatches() {
+        DoctorRepository repository = mock(DoctorRepository.class);
+        List<Doctor> doctors = DOCTORS.stream().map(DoctorSearchIndexTest::doctor).toList();
+        when(repository.findAllDoctors()).thenReturn(doctors);
+        DoctorDirectory directory = new DoctorDirectory(repository, new ObjectMapper());
+
+        DoctorSearchResultDTO first = directory.search("card", 0, 2);
+        assertEquals(List.of(1L, 2L), first.getContent().stream().map(DoctorDTO::getId).toList());
+        assertEquals(3, first.getTotalElements());
+        assertFalse(first.isLast());
+
+        DoctorSearchResultDTO second = directory.search("card", 1, 2);
+        assertEquals(List.of(3L), second.getContent().stream().map(DoctorDTO::getId).toList());
+        assertTrue(second.isLast());
+
+        DoctorSearchResultDTO beyond = directory.search("card", 5, 2);
+        assertTrue(beyond.getContent().isEmpty());
+        assertTrue(beyond.isLast());
+
+        // Blank queries list everyone; a huge page number does not overflow the offset
+        assertEquals(4, directory.search("", 0, 10).getTotalElements());
+        assertTrue(directory.search("", Integer.MAX_VALUE, Integer.MAX_VALUE).getContent().isEmpty());
+    }
+
+    private static DoctorDirectory.Entry entry(long id, String name, String specialisation) {
+        return new DoctorDirectory.Entry(id, name, "d" + id + "@search.test", "000", specialisation,
+                "d.jpg", "about", "5 years");
+    }
+
+    private static Doctor doctor(DoctorDirectory.Entry entry) {
+        Doctor doctor = new Doctor(entry.name(), entry.specialisation(), entry.phone(), entry.imageUrl(),
+                entry.about(), entry.experience());
+        doctor.setId(entry.id());
+        doctor.setEmail(entry.email());
+        return doctor;
+    }
+}
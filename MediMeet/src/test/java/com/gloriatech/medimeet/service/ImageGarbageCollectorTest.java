@@ -0,0 +1,103 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.service.ImageStore.Variant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Uploads shared by identical content stay until the last doctor using them
+ * lets go, through doctor updates and deletes as well as the periodic sweep.
+ */
+@SpringBootTest(properties = "images.gc.grace-ms=0")
+class ImageGarbageCollectorTest {
+
+    private static final AtomicLong DOCTORS = new AtomicLong(System.nanoTime());
+
+    @DynamicPropertySource
+    static void imageDir(DynamicPropertyRegistry registry) throws IOException {
+        Path dir = Files.createTempDirectory("medimeet-gc");
+        registry.add("images.dir", dir::toString);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageGarbageCollector imageGarbageCollector;
+
+    @Test
+    void imagesAreDeletedWhenTheLastDoctorLetsGo() throws Exception {
+        byte[] shared = png(Color.RED);
+        Doctor first = userService.addDoctor(doctor(), upload(shared));
+        Doctor second = userService.addDoctor(doctor(), upload(shared));
+        assertEquals(first.getImageUrl(), second.getImageUrl());
+        String sharedName = filename(first);
+
+        Doctor updated = userService.updateDoctor(first.getId(), new Doctor(), upload(png(Color.BLUE)));
+        assertTrue(imageStore.find(sharedName).isPresent(), "still used by the second doctor");
+
+        userService.deleteDoctor(second.getId());
+        assertTrue(imageStore.find(sharedName).isEmpty());
+        assertTrue(imageStore.find(Variant.CARD, sharedName).isEmpty());
+        assertTrue(imageStore.find(Variant.CARD, filename(updated)).isPresent());
+    }
+
+    @Test
+    void sweepDeletesUploadsNoDoctorRefersTo() throws Exception {
+        String orphan = imageStore.store(new ByteArrayInputStream(png(Color.GREEN)));
+        Doctor doctor = userService.addDoctor(doctor(), upload(png(Color.ORANGE)));
+
+        assertTrue(imageGarbageCollector.sweep() >= 1);
+        assertTrue(imageStore.find(orphan).isEmpty());
+        assertTrue(imageStore.find(filename(doctor)).isPresent());
+    }
+
+    private static Doctor doctor() {
+        long n = DOCTORS.incrementAndGet();
+        Doctor doctor = new Doctor("Dr GC " + n, "Dermatology", "555-0100", null, "About", "5 years");
+        doctor.setEmail("gc" + n + "@example.com");
+        doctor.setPassword("secret");
+        return doctor;
+    }
+
+    private static String filename(Doctor doctor) {
+        return ImageStore.filename(doctor.getImageUrl()).orElseThrow();
+    }
+
+    private static MockMultipartFile upload(byte[] content) {
+        return new MockMultipartFile("image", "photo.png", "image/png", content);
+    }
+
+    private static byte[] png(Color color) throws IOException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, 64, 64);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,166 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.service.ImageStore.StoredImage;
+import com.gloriatech.medimeet.service.ImageStore.Variant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Uploads are identified by content, size-checked while streaming, stored once
+ * per content with their card and thumbnail variants, and leave nothing behind
+ * when rejected.
+ */
+class ImageStoreTest {
+
+    @TempDir
+    Path root;
+
+    private LocalBlobStore blobs;
+
+    @BeforeEach
+    void createBlobStore() {
+        blobs = new LocalBlobStore(root.toString());
+    }
+
+    private ImageStore store(long maxUploadBytes) {
+        return new ImageStore(blobs, maxUploadBytes, 40_000_000, 1 << 20, 64 * 1024);
+    }
+
+    @Test
+    void uploadIsStoredWithPreSizedVariants() throws Exception {
+        byte[] jpeg = encode(image(2400, 1600, false), "jpg");
+        String name = store(10_000_000).store(new ByteArrayInputStream(jpeg));
+
+        assertEquals(sha256(jpeg) + ".jpg", name);
+        assertArrayEquals(jpeg, Files.readAllBytes(blobs.resolve(name)));
+        assertDimensions(blobs.resolve("card/" + name), 480, 320);
+        assertDimensions(blobs.resolve("thumb/" + name), 128, 85);
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    void identicalUploadsShareOneImageUntilDeleted() throws Exception {
+        byte[] png = encode(image(600, 400, false), "png");
+        ImageStore store = store(10_000_000);
+        String first = store.store(new ByteArrayInputStream(png));
+        String second = store.store(new ByteArrayInputStream(png));
+        assertEquals(first, second);
+        assertEquals(1, countImages());
+        assertTrue(store.find(Variant.CARD, first).orElseThrow().etag().startsWith("\"card-"));
+
+        store.delete(first);
+        assertTrue(store.find(first).isEmpty());
+        assertFalse(Files.exists(blobs.resolve("card/" + first)));
+        assertFalse(Files.exists(blobs.resolve("thumb/" + first)));
+    }
+
+    @Test
+    void formatComesFromTheContentNotTheName() throws Exception {
+        byte[] png = encode(image(300, 600, true), "png");
+        String name = store(10_000_000).store(new ByteArrayInputStream(png));
+        assertTrue(name.endsWith(".png"));
+        BufferedImage card = ImageIO.read(blobs.resolve("card/" + name).toFile());
+        assertTrue(card.getColorModel().hasAlpha());
+
+        ImageStore store = store(10_000_000);
+        assertThrows(IllegalArgumentException.class,
+                () -> store.store(new ByteArrayInputStream("<html>not an image</html>".getBytes())));
+        // JPEG magic bytes followed by garbage
+        byte[] fake = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0x00, 0x01, 0x02, 0x03};
+        assertThrows(IllegalArgumentException.class, () -> store.store(new ByteArrayInputStream(fake)));
+        assertNoTemporaryFiles();
+        assertEquals(1, countImages());
+    }
+
+    @Test
+    void oversizedUploadIsRejectedWhileStreaming() throws Exception {
+        byte[] png = encode(image(400, 400, false), "png");
+        ImageStore store = store(png.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> store.store(new ByteArrayInputStream(png)));
+        assertNoTemporaryFiles();
+        assertEquals(0, countImages());
+    }
+
+    @Test
+    void imagesStoredBeforeVariantsGetThemOnFirstRequest() throws Exception {
+        Files.write(root.resolve("legacy.png"), encode(image(1000, 1000, false), "png"));
+        ImageStore store = store(10_000_000);
+
+        StoredImage card = store.find(Variant.CARD, "legacy.png").orElseThrow();
+        assertEquals(root.resolve("card").resolve("legacy.png"), card.path());
+        assertDimensions(card.path(), 480, 480);
+        assertTrue(store.find(Variant.THUMB, "missing.png").isEmpty());
+        assertTrue(store.find(Variant.THUMB, "../legacy.png").isEmpty());
+    }
+
+    @Test
+    void variantUrlsFollowTheStoredImageUrl() {
+        assertEquals("assets/card/a.jpg", ImageStore.variantUrl("assets/a.jpg", Variant.CARD));
+        assertEquals("http://cdn/a.jpg", ImageStore.variantUrl("http://cdn/a.jpg", Variant.CARD));
+        assertEquals(null, ImageStore.variantUrl(null, Variant.THUMB));
+    }
+
+    private void assertDimensions(Path file, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+    }
+
+    private void assertNoTemporaryFiles() throws IOException {
+        Path temp = root.resolve(".tmp");
+        if (Files.isDirectory(temp)) {
+            try (Stream<Path> files = Files.list(temp)) {
+                assertEquals(0, files.count());
+            }
+        }
+    }
+
+    private long countImages() throws IOException {
+        AtomicInteger count = new AtomicInteger();
+        blobs.list(blob -> count.incrementAndGet());
+        return count.get();
+    }
+
+    private static String sha256(byte[] content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    static BufferedImage image(int width, int height, boolean alpha) {
+        BufferedImage image = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(30, 120, 200, alpha ? 128 : 255));
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+        return image;
+    }
+
+    static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,63 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.model.Patient;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The verified-token cache hands back the claims of the first verification and
+ * never serves a token past its expiry or one signed with another key.
+ */
+class JwtServiceTest {
+
+    private static final String SECRET = "defaultSecretKeyForDevelopmentEnvironmentOnly";
+
+    @Test
+    void repeatVerificationsReturnTheCachedClaims() {
+        JwtService jwtService = new JwtService(SECRET, 60_000, 100);
+        String token = jwtService.generateToken(patient());
+
+        Claims first = jwtService.verify(token);
+        Claims second = jwtService.verify(token);
+
+        assertSame(first, second);
+        assertEquals("patient@jwt.test", second.getSubject());
+        assertEquals(7, second.get(JwtService.CLAIM_USER_ID, Number.class).intValue());
+        assertEquals(3, second.get(JwtService.CLAIM_CREDENTIAL_VERSION, Number.class).intValue());
+    }
+
+    @Test
+    void expiredTokensAreNotServedFromTheCache() throws InterruptedException {
+        // exp has whole-second precision, so this token expires within 0.5 to 1.5 seconds
+        JwtService jwtService = new JwtService(SECRET, 1500, 100);
+        String token = jwtService.generateToken(patient());
+        jwtService.verify(token);
+
+        Thread.sleep(2100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void tokensFromAnotherKeyAreRejected() {
+        JwtService jwtService = new JwtService(SECRET, 60_000, 100);
+        String forged = new JwtService(SECRET + "-other", 60_000, 100).generateToken(patient());
+
+        assertThrows(SignatureException.class, () -> jwtService.verify(forged));
+    }
+
+    private static Patient patient() {
+        Patient patient = new Patient("000", "Jwt Patient");
+        patient.setId(7L);
+        patient.setEmail("patient@jwt.test");
+        patient.setRole("PATIENT");
+        patient.setCredentialVersion(3);
+        return patient;
+    }
+}
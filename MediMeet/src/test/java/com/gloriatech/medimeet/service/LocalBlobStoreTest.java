@@ -0,0 +1,95 @@
+package com.gloriatech.medimeet.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Content-addressed blobs on the local file system: sharded paths, one copy per
+ * content, derived and legacy files left out of listings, and keys that cannot
+ * leave the image directory.
+ */
+class LocalBlobStoreTest {
+
+    // SHA-256 of "doctor"
+    private static final String DOCTOR_HASH = "72f4be89d6ebab1496e21e38bcd7c8ca0a68928af3081ad7dff87e772eb350c2";
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path elsewhere;
+
+    @Test
+    void blobsAreStoredOnceUnderTheirHashInShardDirectories() throws Exception {
+        LocalBlobStore store = new LocalBlobStore(root.toString());
+        String key = store.put(file(store, "doctor"), "png");
+        assertEquals(DOCTOR_HASH + ".png", key);
+        Path path = root.resolve(DOCTOR_HASH.substring(0, 2)).resolve(DOCTOR_HASH.substring(2, 4)).resolve(key);
+        assertEquals("doctor", Files.readString(path));
+
+        // The same content again refreshes the existing blob instead of adding one
+        Files.setLastModifiedTime(path, FileTime.fromMillis(1_000));
+        Path again = file(store, "doctor");
+        assertEquals(key, store.put(again, "png"));
+        assertFalse(Files.exists(again));
+        assertTrue(store.find(key).orElseThrow().lastModified() > 1_000);
+
+        assertEquals(key, store.put(Files.writeString(elsewhere.resolve("copy"), "doctor"), "png"));
+        assertEquals(1, list(store).size());
+    }
+
+    @Test
+    void listingOnlyCoversContentAddressedBlobs() throws Exception {
+        LocalBlobStore store = new LocalBlobStore(root.toString());
+        String key = store.put(file(store, "original"), "jpg");
+        store.put("card/" + key, file(store, "scaled"));
+        Files.writeString(root.resolve("logo.png"), "legacy");
+
+        assertEquals(List.of(key), list(store));
+        assertEquals("scaled", read(store, "card/" + key, 0));
+        assertEquals("acy", read(store, "logo.png", 3));
+        assertTrue(store.find("card/" + key).orElseThrow().path().startsWith(root.resolve("card")));
+
+        store.delete(key);
+        assertTrue(store.find(key).isEmpty());
+        assertTrue(list(store).isEmpty());
+    }
+
+    @Test
+    void keysStayInsideTheImageDirectory() {
+        LocalBlobStore store = new LocalBlobStore(root.toString());
+        assertThrows(IllegalArgumentException.class, () -> store.find("../secret"));
+        assertThrows(IllegalArgumentException.class, () -> store.find("card/../../secret"));
+        assertThrows(IllegalArgumentException.class, () -> store.find(".tmp/upload"));
+        assertThrows(IllegalArgumentException.class, () -> store.find("/etc/passwd"));
+    }
+
+    private static Path file(LocalBlobStore store, String content) throws Exception {
+        return Files.writeString(store.createTempFile("test-"), content);
+    }
+
+    private static String read(LocalBlobStore store, String key, long offset) throws Exception {
+        try (InputStream in = store.open(key, offset)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<String> list(LocalBlobStore store) throws Exception {
+        List<String> keys = new ArrayList<>();
+        store.list(blob -> keys.add(blob.key()));
+        return keys;
+    }
+}
@@ -0,0 +1,109 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.model.OutboundMail;
+import com.gloriatech.medimeet.repository.OutboundMailRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Delivers queued mail to an embedded GreenMail SMTP server: queued messages
+ * arrive without the caller waiting, and mail that fails while the server is
+ * down is retried later with backoff.
+ */
+@SpringBootTest
+class MailOutboxTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MailOutbox mailOutbox;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private OutboundMailRepository outboundMailRepository;
+
+    @Test
+    void queuedMailIsDeliveredAsynchronously() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            emailService.sendPasswordResetEmail("user" + i + "@example.com", "12345" + i, Duration.ofMinutes(10));
+        }
+
+        Set<String> expected = Set.of("user0@example.com", "user1@example.com", "user2@example.com",
+                "user3@example.com", "user4@example.com");
+        // Other tests may have queued mail of their own; only ours is asserted on
+        await(() -> receivedRecipients().containsAll(expected));
+        await(() -> outboundMailRepository.findAll().stream().noneMatch(m -> expected.contains(m.getRecipient())));
+    }
+
+    @Test
+    void failedMailIsRetriedWithBackoff() throws Exception {
+        greenMail.stop();
+        mailOutbox.enqueue("retry@example.com", "Retry", "Body");
+
+        OutboundMail failed = awaitMail(mail -> "retry@example.com".equals(mail.getRecipient())
+                && mail.getAttempts() == 1);
+        assertEquals(OutboundMail.PENDING, failed.getStatus());
+        assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+
+        // Server is back; make the retry due instead of waiting out the backoff
+        greenMail.start();
+        failed.setNextAttemptAt(LocalDateTime.now());
+        outboundMailRepository.save(failed);
+        mailOutbox.drain();
+
+        await(() -> receivedRecipients().contains("retry@example.com"));
+        await(() -> outboundMailRepository.findById(failed.getId()).isEmpty());
+    }
+
+    private OutboundMail awaitMail(Predicate<OutboundMail> condition) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Optional<OutboundMail> match = outboundMailRepository.findAll().stream().filter(condition).findFirst();
+            if (match.isPresent()) {
+                return match.get();
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Outbox never reached the expected state");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static Set<String> receivedRecipients() {
+        return Arrays.stream(greenMail.getReceivedMessages())
+                .map(MailOutboxTest::recipient)
+                .collect(Collectors.toSet());
+    }
+
+    private static String recipient(MimeMessage message) {
+        try {
+            return message.getAllRecipients()[0].toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
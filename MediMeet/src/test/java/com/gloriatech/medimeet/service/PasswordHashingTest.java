@@ -0,0 +1,85 @@
+package com.gloriatech.medimeet.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hashing runs on the bounded pool: results come back to the caller, and calls
+ * beyond the pool and its queue are refused instead of waiting.
+ */
+class PasswordHashingTest {
+
+    @Test
+    void callsBeyondThePoolAndQueueAreRefused() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHashing hashing = new PasswordHashing(new BlockingEncoder(started, release), 1, 1, 10000);
+        try {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hashing.encode("a"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hashing.encode("b"));
+            // Wait until the second call sits in the queue
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (hashing.queued() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThrows(PasswordHashing.Overloaded.class, () -> hashing.encode("c"));
+
+            release.countDown();
+            assertEquals("hashed:a", running.get(5, TimeUnit.SECONDS));
+            assertEquals("hashed:b", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            hashing.destroy();
+        }
+    }
+
+    @Test
+    void slowHashesTimeOut() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHashing hashing = new PasswordHashing(new BlockingEncoder(new CountDownLatch(1), release), 1, 1, 50);
+        try {
+            assertThrows(PasswordHashing.Overloaded.class, () -> hashing.matches("a", "hashed:a"));
+        } finally {
+            release.countDown();
+            hashing.destroy();
+        }
+    }
+
+    // Encodes as "hashed:<raw>" once released
+    private static final class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
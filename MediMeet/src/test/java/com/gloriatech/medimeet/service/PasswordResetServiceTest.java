@@ -0,0 +1,169 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.model.PasswordResetToken;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.repository.PasswordResetTokenRepository;
+import com.gloriatech.medimeet.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reset codes are stored hashed in the shared table, work once, run out after a
+ * few wrong guesses or when they expire, and requests past the per-email limit
+ * get a 429 without another email going out. An overloaded password hasher
+ * answers 503 and leaves the code usable.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PasswordResetServiceTest {
+
+    private static final AtomicLong USERS = new AtomicLong(System.nanoTime());
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordResetService passwordResetService;
+
+    @Autowired
+    private PasswordResetTokenRepository tokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Real hashing, except where a test makes the hasher report overload
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void codeResetsThePasswordOnceAndIsStoredOnlyAsAHash() {
+        String email = patient();
+        String code = requestCode(email);
+
+        PasswordResetToken token = tokenRepository.findById(email).orElseThrow();
+        assertEquals(64, token.getCodeHash().length());
+        assertFalse(token.getCodeHash().contains(code));
+
+        userService.resetPassword(email, code, "new-secret", "10.0.0.1");
+        assertTrue(passwordEncoder.matches("new-secret", userRepository.findByEmail(email).orElseThrow().getPassword()));
+        assertTrue(tokenRepository.findById(email).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.resetPassword(email, code, "other-secret", "10.0.0.1"));
+    }
+
+    @Test
+    void wrongGuessesUseTheCodeUp() {
+        String email = patient();
+        String code = requestCode(email);
+        String wrong = code.equals("000000") ? "000001" : "000000";
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> userService.resetPassword(email, wrong, "new-secret", "10.0.0.2"));
+        }
+        assertEquals(5, tokenRepository.findById(email).orElseThrow().getAttempts());
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.resetPassword(email, code, "new-secret", "10.0.0.2"));
+        assertFalse(passwordEncoder.matches("new-secret", userRepository.findByEmail(email).orElseThrow().getPassword()));
+    }
+
+    @Test
+    void expiredCodesAreRejectedAndPurged() {
+        String email = patient();
+        String code = requestCode(email);
+        PasswordResetToken token = tokenRepository.findById(email).orElseThrow();
+        token.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        tokenRepository.save(token);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.resetPassword(email, code, "new-secret", "10.0.0.3"));
+        passwordResetService.purgeExpired();
+        assertTrue(tokenRepository.findById(email).isEmpty());
+    }
+
+    @Test
+    void requestsPastThePerEmailLimitGet429() throws Exception {
+        String email = patient();
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/users/request-password-reset").param("email", email))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/api/users/request-password-reset").param("email", email))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        // Unknown addresses look the same to the caller, but no mail is queued
+        mockMvc.perform(post("/api/users/request-password-reset").param("email", "nobody@reset.test"))
+                .andExpect(status().isOk());
+        verify(emailService, never()).sendPasswordResetEmail(eq("nobody@reset.test"), anyString(), any());
+    }
+
+    @Test
+    void overloadedHashingAnswers503WithoutUsingUpTheCode() throws Exception {
+        String email = patient();
+        String code = requestCode(email);
+        doThrow(new PasswordHashing.Overloaded()).when(passwordEncoder).encode(anyString());
+
+        mockMvc.perform(post("/api/users/reset-password")
+                        .param("email", email).param("code", code).param("newPassword", "new-secret"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+        assertEquals(0, tokenRepository.findById(email).orElseThrow().getAttempts());
+        mockMvc.perform(post("/api/users/register/patient").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"overloaded" + USERS.incrementAndGet() + "@reset.test\",\"password\":\"x\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        reset(passwordEncoder);
+        userService.resetPassword(email, code, "new-secret", "10.0.0.4");
+        assertTrue(passwordEncoder.matches("new-secret", userRepository.findByEmail(email).orElseThrow().getPassword()));
+    }
+
+    private String patient() {
+        Patient patient = new Patient("000", "Reset Patient");
+        patient.setEmail("reset" + USERS.incrementAndGet() + "@reset.test");
+        patient.setPassword(passwordEncoder.encode("old-secret"));
+        patient.setRole("PATIENT");
+        return userRepository.save(patient).getEmail();
+    }
+
+    private String requestCode(String email) {
+        passwordResetService.sendCode(email, "10.0.1." + (USERS.get() % 250));
+        ArgumentCaptor<String> code = ArgumentCaptor.forClass(String.class);
+        verify(emailService).sendPasswordResetEmail(eq(email), code.capture(), eq(Duration.ofMinutes(10)));
+        assertTrue(code.getValue().matches("\\d{6}"));
+        return code.getValue();
+    }
+}
@@ -0,0 +1,131 @@
+package com.gloriatech.medimeet.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The S3 store against a real S3-compatible server. Opt-in, as it needs one
+ * running, e.g. {@code docker run -p 9000:9000 minio/minio server /data} and
+ * {@code MINIO_ENDPOINT=http://localhost:9000 mvn test -Dtest=S3BlobStoreTest}.
+ * Credentials default to MinIO's (minioadmin); override with MINIO_ACCESS_KEY
+ * and MINIO_SECRET_KEY.
+ */
+@EnabledIfEnvironmentVariable(named = "MINIO_ENDPOINT", matches = ".+")
+class S3BlobStoreTest {
+
+    private static final String BUCKET = "medimeet-test";
+
+    private static String endpoint;
+    private static String accessKey;
+    private static String secretKey;
+
+    @BeforeAll
+    static void createBucket() {
+        endpoint = System.getenv("MINIO_ENDPOINT");
+        accessKey = System.getenv().getOrDefault("MINIO_ACCESS_KEY", "minioadmin");
+        secretKey = System.getenv().getOrDefault("MINIO_SECRET_KEY", "minioadmin");
+        try (S3Client client = S3Client.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.US_EAST_1)
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                .build()) {
+            client.createBucket(request -> request.bucket(BUCKET));
+        } catch (BucketAlreadyOwnedByYouException e) {
+            // Left from an earlier run
+        }
+    }
+
+    @Test
+    void blobsRoundTripThroughTheBucket() throws Exception {
+        S3BlobStore store = store();
+        try {
+            String content = "doctor " + UUID.randomUUID();
+            String key = store.put(file(store, content), "jpg");
+            assertTrue(BlobStore.CONTENT_KEY.matcher(key).matches());
+
+            BlobStore.Blob blob = store.find(key).orElseThrow();
+            assertEquals(content.length(), blob.size());
+            assertNull(blob.path());
+            assertEquals(content, read(store, key, 0));
+            assertEquals(content.substring(7), read(store, key, 7));
+
+            // Identical content maps to the same object
+            Path again = file(store, content);
+            assertEquals(key, store.put(again, "jpg"));
+            assertFalse(Files.exists(again));
+
+            store.put("card/" + key, file(store, "scaled"));
+            assertEquals("scaled", read(store, "card/" + key, 0));
+            List<String> listed = new ArrayList<>();
+            store.list(b -> listed.add(b.key()));
+            assertTrue(listed.contains(key));
+            assertFalse(listed.contains("card/" + key));
+
+            store.delete("card/" + key);
+            store.delete(key);
+            assertTrue(store.find(key).isEmpty());
+            assertThrows(NoSuchFileException.class, () -> store.open(key, 0));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void imagesAreStoredAndScaledThroughTheBucket() throws Exception {
+        S3BlobStore store = store();
+        try {
+            ImageStore images = new ImageStore(store, 10_000_000, 40_000_000, 1 << 20, 64 * 1024);
+            byte[] png = ImageStoreTest.encode(ImageStoreTest.image(1200, 600, false), "png");
+            String name = images.store(new ByteArrayInputStream(png));
+
+            assertEquals(png.length, images.find(name).orElseThrow().size());
+            // Made on request from the original, which has to be fetched first
+            store.delete("thumb/" + name);
+            ImageStore.StoredImage thumb = images.find(ImageStore.Variant.THUMB, name).orElseThrow();
+            assertTrue(thumb.content() != null && thumb.content().length > 0);
+            images.delete(name);
+            assertTrue(images.find(name).isEmpty());
+        } finally {
+            store.close();
+        }
+    }
+
+    private S3BlobStore store() {
+        return new S3BlobStore(BUCKET, "test-" + UUID.randomUUID() + "/", "us-east-1", endpoint, true,
+                accessKey, secretKey);
+    }
+
+    private static Path file(S3BlobStore store, String content) throws Exception {
+        return Files.writeString(store.createTempFile("test-"), content);
+    }
+
+    private static String read(S3BlobStore store, String key, long offset) throws Exception {
+        try (InputStream in = store.open(key, offset)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
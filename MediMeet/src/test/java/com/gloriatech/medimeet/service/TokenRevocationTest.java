@@ -0,0 +1,110 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.model.User;
+import com.gloriatech.medimeet.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+/**
+ * Tokens stop authenticating once the user's credentials change or the user is
+ * deleted, both on the node that made the change and on a node (or restart)
+ * that only has the database to go by.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TokenRevocationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void passwordChangeRevokesEarlierTokens() throws Exception {
+        Patient patient = new Patient("000", "Revoked Patient");
+        patient.setEmail("patient-" + System.nanoTime() + "@revocation.test");
+        patient.setPassword("x");
+        patient.setRole("PATIENT");
+        patient = userRepository.save(patient);
+        String token = jwtService.generateToken(patient);
+        assertAuthenticated(token, true);
+        // Now served from the verified-token cache, which must not skip the revocation check
+        assertSame(jwtService.verify(token), jwtService.verify(token));
+
+        Patient update = new Patient();
+        update.setPassword("new-secret");
+        userService.updatePatientProfile(patient.getEmail(), update);
+
+        assertAuthenticated(token, false);
+        assertAuthenticated(jwtService.generateToken(userRepository.findById(patient.getId()).orElseThrow()), true);
+        assertTrue(freshNode().isRevoked(patient.getId(), 0));
+        assertFalse(freshNode().isRevoked(patient.getId(), 1));
+    }
+
+    @Test
+    void deletingADoctorRevokesTheirTokens() throws Exception {
+        Doctor doctor = new Doctor("Dr Revoked", "Cardiology", "000", "d.jpg", "about", "5 years");
+        doctor.setEmail("doctor-" + System.nanoTime() + "@revocation.test");
+        doctor.setPassword("x");
+        doctor.setRole("Doctor");
+        doctor = userRepository.save(doctor);
+        String token = jwtService.generateToken(doctor);
+        assertAuthenticated(token, true);
+
+        userService.deleteDoctor(doctor.getId());
+
+        assertAuthenticated(token, false);
+        assertTrue(freshNode().isRevoked(doctor.getId(), 0));
+    }
+
+    @Test
+    void changesFromAnotherNodeAreReadFromTheDatabase() {
+        Patient patient = new Patient("000", "Remote Patient");
+        patient.setEmail("remote-" + System.nanoTime() + "@revocation.test");
+        patient.setPassword("x");
+        patient.setRole("PATIENT");
+        User saved = userRepository.save(patient);
+        TokenRevocationService node = freshNode();
+        assertFalse(node.isRevoked(saved.getId(), 0));
+
+        jdbcTemplate.update("update users set credential_version = 1 where id = ?", saved.getId());
+
+        assertFalse(node.isRevoked(saved.getId(), 0), "cached until the TTL runs out");
+        assertTrue(freshNode().isRevoked(saved.getId(), 0));
+    }
+
+    // Same database, empty cache: what another node or a restarted one sees
+    private TokenRevocationService freshNode() {
+        return new TokenRevocationService(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    }
+
+    private void assertAuthenticated(String token, boolean authenticated) throws Exception {
+        mockMvc.perform(get("/api/appointments/auth-check").header("Authorization", "Bearer " + token))
+                .andExpect(jsonPath("$.isAnonymous").value(!authenticated));
+    }
+}
@@ -0,0 +1,142 @@
+package com.gloriatech.medimeet.service;
+
+import com.gloriatech.medimeet.model.Doctor;
+import com.gloriatech.medimeet.model.Patient;
+import com.gloriatech.medimeet.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Cached user details are evicted once a password reset, email change or
+ * delete commits, stay put when the change rolls back, and the cache reports
+ * its hits and misses.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserDetailsCacheTest {
+
+    // Same mock and spy as PasswordResetServiceTest, so both share one application context
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordResetService passwordResetService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void passwordResetIsSeenByTheNextLoad() {
+        String email = patient("reset");
+        userDetailsService.loadUserByUsername(email);
+
+        passwordResetService.sendCode(email, "10.0.2.1");
+        ArgumentCaptor<String> code = ArgumentCaptor.forClass(String.class);
+        verify(emailService).sendPasswordResetEmail(eq(email), code.capture(), any(Duration.class));
+        userService.resetPassword(email, code.getValue(), "new-secret", "10.0.2.1");
+
+        assertTrue(passwordEncoder.matches("new-secret", userDetailsService.loadUserByUsername(email).getPassword()));
+    }
+
+    @Test
+    void emailChangeDropsTheOldName() {
+        String email = patient("rename");
+        String renamed = "renamed-" + email;
+        userDetailsService.loadUserByUsername(email);
+
+        Patient update = new Patient();
+        update.setEmail(renamed);
+        userService.updatePatientProfile(email, update);
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(email));
+        assertEquals(renamed, userDetailsService.loadUserByUsername(renamed).getUsername());
+    }
+
+    @Test
+    void deletedDoctorIsNoLongerFound() {
+        Doctor doctor = new Doctor("Dr Cached", "General", "000", null, "about", "1 year");
+        doctor.setEmail("doctor-" + System.nanoTime() + "@user-cache.test");
+        doctor.setPassword("x");
+        doctor.setRole("Doctor");
+        doctor = userRepository.save(doctor);
+        userDetailsService.loadUserByUsername(doctor.getEmail());
+
+        userService.deleteDoctor(doctor.getId());
+
+        String email = doctor.getEmail();
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(email));
+    }
+
+    @Test
+    void rolledBackUpdateKeepsTheEntryAndLoadsCountHitsAndMisses() {
+        String email = patient("rollback");
+        double misses = gets("miss");
+        String cachedHash = userDetailsService.loadUserByUsername(email).getPassword();
+        assertEquals(1, gets("miss") - misses);
+
+        // Written behind the cache: only an eviction would make the next load see it
+        jdbcTemplate.update("update users set password = ? where email = ?", "{bcrypt}elsewhere", email);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Patient update = new Patient();
+            update.setPassword("never-committed");
+            userService.updatePatientProfile(email, update);
+            status.setRollbackOnly();
+        });
+
+        double hits = gets("hit");
+        assertEquals(cachedHash, userDetailsService.loadUserByUsername(email).getPassword());
+        assertEquals(1, gets("hit") - hits);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", result)
+                .functionCounter().count();
+    }
+
+    private String patient(String prefix) {
+        Patient patient = new Patient("000", "Cached Patient");
+        patient.setEmail(prefix + "-" + System.nanoTime() + "@user-cache.test");
+        patient.setPassword(passwordEncoder.encode("old-secret"));
+        patient.setRole("PATIENT");
+        return userRepository.save(patient).getEmail();
+    }
+}